@@ -0,0 +1,92 @@
+package group5.backend.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import group5.backend.service.ai.recomm.EmbeddingResponseParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /embeddings 응답 디코딩 비교 (배치 items 개, 차원 dim).
+ * - legacyFloatJson: 이전 구현 (숫자 배열 -> List<Double> 레코드 -> float[] 복사)
+ * - streamingFloatJson: 숫자 배열을 스트리밍 파서로 바로 float[]
+ * - streamingBase64: encoding_format=base64 응답을 바로 float[]
+ *
+ * 호출당 할당량은 gc 프로파일러의 gc.alloc.rate.norm (B/op) 으로 확인: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmbeddingDecodeBenchmark {
+
+    @Param({"512", "1536"})
+    int dim;
+
+    @Param({"1", "64"})
+    int items;
+
+    record LegacyResponse(List<Data> data) {
+        record Data(int index, List<Double> embedding) {}
+    }
+
+    private final ObjectMapper om = new ObjectMapper()
+            .configure(com.fasterxml.jackson.databind.DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    byte[] floatBody;
+    byte[] base64Body;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(7);
+        StringBuilder fj = new StringBuilder("{\"object\":\"list\",\"data\":[");
+        StringBuilder bj = new StringBuilder("{\"object\":\"list\",\"data\":[");
+        for (int it = 0; it < items; it++) {
+            float[] v = new float[dim];
+            for (int i = 0; i < dim; i++) v[i] = (float) (r.nextGaussian() * 0.03);
+
+            if (it > 0) { fj.append(','); bj.append(','); }
+            fj.append("{\"object\":\"embedding\",\"index\":").append(it).append(",\"embedding\":[");
+            for (int i = 0; i < dim; i++) { if (i > 0) fj.append(','); fj.append(v[i]); }
+            fj.append("]}");
+
+            ByteBuffer buf = ByteBuffer.allocate(dim * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (float x : v) buf.putFloat(x);
+            bj.append("{\"object\":\"embedding\",\"index\":").append(it)
+              .append(",\"embedding\":\"").append(Base64.getEncoder().encodeToString(buf.array())).append("\"}");
+        }
+        String tail = "],\"model\":\"text-embedding-3-small\",\"usage\":{\"prompt_tokens\":8,\"total_tokens\":8}}";
+        floatBody = fj.append(tail).toString().getBytes(StandardCharsets.UTF_8);
+        base64Body = bj.append(tail).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public float[][] legacyFloatJson() throws Exception {
+        var resp = om.readValue(floatBody, LegacyResponse.class);
+        float[][] out = new float[resp.data().size()][];
+        for (var d : resp.data()) {
+            float[] v = new float[d.embedding().size()];
+            for (int i = 0; i < v.length; i++) v[i] = d.embedding().get(i).floatValue();
+            out[d.index()] = v;
+        }
+        return out;
+    }
+
+    @Benchmark
+    public List<EmbeddingResponseParser.Item> streamingFloatJson() throws Exception {
+        return EmbeddingResponseParser.parse(floatBody);
+    }
+
+    @Benchmark
+    public List<EmbeddingResponseParser.Item> streamingBase64() throws Exception {
+        return EmbeddingResponseParser.parse(base64Body);
+    }
+}
@@ -29,6 +29,8 @@ public class OpenAiConfig {
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + props.getApiKey())
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .clientConnector(new ReactorClientHttpConnector(http))
+                // 임베딩 배치 응답(1536차원 base64 기준 항목당 약 8KB)이 기본 256KB 를 넘으므로 상한을 올린다
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(props.getMaxResponseBytes()))
                 .build();
     }
 }
@@ -17,4 +17,10 @@ public class OpenAiProperties {
     private int timeoutSec = 30;
     private int maxRetries = 3;
     private long initialBackoffMs = 1000;
+    // WebClient 응답 버퍼 상한 (기본 256KB 로는 임베딩 배치 응답을 못 받는다)
+    private int maxResponseBytes = 16 * 1024 * 1024;
+
+    // 계정 한도에 맞춘 전체 호출 예산 (임베딩 + 채팅 합산)
+    private long requestsPerMinute = 3000;
+    private long tokensPerMinute = 1_000_000;
 }
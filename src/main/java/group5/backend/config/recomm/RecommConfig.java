@@ -0,0 +1,9 @@
+package group5.backend.config.recomm;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RecommProperties.class)
+public class RecommConfig {
+}
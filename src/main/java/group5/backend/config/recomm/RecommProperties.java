@@ -0,0 +1,176 @@
+package group5.backend.config.recomm;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "recomm")
+public class RecommProperties {
+
+    private Migration migration = new Migration();
+    private Hydration hydration = new Hydration();
+    private Backfill backfill = new Backfill();
+    private Ann ann = new Ann();
+    private Index index = new Index();
+    private Dims dims = new Dims();
+    private ProfileCache profileCache = new ProfileCache();
+    private ProfileRebuild profileRebuild = new ProfileRebuild();
+    private Ranking ranking = new Ranking();
+    private HomeFeed homeFeed = new HomeFeed();
+    private Candidates candidates = new Candidates();
+    private Snapshot snapshot = new Snapshot();
+    private CoLike coLike = new CoLike();
+    private BatchScoring batchScoring = new BatchScoring();
+
+    public enum Quantization { NONE, INT8 }
+
+    @Data
+    public static class Migration {
+        // 기동 시 JSON 벡터 행을 바이너리로 변환 (변환할 행이 없으면 즉시 종료)
+        private boolean binaryVectors = true;
+        // 기동 시 정규화 안 된 아이템 벡터를 L2 정규화해서 다시 저장
+        private boolean normalizeVectors = true;
+        private int batchSize = 200;
+    }
+
+    @Data
+    public static class Hydration {
+        // 임베딩 생성 워커 수 / 워커당 한 번에 꺼내는 개수 / 대기열 최대 크기
+        private int workers = 2;
+        private int batchSize = 64;
+        private int queueCapacity = 10_000;
+    }
+
+    @Data
+    public static class Backfill {
+        // 기동 후 백그라운드로 자동 시작 (체크포인트부터 이어서)
+        private boolean autoStart = true;
+        private int pageSize = 128;
+        // 동시에 처리하는 페이지 수
+        private int concurrency = 2;
+    }
+
+    @Data
+    public static class Ann {
+        // 홈 추천 후보를 HNSW 근사 최근접 검색으로 수집
+        private boolean enabled = true;
+        // 노드당 이웃 수 (레이어 0 은 2배) / 삽입 시 탐색 폭 / 검색 시 탐색 폭
+        private int m = 16;
+        private int efConstruction = 100;
+        private int efSearch = 200;
+        // 유저당 가져올 최근접 후보 수
+        private int topK = 150;
+        // 삭제(tombstone) 비율이 이 값을 넘으면 살아있는 노드로 재빌드
+        private double rebuildTombstoneRatio = 0.3;
+    }
+
+    @Data
+    public static class Index {
+        // INT8: 벡터당 int8 + scale 로 보관 (슬랩 메모리 1/4. ann.enabled 면 HNSW 가 float32 사본을 따로 들고 있어
+        // 전체로는 약 5/8. 코사인 오차와 ANN 사본까지 더한 메모리는 /__diag/embeddings/quantization 으로 확인)
+        private Quantization quantization = Quantization.NONE;
+    }
+
+    @Data
+    public static class Dims {
+        // 전환할 임베딩 차원 (0 = 전환 없음). 설정하면 신규 임베딩은 두 차원 모두 저장
+        private int targetDim = 0;
+        private int pageSize = 500;
+    }
+
+    @Data
+    public static class ProfileCache {
+        // 디코딩된 프로필 벡터 캐시 (1536 dim 기준 항목당 약 6KB)
+        private long maxSize = 50_000;
+        private long ttlMinutes = 30;
+    }
+
+    @Data
+    public static class ProfileRebuild {
+        // 증분 갱신(sum ± item)으로 쌓인 float 오차 보정용 전체 재계산
+        private boolean enabled = true;
+        private String cron = "0 30 3 * * *";
+    }
+
+    @Data
+    public static class Ranking {
+        // 후보가 이 수 이상이면 전용 ForkJoin 풀에서 병렬 점수화
+        private int parallelThreshold = 2_000;
+        // 0 = CPU 코어 수
+        private int parallelism = 0;
+        // 2단계 랭킹: 후보가 prefilter-keep 보다 많으면 앞 prefilter-dim 차원 코사인으로 먼저 거르고 남은 것만 전체 차원 점수화
+        private int prefilterDim = 128;   // 0 = 끄기 (항상 전체 차원)
+        private int prefilterKeep = 300;
+    }
+
+    @Data
+    public static class HomeFeed {
+        // 유저별 홈 추천을 미리 계산해 두고 요청 시에는 조립만 한다
+        private boolean materialized = true;
+        // 저장 개수 (/home 6개, /home/detail 18개는 앞에서부터 자른다)
+        private int size = 18;
+        // 최근 이 기간 안에 홈을 본 유저만 주기적으로 갱신
+        private long refreshIntervalMinutes = 10;
+        private long activeHours = 72;
+        // 실시간 랭킹 결과의 유효 시간 (지나면 다시 랭킹). 배치 결과는 batch-scoring.valid-hours
+        private long maxAgeMinutes = 60;
+        private int workers = 2;
+    }
+
+    @Data
+    public static class Candidates {
+        // 인기 후보를 채울 때 유저 관심 카테고리 안에서 먼저 뽑고 남는 자리를 전체 인기순으로
+        private boolean categoryTier = true;
+    }
+
+    @Data
+    public static class Snapshot {
+        // 기동 시 바이너리 스냅샷 파일에서 인덱스를 적재하고 DB 는 이후 변경분만 읽는다
+        private boolean enabled = false;
+        private String path = "data/item-embeddings.snap";
+        // 주기적 내보내기 (한 노드에서만 켜고 파일은 공유 볼륨/배포 아티팩트로 전달)
+        private boolean exportEnabled = false;
+        private String exportCron = "0 0 4 * * *";
+    }
+
+    @Data
+    public static class CoLike {
+        // 즐겨찾기 테이블로 아이템-아이템 공동 좋아요 이웃을 주기적으로 만들어 후보/점수에 쓴다
+        private boolean enabled = true;
+        private long refreshMinutes = 60;
+        // 아이템당 보관할 이웃 수 / 이웃으로 인정할 최소 공동 좋아요 유저 수
+        private int neighbors = 50;
+        private int minCoLikes = 2;
+        // 좋아요가 이보다 많은 유저는 쌍 집계에서 제외 (쌍 수가 제곱으로 늘고 신호도 약함)
+        private int maxUserLikes = 300;
+        // 즐겨찾기 적재 시 쿼리 한 번에 읽는 user id 구간 폭
+        private int loadUserRange = 20_000;
+        // 0 = CPU 코어 수
+        private int parallelism = 0;
+        // 유저가 좋아요한 아이템들의 이웃에서 뽑는 후보 수
+        private int candidateTopK = 100;
+    }
+
+    @Data
+    public static class BatchScoring {
+        // 전체 유저 홈 추천을 유저 x 아이템 행렬곱으로 한 번에 계산해 user_home_recommendations 에 일괄 저장
+        private boolean enabled = false;
+        private String cron = "0 0 5 * * *";
+        // 유저당 저장 개수 (0 = home-feed.size)
+        private int topK = 0;
+        // 점수화 대상: 타입별 인기 상위 (이벤트/팝업은 진행중만)
+        private int maxItemsPerType = 20_000;
+        // DB 에서 한 번에 읽는 유저 프로필 수
+        private int userPage = 4_096;
+        // 캐시 블로킹: 유저 블록(스레드 작업 단위) x 아이템 블록 x 차원 블록
+        private int userBlock = 32;
+        private int itemBlock = 128;
+        private int depthBlock = 256;
+        // 0 = CPU 코어 수
+        private int parallelism = 0;
+        // INSERT ... ON DUPLICATE KEY UPDATE 한 문장에 묶는 행 수
+        private int writeBatch = 500;
+        // 배치 결과 유효 시간 (다음 배치까지 + 여유). 실시간 결과는 home-feed.max-age-minutes
+        private long validHours = 26;
+    }
+}
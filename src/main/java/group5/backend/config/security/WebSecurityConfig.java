@@ -73,6 +73,8 @@ public class WebSecurityConfig {
                         .requestMatchers("/api/users/**").hasAuthority("USER")
                         .requestMatchers("/api/merchants/**").hasAuthority("MERCHANT")
                         .requestMatchers("/api/**").permitAll()
+                        // 임베딩 운영 엔드포인트: 조회(무거운 리포트 포함)와 변경(백필 시작/중지 등) 모두 관리자만
+                        .requestMatchers("/__diag/embeddings/**").hasAuthority("ADMIN")
                         .anyRequest().authenticated()
                 )
 
@@ -1,6 +1,9 @@
 package group5.backend.controller.ai.openai;
 
 import group5.backend.config.ai.OpenAiProperties;
+import group5.backend.response.ApiResponse;
+import group5.backend.service.ai.openai.OpenAiRateScheduler;
+import io.swagger.v3.oas.annotations.Operation;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,14 +20,16 @@ public class OpenAiDiagController {
 
     private final WebClient openAiWebClient;
     private final OpenAiProperties props;
+    private final OpenAiRateScheduler rateScheduler;
     //gpt 사용 가능 확인
     @GetMapping
     public ResponseEntity<Map<String, Object>> ping() {
-        Map models = openAiWebClient.get()
+        // 진단 호출도 RPM 예산/429 멈춤을 공유하도록 스케줄러를 거친다
+        Map models = rateScheduler.call(OpenAiRateScheduler.Priority.INTERACTIVE, 1, () -> openAiWebClient.get()
                 .uri("/models")
                 .retrieve()
                 .bodyToMono(Map.class)
-                .block(Duration.ofSeconds(10));
+                .block(Duration.ofSeconds(10)));
 
         Map body = Map.of(
                 "model", props.getChatModel(),            // 예: gpt-4o-mini
@@ -33,12 +38,12 @@ public class OpenAiDiagController {
                 ),
                 "max_tokens", 5
         );
-        Map chat = openAiWebClient.post()
+        Map chat = rateScheduler.call(OpenAiRateScheduler.Priority.INTERACTIVE, 10, () -> openAiWebClient.post()
                 .uri("/chat/completions")
                 .bodyValue(body)
                 .retrieve()
                 .bodyToMono(Map.class)
-                .block(Duration.ofSeconds(10));
+                .block(Duration.ofSeconds(10)));
 
         return ResponseEntity.ok(Map.of(
                 "models_ok", models != null,
@@ -48,6 +53,12 @@ public class OpenAiDiagController {
         ));
     }
 
+    @Operation(summary = "OpenAI 호출 스케줄러 상태", description = "RPM/TPM 잔여 예산, 우선순위별 대기 수/평균·최대 대기 시간, 429 횟수, 일시정지 남은 시간")
+    @GetMapping("/scheduler")
+    public ResponseEntity<ApiResponse<OpenAiRateScheduler.Stats>> schedulerStats() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "OpenAI 스케줄러 상태 조회 성공", rateScheduler.stats()));
+    }
+
     @SuppressWarnings("unchecked")
     private static String extractContentExcerpt(Map chat, int max) {
         try {
@@ -0,0 +1,195 @@
+package group5.backend.controller.ai.recomm;
+
+import group5.backend.response.ApiResponse;
+import group5.backend.service.ai.recomm.CategorySeedEmbeddings;
+import group5.backend.service.ai.recomm.CoLikeIndex;
+import group5.backend.service.ai.recomm.EmbeddingBackfillJob;
+import group5.backend.service.ai.recomm.EmbeddingDimMigrationJob;
+import group5.backend.service.ai.recomm.EmbeddingSnapshot;
+import group5.backend.service.ai.recomm.HomeBatchScoringJob;
+import group5.backend.service.ai.recomm.HomeRecommendationStore;
+import group5.backend.service.ai.recomm.QuantizationReportService;
+import group5.backend.service.ai.recomm.RankingRecallReport;
+import group5.backend.service.ai.recomm.UserProfileCache;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/__diag/embeddings")
+public class EmbeddingAdminController {
+
+    private final EmbeddingBackfillJob backfillJob;
+    private final QuantizationReportService quantizationReportService;
+    private final EmbeddingDimMigrationJob dimMigrationJob;
+    private final UserProfileCache profileCache;
+    private final CategorySeedEmbeddings categorySeeds;
+    private final HomeRecommendationStore homeRecommendationStore;
+    private final EmbeddingSnapshot embeddingSnapshot;
+    private final RankingRecallReport rankingRecallReport;
+    private final CoLikeIndex coLikeIndex;
+    private final HomeBatchScoringJob batchScoringJob;
+
+    @Operation(summary = "임베딩 백필 진행 상황", description = "상태, 처리/생성 건수, 초당 처리량, 타입별 체크포인트")
+    @GetMapping("/backfill")
+    public ResponseEntity<ApiResponse<EmbeddingBackfillJob.Status>> backfillStatus() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "백필 상태 조회 성공", backfillJob.status()));
+    }
+
+    @Operation(summary = "임베딩 백필 시작", description = "reset=true 면 체크포인트를 무시하고 처음부터 다시 진행")
+    @PostMapping("/backfill/start")
+    public ResponseEntity<ApiResponse<EmbeddingBackfillJob.Status>> startBackfill(
+            @RequestParam(defaultValue = "false") boolean reset
+    ) {
+        if (!backfillJob.start(reset)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, 409, "이미 실행 중입니다.", backfillJob.status()));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "백필 시작", backfillJob.status()));
+    }
+
+    @Operation(summary = "임베딩 백필 중지", description = "진행 중인 웨이브를 마친 뒤 멈춤 (체크포인트 유지)")
+    @PostMapping("/backfill/stop")
+    public ResponseEntity<ApiResponse<EmbeddingBackfillJob.Status>> stopBackfill() {
+        boolean stopped = backfillJob.stop();
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, stopped ? "백필 중지 요청" : "실행 중이 아닙니다.", backfillJob.status()));
+    }
+
+    @Operation(summary = "int8 양자화 정확도 리포트", description = "원본 벡터 표본으로 float32 코사인 대비 오차, top-K 일치율, 메모리(ANN 사본 포함), 벡터당 스코어링 시간 비교. sample<=10000, queries<=200, k<=100 (넘으면 상한으로)")
+    @GetMapping("/quantization")
+    public ResponseEntity<ApiResponse<QuantizationReportService.Report>> quantizationReport(
+            @RequestParam(defaultValue = "2000") int sample,
+            @RequestParam(defaultValue = "50") int queries,
+            @RequestParam(defaultValue = "10") int k
+    ) {
+        if (sample <= 0 || queries <= 0 || k <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, 400, "sample, queries, k 는 1 이상이어야 합니다.", null));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "양자화 리포트 생성 성공", quantizationReportService.run(sample, queries, k)));
+    }
+
+    @Operation(summary = "2단계 랭킹 recall@K 리포트", description = "유저 표본별 실제 후보로 전체 차원 전수 점수화 top-K 대비 2단계(prefilter-dim 거르기 -> 전체 차원) top-K 일치율과 평균 소요 시간(ms). users<=200, pool<=5000, k<=pool (넘으면 상한으로)")
+    @GetMapping("/ranking-recall")
+    public ResponseEntity<ApiResponse<RankingRecallReport.Report>> rankingRecall(
+            @RequestParam(defaultValue = "50") int users,
+            @RequestParam(defaultValue = "18") int k,
+            @RequestParam(defaultValue = "900") int pool
+    ) {
+        if (users <= 0 || k <= 0 || pool <= 0) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, 400, "users, k, pool 은 1 이상이어야 합니다.", null));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "랭킹 recall 리포트 생성 성공", rankingRecallReport.run(users, k, pool)));
+    }
+
+    @Operation(summary = "임베딩 차원 전환 상태", description = "현재 서빙 차원, 대상 차원(recomm.dims.target-dim), 진행 건수")
+    @GetMapping("/dims")
+    public ResponseEntity<ApiResponse<EmbeddingDimMigrationJob.Status>> dimStatus() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "차원 전환 상태 조회 성공", dimMigrationJob.status()));
+    }
+
+    @Operation(summary = "대상 차원 임베딩 생성 시작", description = "기존 차원으로 계속 서빙하면서 대상 차원 행을 백그라운드로 생성")
+    @PostMapping("/dims/start")
+    public ResponseEntity<ApiResponse<EmbeddingDimMigrationJob.Status>> startDimMigration(
+            @RequestParam(defaultValue = "false") boolean reset
+    ) {
+        if (!dimMigrationJob.start(reset)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, 409, "시작할 수 없습니다. (대상 차원 미설정 또는 실행 중)", dimMigrationJob.status()));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "차원 전환 시작", dimMigrationJob.status()));
+    }
+
+    @Operation(summary = "대상 차원 임베딩 생성 중지", description = "현재 페이지까지 마치고 멈춤 (체크포인트 유지)")
+    @PostMapping("/dims/stop")
+    public ResponseEntity<ApiResponse<EmbeddingDimMigrationJob.Status>> stopDimMigration() {
+        boolean stopped = dimMigrationJob.stop();
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, stopped ? "차원 전환 중지 요청" : "실행 중이 아닙니다.", dimMigrationJob.status()));
+    }
+
+    @Operation(summary = "서빙 차원 전환(cut-over)", description = "인메모리 인덱스를 대상 차원으로 다시 적재한 뒤 교체. force=true 면 생성 완료 전이라도 진행")
+    @PostMapping("/dims/cutover")
+    public ResponseEntity<ApiResponse<EmbeddingDimMigrationJob.Status>> cutover(
+            @RequestParam(defaultValue = "false") boolean force
+    ) {
+        if (!dimMigrationJob.cutover(force)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, 409, "전환할 수 없습니다. (생성 미완료 또는 이미 전환됨)", dimMigrationJob.status()));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "서빙 차원 전환 완료", dimMigrationJob.status()));
+    }
+
+    @Operation(summary = "이전 차원 임베딩 삭제", description = "서빙 중이 아닌 차원의 item_embeddings 행 삭제")
+    @PostMapping("/dims/purge")
+    public ResponseEntity<ApiResponse<Integer>> purgeDim(@RequestParam int dim) {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "이전 차원 임베딩 삭제", dimMigrationJob.purge(dim)));
+    }
+
+    @Operation(summary = "프로필 벡터 캐시 통계", description = "크기, 히트/미스, 히트율, 로드 수, 제거 수, 평균 로드 시간(ms)")
+    @GetMapping("/profile-cache")
+    public ResponseEntity<ApiResponse<UserProfileCache.Stats>> profileCacheStats() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "프로필 캐시 통계 조회 성공", profileCache.stats()));
+    }
+
+    @Operation(summary = "카테고리 시드 임베딩 갱신", description = "현재 모델/차원 기준으로 64개 관심 카테고리 조합 중 없거나 문장이 바뀐 것만 다시 임베딩")
+    @PostMapping("/category-seeds/refresh")
+    public ResponseEntity<ApiResponse<Integer>> refreshCategorySeeds() {
+        int embedded = categorySeeds.refresh();
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "카테고리 시드 " + categorySeeds.size() + "개 준비", embedded));
+    }
+
+    @Operation(summary = "사전 계산 홈 추천 통계", description = "히트/미스/만료, 제공 시점 결과 나이(평균/최대 초), 갱신 수/실패, 활성 유저, 대기 갱신, 마지막 주기 갱신")
+    @GetMapping("/home-feed")
+    public ResponseEntity<ApiResponse<HomeRecommendationStore.Stats>> homeFeedStats() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "홈 추천 저장소 통계 조회 성공", homeRecommendationStore.stats()));
+    }
+
+    @Operation(summary = "임베딩 스냅샷 파일 정보", description = "recomm.snapshot.path 파일 헤더 (모델, 차원, 벡터 수, 포함된 최대 행 id, 생성 시각, 크기). 없으면 null")
+    @GetMapping("/snapshot")
+    public ResponseEntity<ApiResponse<EmbeddingSnapshot.Header>> snapshotInfo() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "스냅샷 정보 조회 성공", embeddingSnapshot.header()));
+    }
+
+    @Operation(summary = "임베딩 스냅샷 내보내기", description = "현재 모델/차원 벡터 전체를 바이너리 스냅샷으로 저장 (다른 노드는 기동 시 mmap 으로 적재)")
+    @PostMapping("/snapshot/export")
+    public ResponseEntity<ApiResponse<EmbeddingSnapshot.ExportResult>> exportSnapshot() {
+        try {
+            return ResponseEntity.ok(new ApiResponse<>(true, 200, "스냅샷 내보내기 완료", embeddingSnapshot.export()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse<>(false, 500, "스냅샷 내보내기 실패: " + e.getMessage(), null));
+        }
+    }
+
+    @Operation(summary = "공동 좋아요 이웃 인덱스 통계", description = "유저/즐겨찾기/아이템 수, 집계된 아이템 쌍 수, 보관 이웃 수, 적재/계산 시간(ms), 마지막 빌드 시각")
+    @GetMapping("/co-like")
+    public ResponseEntity<ApiResponse<CoLikeIndex.Stats>> coLikeStats() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "공동 좋아요 인덱스 통계 조회 성공", coLikeIndex.stats()));
+    }
+
+    @Operation(summary = "공동 좋아요 이웃 인덱스 재계산", description = "즐겨찾기 3종 테이블 전체로 아이템별 이웃을 다시 계산해 교체")
+    @PostMapping("/co-like/rebuild")
+    public ResponseEntity<ApiResponse<CoLikeIndex.Stats>> rebuildCoLike() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "공동 좋아요 인덱스 재계산 완료", coLikeIndex.rebuild()));
+    }
+
+    @Operation(summary = "홈 추천 일괄 계산 진행 상황", description = "상태, 아이템 행렬 크기/차원, 처리 유저 수, 점수화/저장 시간(ms), 초당 유저 수(전체 / 점수화만)")
+    @GetMapping("/batch-scoring")
+    public ResponseEntity<ApiResponse<HomeBatchScoringJob.Status>> batchScoringStatus() {
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "일괄 계산 상태 조회 성공", batchScoringJob.status()));
+    }
+
+    @Operation(summary = "홈 추천 일괄 계산 시작", description = "프로필이 있는 전체 유저 x 아이템 점수를 행렬곱으로 계산해 사전 계산 저장소에 일괄 저장 (백그라운드)")
+    @PostMapping("/batch-scoring/start")
+    public ResponseEntity<ApiResponse<HomeBatchScoringJob.Status>> startBatchScoring() {
+        if (!batchScoringJob.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, 409, "이미 실행 중입니다.", batchScoringJob.status()));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, 200, "일괄 계산 시작", batchScoringJob.status()));
+    }
+}
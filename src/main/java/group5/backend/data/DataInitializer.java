@@ -20,7 +20,6 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
-import group5.backend.service.ai.recomm.EmbeddingPreloadService;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -37,7 +36,6 @@ public class DataInitializer implements ApplicationRunner {
     private final EventRepository eventRepository;
     private final PopupRepository popupRepository;
     private final PasswordEncoder passwordEncoder;
-    private final EmbeddingPreloadService embeddingPreloadService;
 
     @PersistenceContext private EntityManager em;
 
@@ -583,8 +581,7 @@ public class DataInitializer implements ApplicationRunner {
             }
         }
 
-        // 필요 시 임베딩 프리로드
-        embeddingPreloadService.preloadData();
+        // 임베딩은 기동 완료 후 EmbeddingBackfillJob 이 백그라운드로 채움
 
         em.flush();
         em.clear();
@@ -8,7 +8,13 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
-@Table(name = "events")
+@Table(
+        name = "events",
+        // 추천 후보 top-N 조회 (like desc, id desc + LIMIT) 를 인덱스 역순 스캔으로
+        indexes = {
+                @Index(name = "idx_events_like", columnList = "like_count, id")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -8,7 +8,14 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
-@Table(name = "popups")
+@Table(
+        name = "popups",
+        // 추천 후보 top-N 조회 (like desc, id desc + LIMIT) 를 인덱스 역순 스캔으로
+        indexes = {
+                @Index(name = "idx_popups_like", columnList = "like_count, id"),
+                @Index(name = "idx_popups_category_like", columnList = "category, like_count, id")
+        }
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
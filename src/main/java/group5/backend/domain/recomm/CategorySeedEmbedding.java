@@ -0,0 +1,56 @@
+package group5.backend.domain.recomm;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/** 관심 카테고리 조합(비트마스크)별 시드 문장 임베딩 - 좋아요 없는 유저의 프로필로 사용 */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "category_seed_embeddings",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_category_seed_embeddings_mask_model_dim",
+                        columnNames = {"category_mask", "model", "dim"}
+                )
+        }
+)
+public class CategorySeedEmbedding {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Category.ordinal() 비트 조합 (0 = 선택 없음)
+    @Column(name = "category_mask", nullable = false)
+    private int categoryMask;
+
+    @Column(name = "model", nullable = false, length = 64)
+    private String model;
+
+    @Column(name = "dim", nullable = false)
+    private int dim;
+
+    // 임베딩한 문장 (문장 템플릿이 바뀌면 다시 임베딩)
+    @Column(name = "seed_text", nullable = false, length = 512)
+    private String seedText;
+
+    // little-endian float32 + dim/model 헤더 (VectorCodec), L2 정규화
+    @Lob
+    @Column(name = "vec_blob", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] vecBlob;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public void replace(String seedText, byte[] vecBlob) {
+        this.seedText = seedText;
+        this.vecBlob = vecBlob;
+    }
+}
@@ -0,0 +1,29 @@
+package group5.backend.domain.recomm;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/** 임베딩 백필 진행 위치 (모델+차원+타입별 마지막 처리 id) */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "embedding_backfill_checkpoints")
+public class EmbeddingBackfillCheckpoint {
+
+    // 예: "text-embedding-3-small:1536:STORE", 차원 전환 잡은 "dim:text-embedding-3-small:1536->512"
+    @Id
+    @Column(name = "job_key", length = 96)
+    private String jobKey;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
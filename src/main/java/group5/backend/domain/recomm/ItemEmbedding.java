@@ -3,6 +3,7 @@ package group5.backend.domain.recomm;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -14,9 +15,10 @@ import java.time.LocalDateTime;
 @Table(
         name = "item_embeddings",
         uniqueConstraints = {
+                // 차원 전환 중에는 같은 아이템이 차원별로 한 행씩 존재
                 @UniqueConstraint(
-                        name = "uk_item_embeddings_type_item_model",
-                        columnNames = {"item_type", "item_id", "model"}
+                        name = "uk_item_embeddings_type_item_model_dim",
+                        columnNames = {"item_type", "item_id", "model", "dim"}
                 )
         }
 )
@@ -38,11 +40,51 @@ public class ItemEmbedding {
     @Column(name = "dim", nullable = false)
     private int dim;
 
+    // 레거시 JSON 포맷 (바이너리 변환 전 행만 값을 가짐)
     @Lob
-    @Column(name = "vec_json", nullable = false, columnDefinition = "LONGTEXT")
+    @Column(name = "vec_json", columnDefinition = "LONGTEXT")
     private String vecJson;
 
+    // little-endian float32 + dim/model 헤더 (VectorCodec)
+    @Lob
+    @Column(name = "vec_blob", columnDefinition = "LONGBLOB")
+    private byte[] vecBlob;
+
+    // 저장 시 L2 정규화 여부 (true 면 코사인 = 내적). 이전 행은 기동 시 마이그레이션으로 정규화
+    @Column(name = "normalized", nullable = false, columnDefinition = "boolean default false")
+    private boolean normalized;
+
+    // 임베딩한 텍스트의 SHA-256 (hex). 아이템 수정 시 같으면 다시 임베딩하지 않는다. 이전 행은 null
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
+
+    // 벡터 교체 시각 (스냅샷 이후 변경분 적재용)
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /** 정규화된 벡터로 교체 (바이너리 포맷) */
+    public void replaceNormalized(byte[] blob) {
+        this.vecBlob = blob;
+        this.vecJson = null;
+        this.normalized = true;
+    }
+
+    /** 아이템 텍스트가 바뀌어 다시 임베딩한 벡터로 교체 (정규화된 상태로 전달) */
+    public void replaceVector(byte[] blob, String contentHash) {
+        this.vecBlob = blob;
+        this.vecJson = null;
+        this.normalized = true;
+        this.contentHash = contentHash;
+    }
+
+    /** JSON 행을 바이너리 포맷으로 전환 */
+    public void convertToBinary(byte[] blob) {
+        this.vecBlob = blob;
+        this.vecJson = null;
+    }
 }
@@ -0,0 +1,39 @@
+package group5.backend.domain.recomm;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/** 유저별 사전 계산된 홈 추천 결과 (랭킹 순 아이템 키) */
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "user_home_recommendations")
+public class UserHomeRecommendation {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // 아이템당 [type(1) | id(8) | score(4)] little-endian (HomeRecommendationStore 에서 인코딩)
+    @Lob
+    @Column(name = "items_blob", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] itemsBlob;
+
+    @Column(name = "item_count", nullable = false)
+    private int itemCount;
+
+    // 랭킹을 요청한 개수. 이보다 큰 size 요청은 미스로 본다 (후보가 모자라면 itemCount 가 이보다 작다)
+    @Column(name = "requested_size", nullable = false)
+    private int requestedSize;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+
+    // 이 시각까지 그대로 서빙 (실시간 = computedAt + home-feed.max-age-minutes, 배치 = + batch-scoring.valid-hours)
+    @Column(name = "valid_until", nullable = false)
+    private LocalDateTime validUntil;
+}
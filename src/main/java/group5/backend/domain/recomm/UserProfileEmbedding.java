@@ -25,10 +25,30 @@ public class UserProfileEmbedding {
     @Column(name = "dim", nullable = false)
     private int dim;
 
+    // 레거시 JSON 포맷 (바이너리 변환 전 행만 값을 가짐)
     @Lob
-    @Column(name = "vec_json", nullable = false, columnDefinition = "LONGTEXT")
+    @Column(name = "vec_json", columnDefinition = "LONGTEXT")
     private String vecJson;
 
+    // little-endian float32 + dim/model 헤더 (VectorCodec)
+    @Lob
+    @Column(name = "vec_blob", columnDefinition = "LONGBLOB")
+    private byte[] vecBlob;
+
+    // 좋아요 아이템 벡터 합 (즐겨찾기 토글 시 증분 갱신용). 카테고리 시드로 만든 프로필은 null
+    @Lob
+    @Column(name = "sum_blob", columnDefinition = "LONGBLOB")
+    private byte[] sumBlob;
+
+    // sum 에 실제로 더해진 아이템 [itemKey | vecHash] 목록 (ProfileSum). 없으면 증분 갱신 대신 다시 빌드
+    @Lob
+    @Column(name = "members_blob", columnDefinition = "LONGBLOB")
+    private byte[] membersBlob;
+
+    // sum 에 더해진 아이템 수
+    @Column(name = "like_count", nullable = false, columnDefinition = "int default 0")
+    private int likeCount;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -36,4 +56,10 @@ public class UserProfileEmbedding {
     @UpdateTimestamp
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /** JSON 행을 바이너리 포맷으로 전환 */
+    public void convertToBinary(byte[] blob) {
+        this.vecBlob = blob;
+        this.vecJson = null;
+    }
 }
@@ -2,6 +2,8 @@ package group5.backend.domain.user;
 
 public enum Role {
     USER,
-    MERCHANT
+    MERCHANT,
+    // 운영용 (/__diag/embeddings 엔드포인트). 회원가입으로는 만들 수 없고 DB 에서 직접 부여
+    ADMIN
 }
 
@@ -46,7 +46,7 @@ public class User implements UserDetails {
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private Role role; // USER, MERCHANT
+    private Role role; // USER, MERCHANT, ADMIN
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<FavoriteStore> favoriteStores;
@@ -63,7 +63,7 @@ public class User implements UserDetails {
     /* -------------------- UserDetails -------------------- */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority(role.name())); // "USER" or "MERCHANT"
+        return List.of(new SimpleGrantedAuthority(role.name())); // "USER", "MERCHANT" or "ADMIN"
     }
 
     @Override
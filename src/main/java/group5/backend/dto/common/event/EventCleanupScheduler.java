@@ -1,11 +1,14 @@
 package group5.backend.dto.common.event;
+import group5.backend.domain.recomm.ItemType;
 import group5.backend.repository.EventRepository;
+import group5.backend.service.ai.recomm.EmbeddingWorkQueue;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Slf4j
 @Component
@@ -13,6 +16,7 @@ import java.time.LocalDate;
 public class EventCleanupScheduler {
 
     private final EventRepository eventRepository;
+    private final EmbeddingWorkQueue embeddingWorkQueue;
     /**
      * 매일 새벽 2시에 종료된 이벤트 삭제
      */
@@ -21,8 +25,10 @@ public class EventCleanupScheduler {
         LocalDate today = LocalDate.now();
         log.info("이벤트 정리 작업 시작: 종료일 < {}", today);
 
+        List<Long> expiredIds = eventRepository.findIdsByEndDateBefore(today);
         eventRepository.deleteByEndDateBefore(today);
+        expiredIds.forEach(id -> embeddingWorkQueue.removeAfterCommit(ItemType.EVENT, id));
 
-        log.info("이벤트 정리 완료");
+        log.info("이벤트 정리 완료: {}건", expiredIds.size());
     }
 }
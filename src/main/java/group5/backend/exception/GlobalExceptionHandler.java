@@ -11,9 +11,11 @@ import group5.backend.response.ApiResponse;
 import group5.backend.exception.category.MerchantInvalidCategorySizeException;
 import group5.backend.exception.category.UserInvalidCategorySizeException;
 import group5.backend.exception.login.UserNotFoundException;
+import group5.backend.exception.openai.OpenAiThrottledException;
 import group5.backend.exception.login.UserNotFoundByEmailException;
 import group5.backend.exception.login.WrongPasswordException;
 import group5.backend.exception.signup.DuplicateEmailException;
+import group5.backend.exception.signup.InvalidSignupRoleException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -66,6 +68,11 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
     }
 
+    @ExceptionHandler(InvalidSignupRoleException.class)
+    public ResponseEntity<ApiResponse<?>> handleInvalidSignupRole(InvalidSignupRoleException e) {
+        return buildErrorResponse(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
     @ExceptionHandler(UserNotFoundByEmailException.class)
     public ResponseEntity<ApiResponse<?>> handleUserNotFoundByEmail(UserNotFoundByEmailException e) {
         return buildErrorResponse(HttpStatus.NOT_FOUND, e.getMessage());
@@ -159,6 +166,12 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(HttpStatus.BAD_GATEWAY, ex.getMessage());
     }
 
+    // OpenAI 속도 제한으로 요청 스레드 호출을 바로 거절 (429 일시정지 중 / 예산 대기 초과)
+    @ExceptionHandler(OpenAiThrottledException.class)
+    public ResponseEntity<ApiResponse<?>> handleOpenAiThrottled(OpenAiThrottledException ex) {
+        return buildErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
     // WebClient(OpenAI 등): 필요한 형태로 유지 (FQCN 사용하므로 import 불필요)
     @ExceptionHandler(org.springframework.web.reactive.function.client.WebClientResponseException.Forbidden.class)
     public ResponseEntity<?> handle403(org.springframework.web.reactive.function.client.WebClientResponseException.Forbidden e){
@@ -0,0 +1,23 @@
+package group5.backend.exception.openai;
+
+import java.util.List;
+
+/** 배치 임베딩 중 한 청크가 실패했을 때. 앞선 청크에서 받은 벡터는 partial 에 입력 순서대로 담긴다 (나머지 자리는 null) */
+public class EmbeddingBatchFailedException extends RuntimeException {
+  private final List<float[]> partial;
+  private final int embedded;
+
+  public EmbeddingBatchFailedException(String message, List<float[]> partial, int embedded, Throwable cause) {
+    super(message, cause);
+    this.partial = partial;
+    this.embedded = embedded;
+  }
+
+  public List<float[]> getPartial() {
+    return partial;
+  }
+
+  public int getEmbedded() {
+    return embedded;
+  }
+}
@@ -0,0 +1,15 @@
+package group5.backend.exception.openai;
+
+/** 요청 스레드(INTERACTIVE) 호출이 OpenAI 속도 제한 때문에 바로 처리될 수 없을 때 (429 일시정지 중 / 예산 대기 시간 초과) */
+public class OpenAiThrottledException extends RuntimeException {
+  private final long retryAfterMillis;
+
+  public OpenAiThrottledException(String message, long retryAfterMillis) {
+    super(message);
+    this.retryAfterMillis = retryAfterMillis;
+  }
+
+  public long getRetryAfterMillis() {
+    return retryAfterMillis;
+  }
+}
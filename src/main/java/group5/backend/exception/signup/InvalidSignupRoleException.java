@@ -0,0 +1,9 @@
+package group5.backend.exception.signup;
+
+import group5.backend.domain.user.Role;
+
+public class InvalidSignupRoleException extends RuntimeException {
+    public InvalidSignupRoleException(Role role) {
+        super("회원가입으로 선택할 수 없는 역할입니다: " + role);
+    }
+}
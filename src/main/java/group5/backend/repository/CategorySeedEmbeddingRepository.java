@@ -0,0 +1,11 @@
+package group5.backend.repository;
+
+import group5.backend.domain.recomm.CategorySeedEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface CategorySeedEmbeddingRepository extends JpaRepository<CategorySeedEmbedding, Long> {
+
+    List<CategorySeedEmbedding> findByModelAndDim(String model, int dim);
+}
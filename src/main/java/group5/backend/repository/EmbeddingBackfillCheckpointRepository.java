@@ -0,0 +1,7 @@
+package group5.backend.repository;
+
+import group5.backend.domain.recomm.EmbeddingBackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface EmbeddingBackfillCheckpointRepository extends JpaRepository<EmbeddingBackfillCheckpoint, String> {
+}
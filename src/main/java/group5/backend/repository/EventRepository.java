@@ -14,6 +14,7 @@ import org.springframework.stereotype.Repository;
 
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -26,6 +27,9 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findByStoreId(Long storeId);
     @Query("SELECT e.id FROM Event e")
     List<Long> findAllEventIds(); // 모든 이벤트의 ID 반환
+    // 백필용 keyset 페이지
+    @Query("SELECT e.id FROM Event e WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<Long> findEventIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
     // 특정 Store 내에서 이름이 같은 Event 조회
     Optional<Event> findByStoreAndName(Store store, String name);
     @Query("""
@@ -129,6 +133,9 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findUpcomingList(@Param("today") LocalDate today);
     // 종료일이 현재 날짜 이전인 모든 이벤트 삭제
     void deleteByEndDateBefore(LocalDate date);
+    // 삭제 대상 id (임베딩 정리용)
+    @Query("SELECT e.id FROM Event e WHERE e.endDate < :date")
+    List<Long> findIdsByEndDateBefore(@Param("date") LocalDate date);
     // 관심 카테고리 목록 + 진행중( start <= today <= end ) + 페이지네이션
     @EntityGraph(attributePaths = "store")
     Page<Event> findByStore_CategoryInAndStartDateLessThanEqualAndEndDateGreaterThanEqual(
@@ -152,5 +159,32 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     @Query("SELECT e FROM Event e WHERE e.startDate <= :today AND e.endDate >= :today ORDER BY e.likeCount DESC, e.id DESC")
     List<Event> findTopOngoingByLike(@Param("today") LocalDate today, Pageable pageable);
 
+    /* ========== 추천 후보용 경량 조회 (진행중만): r = [id, likeCount, store.category, store.address, startDate, endDate] ========== */
+    @Query("""
+        SELECT e.id, e.likeCount, s.category, s.address, e.startDate, e.endDate
+        FROM Event e JOIN e.store s
+        WHERE e.startDate <= :today AND e.endDate >= :today
+        ORDER BY e.likeCount DESC, e.id DESC
+    """)
+    List<Object[]> findTopOngoingCandidateRows(@Param("today") LocalDate today, Pageable pageable);
+
+    @Query("""
+        SELECT e.id, e.likeCount, s.category, s.address, e.startDate, e.endDate
+        FROM Event e JOIN e.store s
+        WHERE e.startDate <= :today AND e.endDate >= :today
+          AND s.category IN :categories
+        ORDER BY e.likeCount DESC, e.id DESC
+    """)
+    List<Object[]> findTopOngoingCandidateRowsByCategoryIn(@Param("today") LocalDate today,
+                                                           @Param("categories") Collection<Category> categories,
+                                                           Pageable pageable);
+
+    @Query("""
+        SELECT e.id, e.likeCount, s.category, s.address, e.startDate, e.endDate
+        FROM Event e JOIN e.store s
+        WHERE e.id IN :ids AND e.startDate <= :today AND e.endDate >= :today
+    """)
+    List<Object[]> findOngoingCandidateRowsByIdIn(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today);
+
 
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,4 +36,8 @@ public interface FavoriteEventRepository extends JpaRepository<FavoriteEvent, Lo
             "JOIN events e ON fe.event_id = e.id WHERE fe.user_id = :userId", nativeQuery = true)
     List<Object[]> findFavoriteEventsByUserId(@Param("userId") Long userId);
 
+    // 아이템 벡터가 바뀌었을 때 프로필을 무효화할 유저들
+    @Query("SELECT DISTINCT f.user.id FROM FavoriteEvent f WHERE f.event.id IN :ids")
+    List<Long> findUserIdsByEventIdIn(@Param("ids") Collection<Long> ids);
+
 }
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,6 +39,10 @@ public interface FavoritePopupRepository extends JpaRepository<FavoritePopup, Lo
             "JOIN popups p ON fp.popup_id = p.id WHERE fp.user_id = :userId", nativeQuery = true)
     List<Object[]> findFavoritePopupsByUserId(@Param("userId") Long userId);
 
+    // 아이템 벡터가 바뀌었을 때 프로필을 무효화할 유저들
+    @Query("SELECT DISTINCT f.user.id FROM FavoritePopup f WHERE f.popup.id IN :ids")
+    List<Long> findUserIdsByPopupIdIn(@Param("ids") Collection<Long> ids);
+
 }
 
 
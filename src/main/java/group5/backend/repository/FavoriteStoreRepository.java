@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,4 +35,8 @@ public interface FavoriteStoreRepository extends JpaRepository<FavoriteStore, Lo
     @Query(value = "SELECT s.id, s.name FROM favorite_stores fs " +
             "JOIN stores s ON fs.store_id = s.id WHERE fs.user_id = :userId", nativeQuery = true)
     List<Object[]> findFavoriteStoresByUserId(@Param("userId") Long userId);
+
+    // 아이템 벡터가 바뀌었을 때 프로필을 무효화할 유저들
+    @Query("SELECT DISTINCT f.user.id FROM FavoriteStore f WHERE f.store.id IN :ids")
+    List<Long> findUserIdsByStoreIdIn(@Param("ids") Collection<Long> ids);
 }
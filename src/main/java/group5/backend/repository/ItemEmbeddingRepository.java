@@ -2,8 +2,14 @@ package group5.backend.repository;
 
 import group5.backend.domain.recomm.ItemEmbedding;
 import group5.backend.domain.recomm.ItemType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemEmbeddingRepository extends JpaRepository<ItemEmbedding, Long> {
@@ -11,4 +17,72 @@ public interface ItemEmbeddingRepository extends JpaRepository<ItemEmbedding, Lo
     List<ItemEmbedding> findByItemTypeAndItemIdInAndModel(ItemType itemType, List<Long> itemIds, String model);
 
     boolean existsByItemTypeAndItemIdAndModel(ItemType itemType, Long itemId, String model);
+
+    // 인메모리 인덱스 적재용 keyset 페이지: [id, itemType, itemId, dim, vecBlob, vecJson, normalized] (엔티티 관리 없이 스칼라 조회)
+    @Query("""
+        select e.id, e.itemType, e.itemId, e.dim, e.vecBlob, e.vecJson, e.normalized
+        from ItemEmbedding e
+        where e.model = :model
+          and e.dim = :dim
+          and e.id > :afterId
+        order by e.id asc
+    """)
+    List<Object[]> findVectorPage(@Param("model") String model, @Param("dim") int dim,
+                                  @Param("afterId") Long afterId, Pageable pageable);
+
+    // 스냅샷 이후 변경분 (같은 행 형식): 스냅샷에 없던 행(id > maxId) 또는 since 이후 벡터가 바뀐 행
+    @Query("""
+        select e.id, e.itemType, e.itemId, e.dim, e.vecBlob, e.vecJson, e.normalized
+        from ItemEmbedding e
+        where e.model = :model
+          and e.dim = :dim
+          and (e.id > :maxId or e.updatedAt >= :since)
+          and e.id > :afterId
+        order by e.id asc
+    """)
+    List<Object[]> findVectorDeltaPage(@Param("model") String model, @Param("dim") int dim,
+                                       @Param("maxId") Long maxId, @Param("since") LocalDateTime since,
+                                       @Param("afterId") Long afterId, Pageable pageable);
+
+    // 정규화 마이그레이션 대상 (keyset)
+    @Query("""
+        select e from ItemEmbedding e
+        where e.normalized = false
+          and e.id > :afterId
+        order by e.id asc
+    """)
+    List<ItemEmbedding> findUnnormalizedPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    // 차원 전환: 이미 대상 차원 행이 있는 아이템 id
+    @Query("""
+        select e.itemId from ItemEmbedding e
+        where e.model = :model
+          and e.dim = :dim
+          and e.itemType = :itemType
+          and e.itemId in :itemIds
+    """)
+    List<Long> findItemIdsWithDim(@Param("model") String model, @Param("dim") int dim,
+                                  @Param("itemType") ItemType itemType, @Param("itemIds") List<Long> itemIds);
+
+    // 차원 전환 완료 후 이전 차원 행 정리
+    @Transactional
+    @Modifying
+    @Query("delete from ItemEmbedding e where e.model = :model and e.dim = :dim")
+    int deleteByModelAndDim(@Param("model") String model, @Param("dim") int dim);
+
+    // JSON -> 바이너리 변환 대상 (keyset)
+    @Query("""
+        select e from ItemEmbedding e
+        where e.vecBlob is null
+          and e.vecJson is not null
+          and e.id > :afterId
+        order by e.id asc
+    """)
+    List<ItemEmbedding> findJsonOnlyPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    // 아이템 삭제 시 모든 모델의 벡터 정리
+    @Transactional
+    @Modifying
+    @Query("delete from ItemEmbedding e where e.itemType = :itemType and e.itemId = :itemId")
+    int deleteByItem(@Param("itemType") ItemType itemType, @Param("itemId") Long itemId);
 }
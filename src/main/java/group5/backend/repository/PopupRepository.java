@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,9 @@ public interface PopupRepository extends JpaRepository<Popup, Long> {
     List<Popup> findByUserId(Long userId);
     @Query("SELECT p.id FROM Popup p")
     List<Long> findAllPopupIds(); // 모든 팝업의 ID 반환
+    // 백필용 keyset 페이지
+    @Query("SELECT p.id FROM Popup p WHERE p.id > :afterId ORDER BY p.id ASC")
+    List<Long> findPopupIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
     Optional<Popup> findByUserAndName(User user, String name);
     void deleteByEndDateBefore(LocalDate date);
     /* ========== 카테고리 + 진행중 (inclusive) ========== */
@@ -129,4 +133,28 @@ public interface PopupRepository extends JpaRepository<Popup, Long> {
 
     @Query("SELECT p FROM Popup p WHERE p.startDate <= :today AND p.endDate >= :today ORDER BY p.likeCount DESC, p.id DESC")
     List<Popup> findTopOngoingByLike(@Param("today") LocalDate today, Pageable pageable);
+
+    /* ========== 추천 후보용 경량 조회 (진행중만): r = [id, likeCount, category, address, startDate, endDate] ========== */
+    @Query("""
+        SELECT p.id, p.likeCount, p.category, p.address, p.startDate, p.endDate FROM Popup p
+        WHERE p.startDate <= :today AND p.endDate >= :today
+        ORDER BY p.likeCount DESC, p.id DESC
+    """)
+    List<Object[]> findTopOngoingCandidateRows(@Param("today") LocalDate today, Pageable pageable);
+
+    @Query("""
+        SELECT p.id, p.likeCount, p.category, p.address, p.startDate, p.endDate FROM Popup p
+        WHERE p.startDate <= :today AND p.endDate >= :today
+          AND p.category IN :categories
+        ORDER BY p.likeCount DESC, p.id DESC
+    """)
+    List<Object[]> findTopOngoingCandidateRowsByCategoryIn(@Param("today") LocalDate today,
+                                                           @Param("categories") Collection<Category> categories,
+                                                           Pageable pageable);
+
+    @Query("""
+        SELECT p.id, p.likeCount, p.category, p.address, p.startDate, p.endDate FROM Popup p
+        WHERE p.id IN :ids AND p.startDate <= :today AND p.endDate >= :today
+    """)
+    List<Object[]> findOngoingCandidateRowsByIdIn(@Param("ids") Collection<Long> ids, @Param("today") LocalDate today);
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package group5.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 추천용 선호 데이터 조회 전용 저장소.
+ * 즐겨찾기 3종(+관심 카테고리)을 가로지르는 UNION 쿼리라 특정 엔티티 리포지토리에 두지 않는다.
+ * 행은 Object[] 로 돌려주고 해석은 호출 측(FavoritePreferenceAdapter, CoLikeIndex)이 한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PreferenceQueryRepository {
+
+    // 유저 한 명의 선호 데이터: [kind(S/E/P/C), itemId, category]
+    private static final String PREFERENCE_ROWS =
+            "SELECT 'S' AS kind, fs.store_id AS item_id, NULL AS category FROM favorite_stores fs WHERE fs.user_id = ? " +
+            "UNION ALL SELECT 'E', fe.event_id, NULL FROM favorite_events fe WHERE fe.user_id = ? " +
+            "UNION ALL SELECT 'P', fp.popup_id, NULL FROM favorite_popups fp WHERE fp.user_id = ? " +
+            "UNION ALL SELECT 'C', NULL, uc.category FROM user_categories uc WHERE uc.user_id = ?";
+
+    // user_id 구간 (fromUser, toUser] 의 즐겨찾기 전체: [user_id, kind(S/E/P), item_id]
+    private static final String FAVORITE_ROWS_BY_USER_RANGE =
+            "SELECT fs.user_id, 'S', fs.store_id FROM favorite_stores fs WHERE fs.user_id > ? AND fs.user_id <= ? " +
+            "UNION ALL SELECT fe.user_id, 'E', fe.event_id FROM favorite_events fe WHERE fe.user_id > ? AND fe.user_id <= ? " +
+            "UNION ALL SELECT fp.user_id, 'P', fp.popup_id FROM favorite_popups fp WHERE fp.user_id > ? AND fp.user_id <= ?";
+
+    private static final String MAX_FAVORITE_USER_ID =
+            "SELECT GREATEST(" +
+            "COALESCE((SELECT MAX(user_id) FROM favorite_stores), 0), " +
+            "COALESCE((SELECT MAX(user_id) FROM favorite_events), 0), " +
+            "COALESCE((SELECT MAX(user_id) FROM favorite_popups), 0))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // 추천 프로필용 선호 데이터 한 번에 조회
+    public List<Object[]> findPreferenceRowsByUserId(Long userId) {
+        return jdbcTemplate.query(PREFERENCE_ROWS,
+                (rs, i) -> new Object[]{rs.getString(1), rs.getObject(2), rs.getString(3)},
+                userId, userId, userId, userId);
+    }
+
+    // 공동 좋아요 인덱스용 구간 조회
+    public List<Object[]> findFavoriteRowsByUserRange(long fromUser, long toUser) {
+        return jdbcTemplate.query(FAVORITE_ROWS_BY_USER_RANGE,
+                (rs, i) -> new Object[]{rs.getObject(1), rs.getString(2), rs.getObject(3)},
+                fromUser, toUser, fromUser, toUser, fromUser, toUser);
+    }
+
+    public Long findMaxFavoriteUserId() {
+        return jdbcTemplate.queryForObject(MAX_FAVORITE_USER_ID, Long.class);
+    }
+}
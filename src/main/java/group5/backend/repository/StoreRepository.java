@@ -11,6 +11,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +26,9 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
     Optional<Store> findByOwnerId(Long ownerId);
     @Query("SELECT s.id FROM Store s")
     List<Long> findAllStoreIds();
+    // 백필용 keyset 페이지
+    @Query("SELECT s.id FROM Store s WHERE s.id > :afterId ORDER BY s.id ASC")
+    List<Long> findStoreIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
     // ✅ [신규] 카테고리별 스토어 조회 (정렬/개수는 Pageable로 제어)
     Page<Store> findByCategory(Category category, Pageable pageable);
 
@@ -47,6 +51,20 @@ public interface StoreRepository extends JpaRepository<Store, Long> {
     // 이름 부분일치(대소문자 무시)
     List<Store> findByNameContainingIgnoreCase(String keyword, Sort sort);
 
+    /* ========== 추천 후보용 경량 조회: r = [id, likeCount, category, address] ========== */
+    @Query("SELECT s.id, s.likeCount, s.category, s.address FROM Store s ORDER BY s.likeCount DESC, s.id DESC")
+    List<Object[]> findTopCandidateRows(Pageable pageable);
+
+    @Query("""
+      SELECT s.id, s.likeCount, s.category, s.address FROM Store s
+      WHERE s.category IN :categories
+      ORDER BY s.likeCount DESC, s.id DESC
+      """)
+    List<Object[]> findTopCandidateRowsByCategoryIn(@Param("categories") Collection<Category> categories, Pageable pageable);
+
+    @Query("SELECT s.id, s.likeCount, s.category, s.address FROM Store s WHERE s.id IN :ids")
+    List<Object[]> findCandidateRowsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query(value = "SELECT s FROM Store s ORDER BY s.likeCount DESC, s.id DESC limit :n", nativeQuery = true)
     List<Store> findTopNByOrderByLikeCountDescIdDesc(@Param("n") int n);
 
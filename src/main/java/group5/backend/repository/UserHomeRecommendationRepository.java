@@ -0,0 +1,7 @@
+package group5.backend.repository;
+
+import group5.backend.domain.recomm.UserHomeRecommendation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserHomeRecommendationRepository extends JpaRepository<UserHomeRecommendation, Long> {
+}
@@ -1,7 +1,45 @@
 package group5.backend.repository;
 
 import group5.backend.domain.recomm.UserProfileEmbedding;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 public interface UserProfileEmbeddingRepository extends JpaRepository<UserProfileEmbedding, Long> {
+
+    // JSON -> 바이너리 변환 대상 (keyset)
+    @Query("""
+        select p from UserProfileEmbedding p
+        where p.vecBlob is null
+          and p.vecJson is not null
+          and p.userId > :afterUserId
+        order by p.userId asc
+    """)
+    List<UserProfileEmbedding> findJsonOnlyPage(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    // 주기적 전체 재계산 대상: 좋아요 합으로 만든 프로필 (keyset)
+    @Query("""
+        select p.userId from UserProfileEmbedding p
+        where p.likeCount > 0
+          and p.userId > :afterUserId
+        order by p.userId asc
+    """)
+    List<Long> findLikeBasedUserIds(@Param("afterUserId") Long afterUserId, Pageable pageable);
+
+    // 오프라인 배치 점수화: 현재 모델/차원 바이너리 프로필 (keyset) r = [userId, vecBlob]
+    @Query("""
+        select p.userId, p.vecBlob from UserProfileEmbedding p
+        where p.model = :model
+          and p.dim = :dim
+          and p.vecBlob is not null
+          and p.userId > :afterUserId
+        order by p.userId asc
+    """)
+    List<Object[]> findVectorPage(@Param("model") String model,
+                                  @Param("dim") int dim,
+                                  @Param("afterUserId") Long afterUserId,
+                                  Pageable pageable);
 }
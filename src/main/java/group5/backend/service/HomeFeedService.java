@@ -5,8 +5,8 @@ import group5.backend.domain.popup.Popup;
 import group5.backend.domain.store.Store;
 import group5.backend.dto.category.FeedItemType;
 import group5.backend.dto.category.response.CategoryFeedItemResponse;
+import group5.backend.service.ai.recomm.HomeRecommendationStore;
 import group5.backend.service.ai.recomm.RankingService;
-import group5.backend.service.ai.recomm.RecommendationService;
 import group5.backend.service.ai.recomm.CandidateService;
 import group5.backend.service.ai.recomm.CategoryFeedAssembler;
 
@@ -29,7 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional()
 public class HomeFeedService {
 
-    private final RecommendationService recommendationService;
+    private final HomeRecommendationStore homeRecommendationStore;
     private final CandidateService candidateService;
     private final CategoryFeedAssembler categoryFeedAssembler;
 
@@ -39,7 +39,7 @@ public class HomeFeedService {
         log.debug("[HOME] /home start userId={}, size={}", userId, size);
         try {
             if (userId != null) {
-                var res = recommendationService.recommendHome(userId, size);
+                var res = homeRecommendationStore.serve(userId, size);
                 log.debug("[HOME] /home personalized size={}", res.size());
                 return res;
             }
@@ -60,7 +60,7 @@ public class HomeFeedService {
         log.debug("[HOME] /home/detail start userId={}, size={}", userId, size);
         try {
             if (userId != null) {
-                var res = recommendationService.recommendHome(userId, size);
+                var res = homeRecommendationStore.serve(userId, size);
                 log.debug("[HOME] /home/detail personalized size={}", res.size());
                 return res;
             }
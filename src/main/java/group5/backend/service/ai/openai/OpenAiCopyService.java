@@ -20,6 +20,7 @@ public class OpenAiCopyService {
 
     private final WebClient openAiWebClient;
     private final OpenAiProperties props;
+    private final OpenAiRateScheduler rateScheduler;
     private final ObjectMapper om = new ObjectMapper();
 
     @Getter
@@ -123,7 +124,7 @@ public class OpenAiCopyService {
                 "max_tokens", 700
         );
 
-        Map<?, ?> res = callWithRetry(body);
+        Map<?, ?> res = call(body);
         String content  = extractAssistantContent(res);
         String cleaned  = sanitizePossibleJson(content);
 
@@ -141,31 +142,30 @@ public class OpenAiCopyService {
 
     /* ===================== 내부 유틸 ===================== */
 
-    @SuppressWarnings("unchecked")
-    private Map<?, ?> callWithRetry(Map<String, Object> body) {
-        int attempts = 0;
-        long backoff = props.getInitialBackoffMs();
-
-        while (true) {
-            try {
-                return openAiWebClient.post()
-                        .uri("/chat/completions")
-                        .bodyValue(body)
-                        .retrieve()
-                        .bodyToMono(Map.class)
-                        .block(Duration.ofSeconds(props.getTimeoutSec()));
-            } catch (WebClientResponseException e) {
-                int status = e.getRawStatusCode();
-                if (status == 429 && attempts < props.getMaxRetries()) {
-                    long waitMs = parseRetryAfterMs(e, backoff);
-                    sleep(waitMs);
-                    attempts++;
-                    backoff = Math.max(backoff * 2, 1000L);
-                    continue;
-                }
-                String detail = e.getResponseBodyAsString(StandardCharsets.UTF_8);
-                throw new RuntimeException("OpenAI 호출 실패: " + status + " - " + detail, e);
-            }
+    /** 공용 스케줄러로 호출 (RPM/TPM 예산, 429 재시도는 스케줄러가 처리) */
+    private Map<?, ?> call(Map<String, Object> body) {
+        try {
+            return rateScheduler.call(OpenAiRateScheduler.Priority.INTERACTIVE, estimateTokens(body), () ->
+                    openAiWebClient.post()
+                            .uri("/chat/completions")
+                            .bodyValue(body)
+                            .retrieve()
+                            .bodyToMono(Map.class)
+                            .block(Duration.ofSeconds(props.getTimeoutSec())));
+        } catch (WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            String detail = e.getResponseBodyAsString(StandardCharsets.UTF_8);
+            throw new RuntimeException("OpenAI 호출 실패: " + status + " - " + detail, e);
+        }
+    }
+
+    /** 입력(프롬프트 + 이미지 URL) 추정 토큰 + 최대 출력 토큰 */
+    private int estimateTokens(Map<String, Object> body) {
+        int out = body.get("max_tokens") instanceof Number n ? n.intValue() : 0;
+        try {
+            return OpenAiRateScheduler.estimateTokens(om.writeValueAsString(body.get("messages"))) + out;
+        } catch (Exception e) {
+            return 1000 + out;
         }
     }
 
@@ -192,19 +192,5 @@ public class OpenAiCopyService {
         return s.trim();
     }
 
-    private static long parseRetryAfterMs(WebClientResponseException e, long fallback) {
-        try {
-            String ra = e.getHeaders() == null ? null : e.getHeaders().getFirst("Retry-After");
-            if (ra == null) return fallback;
-            return Long.parseLong(ra.trim()) * 1000L;
-        } catch (Exception ignore) {
-            return fallback;
-        }
-    }
-
-    private static void sleep(long ms) {
-        try { Thread.sleep(ms > 0 ? ms : 1000L); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
-    }
-
     private static String nz(String s) { return s == null ? "" : s; }
 }
@@ -0,0 +1,315 @@
+package group5.backend.service.ai.openai;
+
+import group5.backend.config.ai.OpenAiProperties;
+import group5.backend.exception.openai.OpenAiThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * OpenAI 호출 공용 스케줄러 (임베딩 / 카피 생성 모두 여기를 거친다).
+ * - 분당 요청 수(RPM) / 분당 토큰 수(TPM) 토큰 버킷. 토큰은 호출 측 추정치로 차감
+ * - INTERACTIVE(요청 스레드) 대기자가 있으면 BACKGROUND(백필/워커)는 예산이 있어도 기다린다
+ * - 429 는 Retry-After(없으면 지수 backoff) 동안 스케줄러 전체를 멈춘다. BACKGROUND 는 멈춤이 끝난 뒤 같은 호출을 다시 시도하고,
+ *   INTERACTIVE 는 기다리지 않고 OpenAiThrottledException 으로 바로 실패한다 (멈춤 중 새로 들어온 요청도 마찬가지)
+ * 지표: openai.calls{priority}, openai.scheduler.waiting{priority}(대기 수), openai.scheduler.wait{priority}(예산 대기 시간),
+ * openai.scheduler.paused(남은 멈춤 ms), openai.scheduler.rejected{reason}. 스레드별 누적 호출 수는 callsOnCurrentThread() 로 요청 단위 집계에 쓴다.
+ * 예산/멈춤/대기 시한은 모두 주입한 시계(기본 System::nanoTime) 기준이다.
+ */
+@Slf4j
+@Component
+public class OpenAiRateScheduler {
+
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    public record Stats(
+            long requestsPerMinute,
+            long tokensPerMinute,
+            double availableRequests,
+            double availableTokens,
+            int waitingInteractive,
+            int waitingBackground,
+            long calls,
+            long throttled,
+            long timeouts,
+            long rejectedWhilePaused,
+            double avgWaitMillisInteractive,
+            double avgWaitMillisBackground,
+            long maxWaitMillisInteractive,
+            long maxWaitMillisBackground,
+            long pausedMillisRemaining
+    ) {}
+
+    // 이 스레드에서 나간 호출 수 (요청 단위 집계용, 호출 측이 전후 차이를 본다)
+    private static final ThreadLocal<int[]> THREAD_CALLS = ThreadLocal.withInitial(() -> new int[1]);
+    // 한 번에 자는 최대 시간: 그 사이 시계가 달라져도(테스트의 가짜 시계 등) 이 안에 다시 확인한다
+    private static final long MAX_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final OpenAiProperties props;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition changed = lock.newCondition();
+
+    // lock 으로 보호
+    private double requests = -1; // 처음 acquire 때 가득 채움
+    private double tokens;
+    private long refilledAt;
+    private volatile long pausedUntil;
+    // 지표 게이지가 잠금 없이 읽는다
+    private volatile int waitingInteractive;
+    private volatile int waitingBackground;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong rejectedWhilePaused = new AtomicLong();
+    private final AtomicLong[] waitNanos = { new AtomicLong(), new AtomicLong() };
+    private final AtomicLong[] waitCount = { new AtomicLong(), new AtomicLong() };
+    private final AtomicLong[] maxWaitNanos = { new AtomicLong(), new AtomicLong() };
+    private final Counter[] callCounters = new Counter[Priority.values().length];
+    private final Timer[] waitTimers = new Timer[Priority.values().length];
+    private Counter rejectedPaused;
+    private Counter rejectedTimeout;
+
+    @Autowired
+    public OpenAiRateScheduler(OpenAiProperties props, MeterRegistry meterRegistry) {
+        this(props, meterRegistry, System::nanoTime);
+    }
+
+    /** 시계 주입용 (테스트) */
+    OpenAiRateScheduler(OpenAiProperties props, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.pausedUntil = nanoClock.getAsLong(); // nanoTime 은 음수일 수 있어 0 이 아니라 지금으로 시작
+    }
+
+    @PostConstruct
+    void init() {
+        for (Priority p : Priority.values()) {
+            callCounters[p.ordinal()] = Counter.builder("openai.calls")
+                    .description("OpenAI 호출 수 (429 재시도 포함)")
+                    .tag("priority", p.name().toLowerCase())
+                    .register(meterRegistry);
+            waitTimers[p.ordinal()] = Timer.builder("openai.scheduler.wait")
+                    .description("RPM/TPM 예산을 얻기까지 기다린 시간")
+                    .tag("priority", p.name().toLowerCase())
+                    .register(meterRegistry);
+            Gauge.builder("openai.scheduler.waiting", this, s -> p == Priority.INTERACTIVE ? s.waitingInteractive : s.waitingBackground)
+                    .description("예산을 기다리는 호출 수")
+                    .tag("priority", p.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("openai.scheduler.paused", this, s -> Math.max(0, (s.pausedUntil - s.nanoClock.getAsLong()) / 1_000_000))
+                .description("429 로 멈춘 남은 시간 (ms)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        rejectedPaused = rejectedCounter("paused");
+        rejectedTimeout = rejectedCounter("timeout");
+    }
+
+    private Counter rejectedCounter(String reason) {
+        return Counter.builder("openai.scheduler.rejected")
+                .description("INTERACTIVE 호출을 기다리지 않고 거절한 수")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 예산을 얻은 뒤 request 를 실행. 429 면 스케줄러를 멈추고 BACKGROUND 는 maxRetries 까지 다시 시도.
+     * 그 밖의 예외는 그대로 던진다. INTERACTIVE 는 멈춤 중이거나 429 를 받으면 바로,
+     * timeout-sec 안에 예산을 얻지 못하면 OpenAiThrottledException 으로 실패 (호출 측은 대체 경로로).
+     */
+    public <T> T call(Priority priority, int estTokens, Supplier<T> request) {
+        long backoff = props.getInitialBackoffMs();
+        int attempts = 0;
+        while (true) {
+            acquire(priority, estTokens);
+            calls.incrementAndGet();
+            callCounters[priority.ordinal()].increment();
+            THREAD_CALLS.get()[0]++;
+            try {
+                return request.get();
+            } catch (WebClientResponseException e) {
+                if (e.getStatusCode().value() != 429) throw e;
+                long waitMs = retryAfterMs(e, backoff);
+                throttled.incrementAndGet();
+                pause(waitMs);
+                log.warn("[OAI-RATE] 429 -> pause {}ms (attempt {}/{}, priority={})",
+                        waitMs, attempts + 1, props.getMaxRetries(), priority);
+                if (priority == Priority.INTERACTIVE) {
+                    rejectedWhilePaused.incrementAndGet();
+                    rejectedPaused.increment();
+                    throw new OpenAiThrottledException("OpenAI 호출 한도 초과로 잠시 후 다시 시도해 주세요.", waitMs);
+                }
+                if (attempts >= props.getMaxRetries()) throw e;
+                attempts++;
+                backoff = Math.max(backoff * 2, 1000L);
+            }
+        }
+    }
+
+    public Stats stats() {
+        lock.lock();
+        try {
+            refill(nanoClock.getAsLong());
+            return new Stats(
+                    props.getRequestsPerMinute(),
+                    props.getTokensPerMinute(),
+                    requests < 0 ? props.getRequestsPerMinute() : requests,
+                    requests < 0 ? props.getTokensPerMinute() : tokens,
+                    waitingInteractive,
+                    waitingBackground,
+                    calls.get(),
+                    throttled.get(),
+                    timeouts.get(),
+                    rejectedWhilePaused.get(),
+                    avgWaitMillis(Priority.INTERACTIVE),
+                    avgWaitMillis(Priority.BACKGROUND),
+                    maxWaitNanos[Priority.INTERACTIVE.ordinal()].get() / 1_000_000,
+                    maxWaitNanos[Priority.BACKGROUND.ordinal()].get() / 1_000_000,
+                    Math.max(0, (pausedUntil - nanoClock.getAsLong()) / 1_000_000)
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 현재 스레드에서 지금까지 나간 호출 수 */
+    public static int callsOnCurrentThread() {
+        return THREAD_CALLS.get()[0];
+    }
+
+    /** 보수적 토큰 추정: ASCII 4자당 1토큰, 그 외(한글 등) 1자당 1토큰 */
+    public static int estimateTokens(String s) {
+        if (s == null || s.isEmpty()) return 1;
+        int ascii = 0, other = 0;
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) < 128) ascii++; else other++;
+        }
+        return 1 + ascii / 4 + other;
+    }
+
+    /* ===== 내부 ===== */
+
+    private void acquire(Priority priority, int estTokens) {
+        long t0 = nanoClock.getAsLong();
+        long deadline = priority == Priority.INTERACTIVE
+                ? t0 + TimeUnit.SECONDS.toNanos(props.getTimeoutSec())
+                : Long.MAX_VALUE;
+        // 버킷 크기보다 큰 요청은 가득 찼을 때 통과
+        double need = Math.min(Math.max(estTokens, 1), props.getTokensPerMinute());
+
+        lock.lock();
+        try {
+            if (priority == Priority.INTERACTIVE) waitingInteractive++; else waitingBackground++;
+            try {
+                while (true) {
+                    long now = nanoClock.getAsLong();
+                    // 429 멈춤 중에는 요청 스레드를 붙잡아 두지 않는다
+                    if (priority == Priority.INTERACTIVE && now < pausedUntil) {
+                        rejectedWhilePaused.incrementAndGet();
+                        rejectedPaused.increment();
+                        throw new OpenAiThrottledException("OpenAI 호출 한도 초과로 잠시 후 다시 시도해 주세요.",
+                                (pausedUntil - now) / 1_000_000);
+                    }
+                    refill(now);
+                    boolean yield = priority == Priority.BACKGROUND && waitingInteractive > 0;
+                    if (!yield && now >= pausedUntil && requests >= 1 && tokens >= need) {
+                        requests -= 1;
+                        tokens -= need;
+                        break;
+                    }
+                    if (now >= deadline) {
+                        timeouts.incrementAndGet();
+                        rejectedTimeout.increment();
+                        throw new OpenAiThrottledException("OpenAI 호출 대기 시간 초과 (rate limit)", nanosUntilAvailable(now, need) / 1_000_000);
+                    }
+                    long sleep = yield ? TimeUnit.MILLISECONDS.toNanos(50) : nanosUntilAvailable(now, need);
+                    changed.awaitNanos(Math.max(1_000_000L, Math.min(MAX_SLEEP_NANOS, Math.min(sleep, deadline - now))));
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("OpenAI 호출 대기 중 인터럽트", ie);
+            } finally {
+                if (priority == Priority.INTERACTIVE) waitingInteractive--; else waitingBackground--;
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        recordWait(priority, nanoClock.getAsLong() - t0);
+    }
+
+    private void pause(long millis) {
+        lock.lock();
+        try {
+            pausedUntil = Math.max(pausedUntil, nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(millis));
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lock 보유 상태에서 호출
+    private void refill(long now) {
+        double rpm = props.getRequestsPerMinute();
+        double tpm = props.getTokensPerMinute();
+        if (requests < 0) {
+            requests = rpm;
+            tokens = tpm;
+            refilledAt = now;
+            return;
+        }
+        double minutes = (now - refilledAt) / 60e9;
+        if (minutes <= 0) return;
+        requests = Math.min(rpm, requests + minutes * rpm);
+        tokens = Math.min(tpm, tokens + minutes * tpm);
+        refilledAt = now;
+    }
+
+    private long nanosUntilAvailable(long now, double need) {
+        long wait = Math.max(0, pausedUntil - now);
+        if (requests < 1) wait = Math.max(wait, (long) ((1 - requests) / props.getRequestsPerMinute() * 60e9));
+        if (tokens < need) wait = Math.max(wait, (long) ((need - tokens) / props.getTokensPerMinute() * 60e9));
+        return wait;
+    }
+
+    private void recordWait(Priority p, long nanos) {
+        int i = p.ordinal();
+        waitNanos[i].addAndGet(nanos);
+        waitCount[i].incrementAndGet();
+        maxWaitNanos[i].accumulateAndGet(nanos, Math::max);
+        waitTimers[i].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private double avgWaitMillis(Priority p) {
+        long n = waitCount[p.ordinal()].get();
+        return n == 0 ? 0.0 : waitNanos[p.ordinal()].get() / 1e6 / n;
+    }
+
+    private static long retryAfterMs(WebClientResponseException e, long fallback) {
+        try {
+            String ra = e.getHeaders().getFirst("Retry-After");
+            if (ra == null) return fallback;
+            return Math.max(1000L, Long.parseLong(ra.trim()) * 1000L);
+        } catch (Exception ignore) {
+            return fallback;
+        }
+    }
+}
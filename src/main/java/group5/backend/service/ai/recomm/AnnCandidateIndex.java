@@ -0,0 +1,185 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 홈 추천 후보용 HNSW 인덱스 (전체 타입 공용).
+ * EmbeddingIndex 변경을 받아 단일 writer 스레드에서 순서대로 반영하고,
+ * 검색은 요청 스레드에서 바로 수행한다. tombstone 이 많아지면 별도 스레드(ann-rebuild)에서 새로 빌드하고,
+ * 그동안 writer 가 반영한 변경을 새 인덱스에 다시 적용한 뒤 교체한다.
+ * 전체 (재)적재 중에는 새 차원 벡터를 별도 인덱스(building)에 쌓고 완료 시 교체한다.
+ * 그동안 들어오는 이전 차원 벡터는 서빙 중인 인덱스에 계속 반영한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnnCandidateIndex implements EmbeddingIndexListener {
+
+    private final OpenAIEmbeddingClient openai;
+    private final RecommProperties recommProps;
+
+    private volatile HnswIndex index;
+    private HnswIndex building; // writer 스레드 전용
+    private List<Op> rebuildOps; // 재빌드 중 index 에 반영된 변경 (null = 재빌드 중 아님, writer 전용)
+    private ExecutorService writer;
+    private ExecutorService rebuilder;
+
+    /** 재빌드 중 변경 기록. vec == null 이면 삭제 */
+    private record Op(long key, float[] vec) {}
+
+    @PostConstruct
+    void start() {
+        index = newIndex(openai.dim());
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ann-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        rebuilder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "ann-rebuild");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.shutdownNow();
+        rebuilder.shutdownNow();
+    }
+
+    @Override
+    public void onUpsert(ItemType type, Long id, float[] vec) {
+        if (!recommProps.getAnn().isEnabled()) return;
+        long key = key(type, id);
+        writer.execute(() -> {
+            HnswIndex t = target(vec.length);
+            if (t == null) return;
+            t.upsert(key, vec);
+            record(t, key, vec);
+        });
+    }
+
+    @Override
+    public void onRemove(ItemType type, Long id) {
+        if (!recommProps.getAnn().isEnabled()) return;
+        long key = key(type, id);
+        writer.execute(() -> {
+            boolean removed = index.remove(key);
+            record(index, key, null);
+            if (building != null) building.remove(key);
+            else if (removed) maybeRebuild();
+        });
+    }
+
+    @Override
+    public void onReset(int dim) {
+        if (!recommProps.getAnn().isEnabled()) return;
+        writer.execute(() -> building = newIndex(dim));
+    }
+
+    @Override
+    public void onLoaded() {
+        if (!recommProps.getAnn().isEnabled()) return;
+        writer.execute(() -> {
+            if (building == null) return;
+            index = building;
+            building = null;
+            log.info("[ANN] built size={}", index.size());
+        });
+    }
+
+    public boolean isReady() {
+        return recommProps.getAnn().isEnabled() && index.size() > 0;
+    }
+
+    public int size() { return index.size(); }
+
+    /** 재빌드 전까지 남아 있는 삭제 노드 수 (노드마다 float32 벡터 사본을 계속 들고 있다) */
+    public int tombstones() { return index.tombstones(); }
+
+    /** 질의 벡터와 가까운 아이템 k 개 (가까운 순) */
+    public List<ItemKey> search(float[] query, int k) {
+        var hits = index.search(query, k, recommProps.getAnn().getEfSearch());
+        List<ItemKey> out = new ArrayList<>(hits.size());
+        for (var h : hits) out.add(toItemKey(h.key()));
+        return out;
+    }
+
+    /* ===== 내부 ===== */
+
+    // writer 스레드에서 호출. 빌드는 rebuilder 에 맡기고 writer 는 계속 변경을 반영한다
+    private void maybeRebuild() {
+        if (rebuildOps != null) return;
+        HnswIndex cur = index;
+        int dead = cur.tombstones();
+        int alive = cur.size();
+        if (dead == 0 || dead < (alive + dead) * recommProps.getAnn().getRebuildTombstoneRatio()) return;
+
+        long t0 = System.nanoTime();
+        var entries = cur.aliveEntries();
+        rebuildOps = new ArrayList<>();
+        rebuilder.execute(() -> {
+            try {
+                HnswIndex fresh = newIndex(cur.dim());
+                for (var e : entries) fresh.upsert(e.getKey(), e.getValue());
+                writer.execute(() -> swapRebuilt(cur, fresh, dead, t0));
+            } catch (RuntimeException e) {
+                log.warn("[ANN] rebuild failed: {}", e.toString());
+                writer.execute(() -> rebuildOps = null);
+            }
+        });
+    }
+
+    // writer 스레드. 빌드하는 동안 들어온 변경을 새 인덱스에 다시 적용한 뒤 교체
+    private void swapRebuilt(HnswIndex from, HnswIndex fresh, int dead, long t0) {
+        List<Op> ops = rebuildOps;
+        rebuildOps = null;
+        if (index != from) { // 그 사이 전체 재적재로 교체됨
+            log.info("[ANN] rebuild discarded (index replaced while building)");
+            return;
+        }
+        for (Op op : ops) {
+            if (op.vec() == null) fresh.remove(op.key());
+            else fresh.upsert(op.key(), op.vec());
+        }
+        index = fresh;
+        log.info("[ANN] rebuilt alive={}, dropped tombstones={}, replayed={}, took={}ms",
+                fresh.size(), dead, ops.size(), (System.nanoTime() - t0) / 1_000_000);
+    }
+
+    private void record(HnswIndex applied, long key, float[] vec) {
+        if (rebuildOps != null && applied == index) rebuildOps.add(new Op(key, vec));
+    }
+
+    // 벡터 차원으로 고른다 (맞는 인덱스가 없으면 null)
+    private HnswIndex target(int dim) {
+        if (building != null && building.dim() == dim) return building;
+        return index.dim() == dim ? index : null;
+    }
+
+    private HnswIndex newIndex(int dim) {
+        var cfg = recommProps.getAnn();
+        return new HnswIndex(dim, cfg.getM(), cfg.getEfConstruction());
+    }
+
+    // 상위 8비트 = 타입, 하위 56비트 = id
+    private static long key(ItemType type, Long id) {
+        return ((long) type.ordinal() << 56) | id;
+    }
+
+    private static ItemKey toItemKey(long key) {
+        return new ItemKey(ItemType.values()[(int) (key >>> 56)], key & 0x00FF_FFFF_FFFF_FFFFL);
+    }
+}
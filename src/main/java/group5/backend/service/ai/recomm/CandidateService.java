@@ -1,20 +1,18 @@
 // src/main/java/group5/backend/service/ai/recomm/CandidateService.java
 package group5.backend.service.ai.recomm;
 
-import group5.backend.domain.event.Event;
-import group5.backend.domain.popup.Popup;
+import group5.backend.config.recomm.RecommProperties;
 import group5.backend.domain.recomm.ItemType;
-import group5.backend.domain.store.Store;
+import group5.backend.domain.user.Category;
 import group5.backend.repository.EventRepository;
 import group5.backend.repository.PopupRepository;
 import group5.backend.repository.StoreRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -25,55 +23,169 @@ public class CandidateService {
     private final StoreRepository storeRepository;
     private final EventRepository eventRepository;
     private final PopupRepository popupRepository;
+    private final AnnCandidateIndex annIndex;
+    private final RecommProperties recommProps;
+    private final PreferencePort pref;
+    private final CoLikeIndex coLikeIndex;
 
+    // like desc -> id desc (DB 정렬과 같은 순서)
+    private static final Comparator<ItemCandidate> POPULAR =
+            Comparator.comparingInt(ItemCandidate::likeCount).reversed()
+                    .thenComparing(ItemCandidate::id, Comparator.reverseOrder());
+
+    /** 전체 인기 후보: 타입별 상위 limit 개를 DB 에서 정렬/절단해 가져와 합친 뒤 다시 limit */
     public List<ItemCandidate> findPopularFallback(int limit) {
+        log.debug("[CAND] findPopularFallback limit={}", limit);
+        var out = topByType(null, limit, LocalDate.now());
+        log.debug("[CAND] result size={}", out.size());
+        return out;
+    }
+
+    /**
+     * 계층형 인기 후보: 1) 관심 카테고리 안의 인기순 2) 전체 인기순 으로 limit 까지 (중복 제외).
+     * 관심 카테고리가 없거나 category-tier 가 꺼져 있으면 전체 인기순만.
+     */
+    public List<ItemCandidate> findPopular(Long userId, int limit) {
+        var cats = recommProps.getCandidates().isCategoryTier() ? preferredCategories(userId) : List.<Category>of();
+        if (cats.isEmpty()) return findPopularFallback(limit);
+
         LocalDate today = LocalDate.now();
+        List<ItemCandidate> out = new ArrayList<>(limit);
+        Set<ItemKey> seen = new HashSet<>();
+        for (var c : topByType(cats, limit, today)) {
+            if (seen.add(ItemKey.of(c))) out.add(c);
+        }
+        int tier1 = out.size();
+        if (out.size() < limit) {
+            for (var c : topByType(null, limit, today)) {
+                if (out.size() >= limit) break;
+                if (seen.add(ItemKey.of(c))) out.add(c);
+            }
+        }
+        log.debug("[CAND] findPopular userId={}, categories={}, category/global = {}/{}",
+                userId, cats, tier1, out.size() - tier1);
+        return out;
+    }
+
+    /**
+     * 로그인 유저용 후보 수집.
+     * 프로필 벡터의 ANN 최근접 아이템(진행중만)을 먼저 담고, 좋아요 아이템의 공동 좋아요 이웃을 더한 뒤
+     * 남는 자리는 관심 카테고리 -> 전체 인기순으로 채운다.
+     */
+    public List<ItemCandidate> findForUser(Long userId, float[] userVec, int limitFetch) {
+        return findForUser(userId, userVec, limitFetch, coLikeIndex.affinity(userId));
+    }
+
+    /** coLike: 같은 요청의 랭킹 가산점과 공유하도록 호출자가 한 번 계산해 넘긴다 */
+    public List<ItemCandidate> findForUser(Long userId, float[] userVec, int limitFetch, CoLikeIndex.Affinity coLike) {
+        log.debug("[CAND] findForUser userId={}, limitFetch={}", userId, limitFetch);
         List<ItemCandidate> out = new ArrayList<>();
-        log.debug("[CAND] findPopularFallback limit={}", limit);
+        Set<ItemKey> seen = new HashSet<>();
 
-        // 매장: 전체에서 like desc, id desc로 상위 N
-        storeRepository.findAll().stream()
-                .sorted(Comparator.comparingInt(Store::getLikeCount).reversed()
-                        .thenComparing(Store::getId, Comparator.reverseOrder()))
-                .limit(limit)
-                .forEach(s -> out.add(ItemCandidate.of(
-                        ItemType.STORE, s.getId(), s.getLikeCount(),
-                        s.getCategory()!=null? s.getCategory().name():null,
-                        s.getAddress(), null, null
-                )));
-
-        // 이벤트/팝업: 진행중만 추려서 정렬 후 상위 N
-        eventRepository.findOngoing(today).stream()
-                .sorted(Comparator.comparingInt(Event::getLikeCount).reversed()
-                        .thenComparing(Event::getId, Comparator.reverseOrder()))
-                .limit(limit)
-                .forEach(e -> out.add(ItemCandidate.of(
-                        ItemType.EVENT, e.getId(), e.getLikeCount(),
-                        e.getStore()!=null && e.getStore().getCategory()!=null? e.getStore().getCategory().name():null,
-                        e.getStore()!=null? e.getStore().getAddress():null,
-                        e.getStartDate(), e.getEndDate()
-                )));
-
-        popupRepository.findOngoing(today).stream()
-                .sorted(Comparator.comparingInt(Popup::getLikeCount).reversed()
-                        .thenComparing(Popup::getId, Comparator.reverseOrder()))
-                .limit(limit)
-                .forEach(p -> out.add(ItemCandidate.of(
-                        ItemType.POPUP, p.getId(), p.getLikeCount(),
-                        p.getCategory()!=null? p.getCategory().name():null,
-                        p.getAddress(), p.getStartDate(), p.getEndDate()
-                )));
-
-        // 마지막으로 전체를 한 번 더 like desc -> id desc 정렬한 뒤 limit
-        out.sort(Comparator.comparingInt(ItemCandidate::likeCount).reversed()
-                .thenComparing(ItemCandidate::id, Comparator.reverseOrder()));
-        log.debug("[CAND] result size={}", out.size());
+        if (userVec != null && annIndex.isReady()) {
+            int k = Math.min(limitFetch, recommProps.getAnn().getTopK());
+            for (var c : toCandidates(annIndex.search(userVec, k))) {
+                if (seen.add(ItemKey.of(c))) out.add(c);
+            }
+            log.debug("[CAND] ann hits={}", out.size());
+        }
+
+        if (!coLike.isEmpty() && out.size() < limitFetch) {
+            int before = out.size();
+            int k = Math.min(limitFetch - out.size(), recommProps.getCoLike().getCandidateTopK());
+            for (var c : toCandidates(coLike.top(k))) {
+                if (seen.add(ItemKey.of(c))) out.add(c);
+            }
+            log.debug("[CAND] co-like hits={}", out.size() - before);
+        }
+
+        for (var c : findPopular(userId, limitFetch)) {
+            if (out.size() >= limitFetch) break;
+            if (seen.add(ItemKey.of(c))) out.add(c);
+        }
+        return out;
+    }
+
+    /** 오프라인 배치 점수화 대상: 타입별 인기 상위 perType 개 (이벤트/팝업은 진행중만) */
+    public List<ItemCandidate> findEligible(int perType) {
+        var page = PageRequest.of(0, perType);
+        LocalDate today = LocalDate.now();
+        List<ItemCandidate> out = new ArrayList<>();
+        addRows(out, ItemType.STORE, storeRepository.findTopCandidateRows(page));
+        addRows(out, ItemType.EVENT, eventRepository.findTopOngoingCandidateRows(today, page));
+        addRows(out, ItemType.POPUP, popupRepository.findTopOngoingCandidateRows(today, page));
+        log.debug("[CAND] findEligible perType={}, size={}", perType, out.size());
+        return out;
+    }
+
+    /** 저장해 둔 추천 중 지금도 내보낼 수 있는 아이템 (삭제되지 않았고, 이벤트/팝업은 진행중) */
+    public Set<ItemKey> findServable(Collection<ItemKey> keys) {
+        Set<ItemKey> out = new HashSet<>();
+        for (var c : toCandidates(new ArrayList<>(keys))) out.add(ItemKey.of(c));
+        return out;
+    }
+
+    /** ANN/이웃 결과를 후보로 변환 (삭제/종료된 아이템 제외, 필요한 컬럼만 조회) */
+    private List<ItemCandidate> toCandidates(List<ItemKey> keys) {
+        if (keys.isEmpty()) return List.of();
+        LocalDate today = LocalDate.now();
+        Map<ItemType, List<Long>> ids = new EnumMap<>(ItemType.class);
+        for (var k : keys) ids.computeIfAbsent(k.type(), t -> new ArrayList<>()).add(k.id());
+
+        List<ItemCandidate> out = new ArrayList<>(keys.size());
+        if (ids.containsKey(ItemType.STORE)) {
+            addRows(out, ItemType.STORE, storeRepository.findCandidateRowsByIdIn(ids.get(ItemType.STORE)));
+        }
+        if (ids.containsKey(ItemType.EVENT)) {
+            addRows(out, ItemType.EVENT, eventRepository.findOngoingCandidateRowsByIdIn(ids.get(ItemType.EVENT), today));
+        }
+        if (ids.containsKey(ItemType.POPUP)) {
+            addRows(out, ItemType.POPUP, popupRepository.findOngoingCandidateRowsByIdIn(ids.get(ItemType.POPUP), today));
+        }
+        return out;
+    }
+
+    /** 타입별 인기 상위 limit (cats == null 이면 전체). 이벤트/팝업은 진행중만 */
+    private List<ItemCandidate> topByType(Collection<Category> cats, int limit, LocalDate today) {
+        var page = PageRequest.of(0, limit);
+        List<ItemCandidate> out = new ArrayList<>();
+        addRows(out, ItemType.STORE, cats == null
+                ? storeRepository.findTopCandidateRows(page)
+                : storeRepository.findTopCandidateRowsByCategoryIn(cats, page));
+        addRows(out, ItemType.EVENT, cats == null
+                ? eventRepository.findTopOngoingCandidateRows(today, page)
+                : eventRepository.findTopOngoingCandidateRowsByCategoryIn(today, cats, page));
+        addRows(out, ItemType.POPUP, cats == null
+                ? popupRepository.findTopOngoingCandidateRows(today, page)
+                : popupRepository.findTopOngoingCandidateRowsByCategoryIn(today, cats, page));
+
+        out.sort(POPULAR);
         return out.size() > limit ? out.subList(0, limit) : out;
     }
-    /** 로그인 유저용 후보 수집 **/
-    public List<ItemCandidate> findForUser(Long userId, int limitFetch) {
-        // TODO: 원하면 userId 기반으로 선호 카테고리/지역 필터를 얹어서 개선
-        log.debug("[CAND] findForUser userId={}, limitFetch={}", userId, limitFetch);
-        return findPopularFallback(limitFetch);
+
+    private static void addRows(List<ItemCandidate> out, ItemType type, List<Object[]> rows) {
+        for (Object[] r : rows) {
+            // r = [id, likeCount, category, address(, startDate, endDate)]
+            Category c = (Category) r[2];
+            out.add(ItemCandidate.of(
+                    type, (Long) r[0], ((Number) r[1]).intValue(),
+                    c != null ? c.name() : null,
+                    (String) r[3],
+                    r.length > 4 ? (LocalDate) r[4] : null,
+                    r.length > 5 ? (LocalDate) r[5] : null
+            ));
+        }
+    }
+
+    private List<Category> preferredCategories(Long userId) {
+        if (userId == null) return List.of();
+        var names = pref.preferredCategories(userId);
+        if (names == null || names.isEmpty()) return List.of();
+        List<Category> out = new ArrayList<>(names.size());
+        for (String n : names) {
+            try { out.add(Category.valueOf(n)); }
+            catch (IllegalArgumentException ignore) { /* 알 수 없는 카테고리 */ }
+        }
+        return out;
     }
 }
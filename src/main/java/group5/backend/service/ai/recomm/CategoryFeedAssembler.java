@@ -21,8 +21,13 @@ public class CategoryFeedAssembler {
     private final StoreRepository storeRepository;
     private final EventRepository eventRepository;
     private final PopupRepository popupRepository;
+    private final RecommMetrics metrics;
 
     public List<CategoryFeedItemResponse> toResponses(List<RankingService.Scored> ranked, Long userId) {
+        return metrics.time(RecommMetrics.Stage.ASSEMBLE, () -> assemble(ranked));
+    }
+
+    private List<CategoryFeedItemResponse> assemble(List<RankingService.Scored> ranked) {
         List<Long> storeIds = new ArrayList<>(), eventIds = new ArrayList<>(), popupIds = new ArrayList<>();
 
         // ✅ 단순 for문으로 수집
@@ -0,0 +1,164 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.CategorySeedEmbedding;
+import group5.backend.domain.user.Category;
+import group5.backend.exception.openai.EmbeddingBatchFailedException;
+import group5.backend.repository.CategorySeedEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 좋아요 없는 유저(cold start)용 카테고리 시드 임베딩.
+ * 관심 카테고리는 최대 3개라 조합이 C(7,0)+C(7,1)+C(7,2)+C(7,3) = 64 가지뿐이므로
+ * 전부 미리 임베딩해 (비트마스크, 모델, 차원) 으로 저장해 두고 메모리에서 꺼내 쓴다.
+ * 기동 시 현재 모델/차원 행이 없거나 문장이 바뀐 조합만 다시 임베딩한다. (모델 교체, 차원 cut-over 후 refresh)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategorySeedEmbeddings {
+
+    static final int MAX_SELECTED = 3;
+
+    static final String DEFAULT_SEED =
+            "User is interested in local stores, ongoing events, and popups in the neighborhood.";
+
+    private final CategorySeedEmbeddingRepository repo;
+    private final OpenAIEmbeddingClient openai;
+
+    private volatile Map<Integer, float[]> seeds = Map.of();
+    private volatile String loadedFor = ""; // "model:dim"
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Thread t = new Thread(() -> {
+            try { refresh(); }
+            catch (Exception e) { log.warn("[SEED] initial refresh failed: {}", e.toString()); }
+        }, "category-seed-refresh");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** 현재 모델/차원 기준으로 64개 조합을 맞춘다. 새로 임베딩한 개수 반환 */
+    public synchronized int refresh() {
+        long t0 = System.nanoTime();
+        String model = openai.modelName();
+        int dim = openai.dim();
+
+        Map<Integer, CategorySeedEmbedding> rows = new HashMap<>();
+        for (var r : repo.findByModelAndDim(model, dim)) rows.put(r.getCategoryMask(), r);
+
+        Map<Integer, float[]> next = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (int mask : allMasks()) {
+            var row = rows.get(mask);
+            if (row != null && row.getSeedText().equals(seedText(mask))) {
+                next.put(mask, VectorCodec.decode(row.getVecBlob()));
+            } else {
+                missing.add(mask);
+            }
+        }
+
+        int embedded = 0;
+        if (!missing.isEmpty()) {
+            List<String> texts = new ArrayList<>(missing.size());
+            for (int mask : missing) texts.add(seedText(mask));
+            List<float[]> vecs;
+            try {
+                vecs = openai.embedBatch(texts, dim);
+            } catch (EmbeddingBatchFailedException e) {
+                // 받은 만큼만 저장하고, 빠진 조합은 다음 refresh 에서 다시 임베딩
+                log.warn("[SEED] embed partially failed: {}/{} ({})", e.getEmbedded(), texts.size(), String.valueOf(e.getCause()));
+                vecs = e.getPartial();
+            }
+            List<CategorySeedEmbedding> toSave = new ArrayList<>();
+            for (int i = 0; i < vecs.size() && i < missing.size(); i++) {
+                if (vecs.get(i) == null) continue;
+                int mask = missing.get(i);
+                float[] v = VectorMath.l2normalize(vecs.get(i));
+                byte[] blob = VectorCodec.encode(v, model);
+                var row = rows.get(mask);
+                if (row != null) {
+                    row.replace(texts.get(i), blob);
+                } else {
+                    row = CategorySeedEmbedding.builder()
+                            .categoryMask(mask)
+                            .model(model)
+                            .dim(dim)
+                            .seedText(texts.get(i))
+                            .vecBlob(blob)
+                            .build();
+                }
+                toSave.add(row);
+                next.put(mask, v);
+            }
+            repo.saveAll(toSave);
+            embedded = toSave.size();
+        }
+
+        seeds = Map.copyOf(next);
+        loadedFor = model + ":" + dim;
+        log.info("[SEED] ready model={}, dim={}, seeds={}, embedded={}, took={}ms",
+                model, dim, next.size(), embedded, (System.nanoTime() - t0) / 1_000_000);
+        return embedded;
+    }
+
+    /** 관심 카테고리 이름 집합의 시드 벡터. 준비 전이거나 조합을 벗어나면 null */
+    public float[] find(Collection<String> categories) {
+        if (!loadedFor.equals(openai.modelName() + ":" + openai.dim())) return null;
+        int mask = maskOf(categories);
+        if (mask < 0) return null;
+        float[] v = seeds.get(mask);
+        return v == null ? null : v.clone();
+    }
+
+    public int size() { return seeds.size(); }
+
+    /** 카테고리 이름 -> 비트마스크 (알 수 없는 이름이 있거나 MAX_SELECTED 초과면 -1) */
+    static int maskOf(Collection<String> categories) {
+        if (categories == null) return 0;
+        int mask = 0;
+        for (String name : categories) {
+            try { mask |= 1 << Category.valueOf(name).ordinal(); }
+            catch (IllegalArgumentException e) { return -1; }
+        }
+        return Integer.bitCount(mask) > MAX_SELECTED ? -1 : mask;
+    }
+
+    /** 시드 문장 (카테고리는 enum 순서로 나열해 조합당 문장이 하나로 정해지게) */
+    static String seedText(int mask) {
+        if (mask == 0) return DEFAULT_SEED;
+        List<String> names = new ArrayList<>();
+        for (Category c : Category.values()) {
+            if ((mask & (1 << c.ordinal())) != 0) names.add(c.name());
+        }
+        return "User interests: " + String.join(", ", names) + ". Prefer ongoing events and popups.";
+    }
+
+    /** 조합표 밖(MAX_SELECTED 초과)이라 바로 임베딩할 때의 문장. 형식/순서는 시드와 같고 알 수 없는 이름은 뺀다 */
+    static String seedText(Collection<String> categories) {
+        int mask = 0;
+        if (categories != null) {
+            for (String name : categories) {
+                if (name == null) continue;
+                try { mask |= 1 << Category.valueOf(name).ordinal(); }
+                catch (IllegalArgumentException ignore) { }
+            }
+        }
+        return seedText(mask);
+    }
+
+    private static List<Integer> allMasks() {
+        List<Integer> out = new ArrayList<>();
+        int all = 1 << Category.values().length;
+        for (int mask = 0; mask < all; mask++) {
+            if (Integer.bitCount(mask) <= MAX_SELECTED) out.add(mask);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,421 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.PreferenceQueryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 즐겨찾기 3종 테이블로 만든 아이템-아이템 공동 좋아요 이웃 인덱스.
+ * <pre>
+ * 1) user_id 구간별로 즐겨찾기를 읽어 유저별 아이템 목록(CSR)으로 모은다
+ * 2) 유저를 샤드로 나눠 병렬로 아이템 쌍 공동 좋아요 수를 long -> int 맵에 센다 (쌍 key = 작은 인덱스 << 32 | 큰 인덱스)
+ * 3) 샤드 맵을 합친 뒤 가중치 = 공동 수 / sqrt(좋아요 수 x 좋아요 수) 로 아이템마다 상위 neighbors 개만 남긴다
+ * </pre>
+ * 결과는 불변 배열 묶음으로 통째로 교체하므로 읽기는 락이 없다.
+ * 유저별 점수(Affinity)는 요청마다 좋아요 아이템들의 이웃 가중치를 더해 만들고, 후보 수집과 랭킹 가산점에 같이 쓴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CoLikeIndex {
+
+    public record Stats(
+            boolean ready,
+            int users,
+            int favorites,
+            int items,
+            int pairs,
+            int edges,
+            long loadMillis,
+            long buildMillis,
+            LocalDateTime builtAt
+    ) {}
+
+    /** 유저별 이웃 점수 (0~1, 가장 가까운 아이템이 1). 좋아요 아이템 이웃이 아니거나 이미 좋아요한 아이템이면 0 */
+    public static final class Affinity {
+
+        public static final Affinity NONE = new Affinity(new LongIntHashMap(1), new long[0], new float[0], 0);
+
+        private final LongIntHashMap slots;
+        private final long[] keys;
+        private final float[] scores;
+        private final int size;
+
+        private Affinity(LongIntHashMap slots, long[] keys, float[] scores, int size) {
+            this.slots = slots;
+            this.keys = keys;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public double score(ItemType type, Long id) {
+            if (size == 0 || type == null || id == null) return 0.0;
+            int s = slots.get(key(type, id), -1);
+            return s < 0 ? 0.0 : scores[s];
+        }
+
+        /** 점수 상위 k 개 (앞선 순) */
+        public List<ItemKey> top(int k) {
+            int[] top = TopK.select(size, k, (a, b) -> {
+                int c = Float.compare(scores[a], scores[b]);
+                return c != 0 ? c : Long.compare(keys[a], keys[b]);
+            });
+            List<ItemKey> out = new ArrayList<>(top.length);
+            for (int i : top) out.add(itemKey(keys[i]));
+            return out;
+        }
+    }
+
+    /** 아이템 i 의 이웃 = nbr[offsets[i] .. offsets[i+1]) (가중치 내림차순) */
+    private record Graph(long[] keys, LongIntHashMap index, int[] offsets, int[] nbr, float[] weight, Stats stats) {}
+
+    /** 유저 u 의 아이템 인덱스 = items[userStart[u] .. userStart[u+1]) */
+    private record Favorites(long[] keys, LongIntHashMap index, int itemCount,
+                             int[] userStart, int users, int[] items, int favorites) {}
+
+    private final PreferenceQueryRepository preferenceQueries;
+    private final PreferencePort pref;
+    private final RecommProperties recommProps;
+
+    private ForkJoinPool pool;
+    private volatile Graph graph; // null = 아직 안 만듦
+
+    @PostConstruct
+    void init() {
+        int p = recommProps.getCoLike().getParallelism();
+        pool = new ForkJoinPool(p > 0 ? p : Runtime.getRuntime().availableProcessors(), fj -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fj);
+            t.setName("colike-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!recommProps.getCoLike().isEnabled()) return;
+        Thread t = new Thread(() -> {
+            try { rebuild(); }
+            catch (Exception e) { log.warn("[COLIKE] initial build failed: {}", e.toString()); }
+        }, "colike-initial-build");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @Scheduled(
+            initialDelayString = "${recomm.co-like.refresh-minutes:60}",
+            fixedDelayString = "${recomm.co-like.refresh-minutes:60}",
+            timeUnit = TimeUnit.MINUTES
+    )
+    public void scheduledRebuild() {
+        if (!recommProps.getCoLike().isEnabled()) return;
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("[COLIKE] scheduled rebuild failed: {}", e.toString(), e);
+        }
+    }
+
+    public boolean isReady() {
+        return graph != null;
+    }
+
+    public Stats stats() {
+        Graph g = graph;
+        return g != null ? g.stats() : new Stats(false, 0, 0, 0, 0, 0, 0, 0, null);
+    }
+
+    /** 전체 재계산 후 교체 */
+    public synchronized Stats rebuild() {
+        var cfg = recommProps.getCoLike();
+        long t0 = System.nanoTime();
+        Favorites fav = load(Math.max(1, cfg.getLoadUserRange()));
+        long t1 = System.nanoTime();
+
+        int maxLikes = cfg.getMaxUserLikes();
+        int[] degree = new int[fav.itemCount()];
+        for (int u = 0; u < fav.users(); u++) {
+            int from = fav.userStart()[u], to = fav.userStart()[u + 1];
+            if (to - from < 2 || to - from > maxLikes) continue;
+            for (int i = from; i < to; i++) degree[fav.items()[i]]++;
+        }
+
+        LongIntHashMap counts = countPairs(fav, maxLikes);
+        Graph next = neighbours(fav, counts, degree, cfg.getNeighbors(), cfg.getMinCoLikes(), t1 - t0, t0);
+        graph = next;
+
+        log.info("[COLIKE] rebuilt users={}, favorites={}, items={}, pairs={}, edges={}, load={}ms, build={}ms",
+                next.stats().users(), next.stats().favorites(), next.stats().items(), next.stats().pairs(),
+                next.stats().edges(), next.stats().loadMillis(), next.stats().buildMillis());
+        return next.stats();
+    }
+
+    /** 유저가 좋아요한 아이템들의 이웃 가중치 합 (좋아요한 아이템 자체는 제외, 최댓값으로 나눠 0~1) */
+    public Affinity affinity(Long userId) {
+        Graph g = graph;
+        if (g == null || userId == null || !recommProps.getCoLike().isEnabled()) return Affinity.NONE;
+
+        var stores = pref.likedStoreIds(userId);
+        var events = pref.likedEventIds(userId);
+        var popups = pref.likedPopupIds(userId);
+        long[] liked = new long[stores.size() + events.size() + popups.size()];
+        if (liked.length == 0) return Affinity.NONE;
+        int n = 0;
+        for (Long id : stores) liked[n++] = key(ItemType.STORE, id);
+        for (Long id : events) liked[n++] = key(ItemType.EVENT, id);
+        for (Long id : popups) liked[n++] = key(ItemType.POPUP, id);
+        // 이미 좋아요한 아이템은 서로의 이웃이어도 점수를 주지 않는다 (후보/가산점에서 빠지도록)
+        Arrays.sort(liked);
+
+        LongIntHashMap slots = new LongIntHashMap(256);
+        long[] keys = new long[256];
+        float[] scores = new float[256];
+        int size = 0;
+        for (long k : liked) {
+            int i = g.index().get(k, -1);
+            if (i < 0) continue;
+            for (int p = g.offsets()[i]; p < g.offsets()[i + 1]; p++) {
+                long nk = g.keys()[g.nbr()[p]];
+                if (Arrays.binarySearch(liked, nk) >= 0) continue;
+                int s = slots.get(nk, -1);
+                if (s < 0) {
+                    if (size == keys.length) {
+                        keys = Arrays.copyOf(keys, size * 2);
+                        scores = Arrays.copyOf(scores, size * 2);
+                    }
+                    s = size++;
+                    keys[s] = nk;
+                    slots.put(nk, s);
+                }
+                scores[s] += g.weight()[p];
+            }
+        }
+        if (size == 0) return Affinity.NONE;
+
+        float max = 0f;
+        for (int i = 0; i < size; i++) max = Math.max(max, scores[i]);
+        for (int i = 0; i < size; i++) scores[i] /= max;
+        return new Affinity(slots, keys, scores, size);
+    }
+
+    /* ===== 아래는 내부 유틸 ===== */
+
+    /** user_id 구간별로 읽어 유저별 아이템 인덱스 목록으로 (구간 안에서 정렬하므로 쿼리에 ORDER BY 불필요) */
+    private Favorites load(int range) {
+        LongIntHashMap index = new LongIntHashMap(1 << 14);
+        long[] keys = new long[1 << 14];
+        int itemCount = 0;
+        int[] userStart = new int[1 << 12];
+        int users = 0;
+        int[] items = new int[1 << 16];
+        int favorites = 0;
+
+        Long maxUser = preferenceQueries.findMaxFavoriteUserId();
+        long max = maxUser == null ? 0 : maxUser;
+        for (long from = 0; from < max; from += range) {
+            List<Object[]> rows = preferenceQueries.findFavoriteRowsByUserRange(from, from + range);
+            if (rows.isEmpty()) continue;
+
+            // (구간 내 user 오프셋 << 32 | 아이템 인덱스) 로 정렬하면 유저별로 모인다
+            long[] packed = new long[rows.size()];
+            int n = 0;
+            for (Object[] r : rows) {
+                // r = [user_id, kind(S/E/P), item_id]
+                ItemType type = type(String.valueOf(r[1]));
+                if (type == null || r[0] == null || r[2] == null) continue;
+                long key = key(type, ((Number) r[2]).longValue());
+                int idx = index.get(key, -1);
+                if (idx < 0) {
+                    if (itemCount == keys.length) keys = Arrays.copyOf(keys, itemCount * 2);
+                    idx = itemCount++;
+                    keys[idx] = key;
+                    index.put(key, idx);
+                }
+                packed[n++] = ((((Number) r[0]).longValue() - from) << 32) | idx;
+            }
+            Arrays.sort(packed, 0, n);
+
+            long prevUser = -1;
+            int prevItem = -1;
+            for (int i = 0; i < n; i++) {
+                long u = packed[i] >>> 32;
+                int item = (int) packed[i];
+                if (u != prevUser) {
+                    if (users + 1 >= userStart.length) userStart = Arrays.copyOf(userStart, userStart.length * 2);
+                    userStart[users++] = favorites;
+                    prevUser = u;
+                } else if (item == prevItem) {
+                    continue; // 같은 즐겨찾기 중복 행
+                }
+                if (favorites == items.length) items = Arrays.copyOf(items, favorites * 2);
+                items[favorites++] = item;
+                prevItem = item;
+            }
+        }
+        userStart[users] = favorites;
+        return new Favorites(keys, index, itemCount, userStart, users, items, favorites);
+    }
+
+    /** 유저 샤드별 쌍 집계 후 트리 모양으로 합친다 (샤드 = 유저 번호 % shards, 좋아요 많은 유저가 고르게 퍼짐) */
+    private LongIntHashMap countPairs(Favorites fav, int maxLikes) {
+        int shards = pool.getParallelism() * 4;
+        int[] userStart = fav.userStart();
+        int[] items = fav.items();
+        LongIntHashMap[] partial = new LongIntHashMap[shards];
+
+        pool.submit(() -> IntStream.range(0, shards).parallel().forEach(s -> {
+            var counts = new LongIntHashMap(1 << 12);
+            for (int u = s; u < fav.users(); u += shards) {
+                int from = userStart[u], to = userStart[u + 1];
+                if (to - from < 2 || to - from > maxLikes) continue;
+                for (int i = from; i < to; i++) {
+                    for (int j = i + 1; j < to; j++) {
+                        int x = items[i], y = items[j];
+                        counts.addTo(x < y ? ((long) x << 32) | y : ((long) y << 32) | x, 1);
+                    }
+                }
+            }
+            partial[s] = counts;
+        })).join();
+
+        for (int step = 1; step < shards; step <<= 1) {
+            int st = step;
+            pool.submit(() -> IntStream.range(0, shards).parallel()
+                    .filter(s -> s % (2 * st) == 0 && s + st < shards)
+                    .forEach(s -> {
+                        partial[s].addAll(partial[s + st]);
+                        partial[s + st] = null;
+                    })).join();
+        }
+        return partial[0];
+    }
+
+    /** 아이템마다 가중치 상위 topN 이웃 (아이템별 정확한 크기로 한 배열에 이어 붙임) */
+    private Graph neighbours(Favorites fav, LongIntHashMap counts, int[] degree, int topN, int minCo,
+                             long loadNanos, long t0) {
+        int itemCount = fav.itemCount();
+
+        // 1패스: 아이템별 이웃 후보 수 -> 칸 크기 min(수, topN)
+        int[] offsets = new int[itemCount + 1];
+        counts.forEach((pair, c) -> {
+            if (c < minCo) return;
+            offsets[(int) (pair >>> 32) + 1]++;
+            offsets[(int) pair + 1]++;
+        });
+        for (int i = 0; i < itemCount; i++) offsets[i + 1] = offsets[i] + Math.min(offsets[i + 1], topN);
+
+        // 2패스: 칸마다 가중치 최소 힙으로 상위 topN 유지
+        int[] nbr = new int[offsets[itemCount]];
+        float[] weight = new float[offsets[itemCount]];
+        int[] fill = new int[itemCount];
+        counts.forEach((pair, c) -> {
+            if (c < minCo) return;
+            int x = (int) (pair >>> 32), y = (int) pair;
+            float w = (float) (c / Math.sqrt((double) degree[x] * degree[y]));
+            offer(x, y, w, offsets, fill, nbr, weight);
+            offer(y, x, w, offsets, fill, nbr, weight);
+        });
+
+        // 힙 정렬: 최소 힙에서 루트를 뒤로 보내면 가중치 내림차순
+        for (int i = 0; i < itemCount; i++) {
+            int base = offsets[i];
+            for (int n = fill[i] - 1; n > 0; n--) {
+                swap(nbr, weight, base, base + n);
+                siftDown(nbr, weight, base, n, 0);
+            }
+        }
+
+        long now = System.nanoTime();
+        var stats = new Stats(
+                true, fav.users(), fav.favorites(), itemCount, counts.size(), offsets[itemCount],
+                loadNanos / 1_000_000, (now - t0 - loadNanos) / 1_000_000, LocalDateTime.now());
+        return new Graph(Arrays.copyOf(fav.keys(), itemCount), fav.index(), offsets, nbr, weight, stats);
+    }
+
+    private static void offer(int x, int y, float w, int[] offsets, int[] fill, int[] nbr, float[] weight) {
+        int base = offsets[x];
+        int cap = offsets[x + 1] - base;
+        int n = fill[x];
+        if (n < cap) {
+            // 맨 뒤에 넣고 위로
+            int pos = n;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (weight[base + parent] <= w) break;
+                nbr[base + pos] = nbr[base + parent];
+                weight[base + pos] = weight[base + parent];
+                pos = parent;
+            }
+            nbr[base + pos] = y;
+            weight[base + pos] = w;
+            fill[x] = n + 1;
+        } else if (cap > 0 && w > weight[base]) {
+            nbr[base] = y;
+            weight[base] = w;
+            siftDown(nbr, weight, base, n, 0);
+        }
+    }
+
+    private static void siftDown(int[] nbr, float[] weight, int base, int size, int pos) {
+        int y = nbr[base + pos];
+        float w = weight[base + pos];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && weight[base + child + 1] < weight[base + child]) child++;
+            if (w <= weight[base + child]) break;
+            nbr[base + pos] = nbr[base + child];
+            weight[base + pos] = weight[base + child];
+            pos = child;
+        }
+        nbr[base + pos] = y;
+        weight[base + pos] = w;
+    }
+
+    private static void swap(int[] nbr, float[] weight, int a, int b) {
+        int t = nbr[a]; nbr[a] = nbr[b]; nbr[b] = t;
+        float f = weight[a]; weight[a] = weight[b]; weight[b] = f;
+    }
+
+    private static ItemType type(String kind) {
+        return switch (kind) {
+            case "S" -> ItemType.STORE;
+            case "E" -> ItemType.EVENT;
+            case "P" -> ItemType.POPUP;
+            default -> null;
+        };
+    }
+
+    private static long key(ItemType type, long id) {
+        return ((long) type.ordinal() << 56) | id;
+    }
+
+    private static ItemKey itemKey(long key) {
+        return new ItemKey(ItemType.values()[(int) (key >>> 56)], key & 0x00FF_FFFF_FFFF_FFFFL);
+    }
+}
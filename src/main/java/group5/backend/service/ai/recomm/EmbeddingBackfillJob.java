@@ -0,0 +1,191 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.EmbeddingBackfillCheckpoint;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.EmbeddingBackfillCheckpointRepository;
+import group5.backend.repository.EventRepository;
+import group5.backend.repository.PopupRepository;
+import group5.backend.repository.StoreRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 전체 아이템 임베딩 백필 (기존 @PostConstruct 프리로드 대체).
+ * 타입별 id keyset 페이지를 concurrency 개씩 한 웨이브로 동시에 처리하고,
+ * 웨이브가 끝날 때마다 체크포인트(마지막 id)를 저장해 재시작 시 이어서 진행한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingBackfillJob {
+
+    public enum State { IDLE, RUNNING, STOPPING, STOPPED, COMPLETED, FAILED }
+
+    public record Status(
+            State state,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            long scanned,
+            long embedded,
+            long failedPages,
+            double scannedPerSec,
+            double embeddedPerSec,
+            Map<ItemType, Long> checkpoints,
+            int hydrationQueuePending
+    ) {}
+
+    private final StoreRepository storeRepository;
+    private final EventRepository eventRepository;
+    private final PopupRepository popupRepository;
+    private final EmbeddingBackfillCheckpointRepository checkpointRepo;
+    private final EmbeddingHydrationService hydrationService;
+    private final EmbeddingWorkQueue embeddingWorkQueue;
+    private final OpenAIEmbeddingClient openai;
+    private final RecommProperties recommProps;
+
+    private volatile State state = State.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong embedded = new AtomicLong();
+    private final AtomicLong failedPages = new AtomicLong();
+    private final Map<ItemType, Long> lastIds = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (recommProps.getBackfill().isAutoStart()) start(false);
+    }
+
+    /** 백그라운드로 시작. 이미 실행 중이면 false. reset=true 면 체크포인트를 무시하고 처음부터 */
+    public synchronized boolean start(boolean reset) {
+        if (state == State.RUNNING || state == State.STOPPING) return false;
+        state = State.RUNNING;
+        startedAt = LocalDateTime.now();
+        startedNanos = System.nanoTime();
+        finishedAt = null;
+        scanned.set(0);
+        embedded.set(0);
+        failedPages.set(0);
+        lastIds.clear();
+
+        Thread t = new Thread(() -> run(reset), "emb-backfill");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    /** 현재 웨이브까지 마치고 멈춤 (체크포인트 유지) */
+    public synchronized boolean stop() {
+        if (state != State.RUNNING) return false;
+        state = State.STOPPING;
+        return true;
+    }
+
+    public Status status() {
+        long end = (state == State.RUNNING || state == State.STOPPING) ? System.nanoTime() : finishedNanos;
+        double sec = startedAt == null ? 0 : Math.max(1e-3, (end - startedNanos) / 1e9);
+        Map<ItemType, Long> checkpoints = lastIds.isEmpty() ? Map.of() : new EnumMap<>(lastIds);
+        return new Status(
+                state, startedAt, finishedAt,
+                scanned.get(), embedded.get(), failedPages.get(),
+                sec == 0 ? 0 : scanned.get() / sec,
+                sec == 0 ? 0 : embedded.get() / sec,
+                checkpoints,
+                embeddingWorkQueue.pendingCount()
+        );
+    }
+
+    private void run(boolean reset) {
+        var cfg = recommProps.getBackfill();
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(cfg.getConcurrency(), r -> {
+            Thread t = new Thread(r, "emb-backfill-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("[BACKFILL] start model={}, reset={}, pageSize={}, concurrency={}",
+                openai.modelName(), reset, cfg.getPageSize(), cfg.getConcurrency());
+        State result;
+        try {
+            for (ItemType type : ItemType.values()) {
+                if (state != State.RUNNING) break;
+                backfillType(type, reset, pool);
+            }
+            result = (state == State.STOPPING) ? State.STOPPED : State.COMPLETED;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            result = State.STOPPED;
+        } catch (Exception e) {
+            log.error("[BACKFILL] failed: {}", e.toString(), e);
+            result = State.FAILED;
+        } finally {
+            pool.shutdownNow();
+        }
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        state = result;
+        var st = status();
+        log.info("[BACKFILL] {} scanned={}, embedded={}, failedPages={}, {} items/s",
+                result, st.scanned(), st.embedded(), st.failedPages(), String.format("%.1f", st.scannedPerSec()));
+    }
+
+    private void backfillType(ItemType type, boolean reset, ExecutorService pool) throws InterruptedException {
+        var cfg = recommProps.getBackfill();
+        // 같은 모델이라도 차원이 바뀌면 처음부터 (이전 차원의 진행 위치를 이어받지 않도록)
+        String key = openai.modelName() + ":" + openai.dim() + ":" + type;
+        long afterId = reset ? 0L : checkpointRepo.findById(key).map(EmbeddingBackfillCheckpoint::getLastId).orElse(0L);
+        lastIds.put(type, afterId);
+
+        while (state == State.RUNNING) {
+            // 한 웨이브 = 페이지 concurrency 개
+            List<Callable<Integer>> wave = new ArrayList<>();
+            long cursor = afterId;
+            for (int i = 0; i < cfg.getConcurrency(); i++) {
+                List<Long> ids = idsAfter(type, cursor, cfg.getPageSize());
+                if (ids.isEmpty()) break;
+                cursor = ids.get(ids.size() - 1);
+                scanned.addAndGet(ids.size());
+                List<ItemKey> keys = ids.stream().map(id -> new ItemKey(type, id)).toList();
+                wave.add(() -> hydrationService.hydrate(keys));
+                if (ids.size() < cfg.getPageSize()) break;
+            }
+            if (wave.isEmpty()) break;
+
+            for (Future<Integer> f : pool.invokeAll(wave)) {
+                try {
+                    embedded.addAndGet(f.get());
+                } catch (ExecutionException e) {
+                    // 실패한 페이지는 건너뛰고 진행 (요청 경로 큐 또는 reset 재실행으로 보충)
+                    failedPages.incrementAndGet();
+                    log.warn("[BACKFILL] page failed type={}: {}", type, e.getCause().toString());
+                }
+            }
+
+            afterId = cursor;
+            checkpointRepo.save(EmbeddingBackfillCheckpoint.builder().jobKey(key).lastId(afterId).build());
+            lastIds.put(type, afterId);
+        }
+    }
+
+    private List<Long> idsAfter(ItemType type, long afterId, int pageSize) {
+        var page = PageRequest.of(0, pageSize);
+        return switch (type) {
+            case STORE -> storeRepository.findStoreIdsAfter(afterId, page);
+            case EVENT -> eventRepository.findEventIdsAfter(afterId, page);
+            case POPUP -> popupRepository.findPopupIdsAfter(afterId, page);
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.repository.ItemEmbeddingRepository;
+import group5.backend.repository.UserProfileEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * vec_json(LONGTEXT) -> vec_blob(LONGBLOB) 일회성 변환, 이어서 정규화 안 된 아이템 벡터 정규화.
+ * 배치마다 별도 트랜잭션으로 커밋하며, 변환 중에도 VectorCodec.read 로 두 포맷 모두 읽힌다.
+ * (인메모리 인덱스는 적재 시 스스로 정규화하므로 마이그레이션 완료 전에도 결과는 같다)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingBinaryMigration {
+
+    private final ItemEmbeddingRepository itemEmbRepo;
+    private final UserProfileEmbeddingRepository profileRepo;
+    private final RecommProperties recommProps;
+    private final PlatformTransactionManager txManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        var cfg = recommProps.getMigration();
+        if (!cfg.isBinaryVectors() && !cfg.isNormalizeVectors()) return;
+        Thread t = new Thread(this::migrateAll, "emb-binary-migration");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public void migrateAll() {
+        long t0 = System.nanoTime();
+        var cfg = recommProps.getMigration();
+        try {
+            if (cfg.isBinaryVectors()) {
+                int items = migrateItems();
+                int profiles = migrateProfiles();
+                long ms = (System.nanoTime() - t0) / 1_000_000;
+                if (items + profiles > 0) {
+                    log.info("[EMB-MIG] converted item/profile = {}/{} rows to binary, took={}ms", items, profiles, ms);
+                }
+            }
+            if (cfg.isNormalizeVectors()) {
+                long t1 = System.nanoTime();
+                int normalized = normalizeItems();
+                if (normalized > 0) {
+                    log.info("[EMB-MIG] normalized {} item vectors, took={}ms", normalized, (System.nanoTime() - t1) / 1_000_000);
+                }
+            }
+        } catch (Exception e) {
+            log.error("[EMB-MIG] binary migration stopped: {}", e.toString(), e);
+        }
+    }
+
+    private int migrateItems() {
+        var tx = new TransactionTemplate(txManager);
+        int batch = recommProps.getMigration().getBatchSize();
+        long afterId = 0L;
+        int converted = 0;
+        while (true) {
+            final long from = afterId;
+            int[] done = {0};
+            Long last = tx.execute(status -> {
+                var rows = itemEmbRepo.findJsonOnlyPage(from, PageRequest.of(0, batch));
+                if (rows.isEmpty()) return null;
+                for (var r : rows) {
+                    try {
+                        r.convertToBinary(VectorCodec.encode(VectorCodec.fromJson(r.getVecJson()), r.getModel()));
+                        done[0]++;
+                    } catch (Exception e) {
+                        log.warn("[EMB-MIG] skip item_embeddings id={}: {}", r.getId(), e.toString());
+                    }
+                }
+                return rows.get(rows.size() - 1).getId(); // 커밋 시 dirty checking 으로 반영
+            });
+            if (last == null) return converted;
+            converted += done[0];
+            afterId = last;
+        }
+    }
+
+    private int migrateProfiles() {
+        var tx = new TransactionTemplate(txManager);
+        int batch = recommProps.getMigration().getBatchSize();
+        long afterUserId = 0L;
+        int converted = 0;
+        while (true) {
+            final long from = afterUserId;
+            int[] done = {0};
+            Long last = tx.execute(status -> {
+                var rows = profileRepo.findJsonOnlyPage(from, PageRequest.of(0, batch));
+                if (rows.isEmpty()) return null;
+                for (var r : rows) {
+                    try {
+                        r.convertToBinary(VectorCodec.encode(VectorCodec.fromJson(r.getVecJson()), r.getModel()));
+                        done[0]++;
+                    } catch (Exception e) {
+                        log.warn("[EMB-MIG] skip user_profile_embeddings userId={}: {}", r.getUserId(), e.toString());
+                    }
+                }
+                return rows.get(rows.size() - 1).getUserId();
+            });
+            if (last == null) return converted;
+            converted += done[0];
+            afterUserId = last;
+        }
+    }
+
+    private int normalizeItems() {
+        var tx = new TransactionTemplate(txManager);
+        int batch = recommProps.getMigration().getBatchSize();
+        long afterId = 0L;
+        int converted = 0;
+        while (true) {
+            final long from = afterId;
+            int[] done = {0};
+            Long last = tx.execute(status -> {
+                var rows = itemEmbRepo.findUnnormalizedPage(from, PageRequest.of(0, batch));
+                if (rows.isEmpty()) return null;
+                for (var r : rows) {
+                    try {
+                        float[] v = VectorMath.l2normalize(VectorCodec.read(r.getVecBlob(), r.getVecJson()));
+                        r.replaceNormalized(VectorCodec.encode(v, r.getModel()));
+                        done[0]++;
+                    } catch (Exception e) {
+                        log.warn("[EMB-MIG] skip normalize item_embeddings id={}: {}", r.getId(), e.toString());
+                    }
+                }
+                return rows.get(rows.size() - 1).getId();
+            });
+            if (last == null) return converted;
+            converted += done[0];
+            afterId = last;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.EmbeddingBackfillCheckpoint;
+import group5.backend.domain.recomm.ItemEmbedding;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.EmbeddingBackfillCheckpointRepository;
+import group5.backend.repository.ItemEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 임베딩 차원 전환 (예: 1536 -> 512).
+ * 현재 서빙 차원 행을 keyset 으로 훑으며 대상 차원 행을 추가로 만든다. 서빙은 cut-over 전까지 기존 차원 그대로.
+ * - 대상 < 현재: 저장된 벡터를 Matryoshka 절단 + 재정규화 (API 호출 없음)
+ * - 대상 > 현재: dimensions 파라미터로 다시 임베딩
+ * cut-over 는 인메모리 인덱스를 대상 차원으로 다시 적재한 뒤 서빙 차원을 바꾼다. 이전 차원 행은 purge 전까지 남아 있다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingDimMigrationJob {
+
+    public enum State { IDLE, RUNNING, STOPPING, STOPPED, COMPLETED, FAILED, CUT_OVER }
+
+    public record Status(
+            State state,
+            int activeDim,
+            int targetDim,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            long scanned,
+            long written,
+            long lastId
+    ) {}
+
+    private final ItemEmbeddingRepository itemEmbRepo;
+    private final EmbeddingBackfillCheckpointRepository checkpointRepo;
+    private final EmbeddingHydrationService hydrationService;
+    private final EmbeddingIndex embeddingIndex;
+    private final OpenAIEmbeddingClient openai;
+    private final RecommProperties recommProps;
+    private final CategorySeedEmbeddings categorySeeds;
+
+    private volatile State state = State.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long lastId;
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    /** 대상 차원 행 생성 시작. 대상이 없거나 현재와 같으면 false */
+    public synchronized boolean start(boolean reset) {
+        int target = recommProps.getDims().getTargetDim();
+        if (target <= 0 || target == openai.dim()) return false;
+        if (state == State.RUNNING || state == State.STOPPING) return false;
+        if (target > openai.dim() && !openai.supportsDimensions()) return false;
+
+        state = State.RUNNING;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        scanned.set(0);
+        written.set(0);
+
+        int source = openai.dim();
+        Thread t = new Thread(() -> run(source, target, reset), "emb-dim-migration");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    public synchronized boolean stop() {
+        if (state != State.RUNNING) return false;
+        state = State.STOPPING;
+        return true;
+    }
+
+    /**
+     * 서빙 차원 전환. 마이그레이션이 COMPLETED 일 때만 (force 면 진행 상태와 무관하게).
+     * 빠진 아이템은 랭킹 시 작업 큐로 다시 채워진다. 재기동 후에도 유지하려면 openai.embedding-dim 을 바꿔야 한다.
+     */
+    public synchronized boolean cutover(boolean force) {
+        int target = recommProps.getDims().getTargetDim();
+        if (target <= 0 || target == openai.dim()) return false;
+        if (!force && state != State.COMPLETED) return false;
+        if (state == State.RUNNING || state == State.STOPPING) return false;
+
+        long t0 = System.nanoTime();
+        int from = openai.dim();
+        embeddingIndex.reload(target);
+        openai.switchDim(target);
+        state = State.CUT_OVER;
+        log.info("[EMB-DIM] cut-over {} -> {} took={}ms", from, target, (System.nanoTime() - t0) / 1_000_000);
+        try {
+            categorySeeds.refresh();
+        } catch (Exception e) {
+            log.warn("[EMB-DIM] category seed refresh failed, cold-start profiles fall back to live embedding: {}", e.toString());
+        }
+        return true;
+    }
+
+    /** 서빙 중이 아닌 차원의 행 삭제 */
+    public int purge(int dim) {
+        if (dim == openai.dim()) return 0;
+        int n = itemEmbRepo.deleteByModelAndDim(openai.modelName(), dim);
+        log.info("[EMB-DIM] purged dim={} rows={}", dim, n);
+        return n;
+    }
+
+    public Status status() {
+        return new Status(state, openai.dim(), recommProps.getDims().getTargetDim(),
+                startedAt, finishedAt, scanned.get(), written.get(), lastId);
+    }
+
+    private void run(int source, int target, boolean reset) {
+        String model = openai.modelName();
+        String key = "dim:" + model + ":" + source + "->" + target;
+        int pageSize = recommProps.getDims().getPageSize();
+        long afterId = reset ? 0L : checkpointRepo.findById(key).map(EmbeddingBackfillCheckpoint::getLastId).orElse(0L);
+        log.info("[EMB-DIM] start {} -> {} model={}, from id={}", source, target, model, afterId);
+
+        State result;
+        try {
+            while (state == State.RUNNING) {
+                var page = itemEmbRepo.findVectorPage(model, source, afterId, PageRequest.of(0, pageSize));
+                if (page.isEmpty()) break;
+
+                // r = [id, itemType, itemId, dim, vecBlob, vecJson, normalized]
+                Map<ItemType, List<Long>> idsByType = new EnumMap<>(ItemType.class);
+                for (Object[] r : page) idsByType.computeIfAbsent((ItemType) r[1], t -> new ArrayList<>()).add((Long) r[2]);
+                Set<ItemKey> done = new HashSet<>();
+                for (var e : idsByType.entrySet()) {
+                    for (Long id : itemEmbRepo.findItemIdsWithDim(model, target, e.getKey(), e.getValue())) {
+                        done.add(new ItemKey(e.getKey(), id));
+                    }
+                }
+
+                List<ItemEmbedding> rows = new ArrayList<>();
+                List<ItemKey> toEmbed = new ArrayList<>();
+                for (Object[] r : page) {
+                    ItemKey k = new ItemKey((ItemType) r[1], (Long) r[2]);
+                    if (done.contains(k)) continue;
+                    if (target < source) {
+                        float[] v = decode((byte[]) r[4], (String) r[5]);
+                        if (v == null || v.length != source) continue;
+                        rows.add(row(k, VectorMath.truncate(v, target), model));
+                    } else {
+                        toEmbed.add(k);
+                    }
+                }
+                written.addAndGet(saveRows(rows));
+                written.addAndGet(hydrationService.embedForDim(toEmbed, target));
+
+                scanned.addAndGet(page.size());
+                afterId = (Long) page.get(page.size() - 1)[0];
+                lastId = afterId;
+                checkpointRepo.save(EmbeddingBackfillCheckpoint.builder().jobKey(key).lastId(afterId).build());
+                if (page.size() < pageSize) break;
+            }
+            result = (state == State.STOPPING) ? State.STOPPED : State.COMPLETED;
+        } catch (Exception e) {
+            log.error("[EMB-DIM] failed: {}", e.toString(), e);
+            result = State.FAILED;
+        }
+        finishedAt = LocalDateTime.now();
+        state = result;
+        log.info("[EMB-DIM] {} scanned={}, written={}", result, scanned.get(), written.get());
+    }
+
+    private ItemEmbedding row(ItemKey k, float[] v, String model) {
+        return ItemEmbedding.builder()
+                .itemType(k.type())
+                .itemId(k.id())
+                .model(model)
+                .dim(v.length)
+                .vecBlob(VectorCodec.encode(v, model))
+                .normalized(true)
+                .build();
+    }
+
+    /** 한 번에 저장하고, 동시 dual-write 와 겹쳐 실패하면 한 건씩 */
+    private int saveRows(List<ItemEmbedding> rows) {
+        if (rows.isEmpty()) return 0;
+        try {
+            itemEmbRepo.saveAll(rows);
+            return rows.size();
+        } catch (Exception e) {
+            int ok = 0;
+            for (var r : rows) {
+                try { itemEmbRepo.save(r); ok++; }
+                catch (Exception ignore) { /* 이미 존재 */ }
+            }
+            return ok;
+        }
+    }
+
+    private float[] decode(byte[] blob, String json) {
+        try { return VectorCodec.read(blob, json); }
+        catch (Exception e) {
+            log.warn("[EMB-DIM] skip unreadable vector: {}", e.toString());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.event.Event;
+import group5.backend.domain.popup.Popup;
+import group5.backend.domain.recomm.ItemEmbedding;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.domain.store.Store;
+import group5.backend.exception.openai.EmbeddingBatchFailedException;
+import group5.backend.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+
+/** 임베딩 없는 아이템의 텍스트를 만들어 배치 임베딩 후 저장 (DB + 인메모리 인덱스) */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmbeddingHydrationService {
+
+    private final ItemEmbeddingRepository itemEmbRepo;
+    private final StoreRepository storeRepository;
+    private final EventRepository eventRepository;
+    private final PopupRepository popupRepository;
+
+    private final OpenAIEmbeddingClient openai;
+    private final RecommProperties recommProps;
+    private final EmbeddingIndex embeddingIndex;
+    private final RecommMetrics metrics;
+    private final UserProfileService profileService;
+
+    // 작업 큐 워커(신규/수정) / 백필이 같은 아이템을 동시에 임베딩하지 않도록
+    private final SingleFlight<ItemKey, Boolean> hydrateFlights = new SingleFlight<>("hydrate");
+
+    /**
+     * 주어진 아이템 중 인덱스에 없는 것만 임베딩. 이 호출에서 저장한 개수 반환.
+     * 다른 호출이 이미 임베딩 중인 아이템은 다시 요청하지 않고 그 결과를 기다린다.
+     */
+    public int hydrate(Collection<ItemKey> keys) {
+        if (keys == null || keys.isEmpty()) return 0;
+
+        List<ItemKey> missingKeys = new ArrayList<>();
+        for (var k : keys) {
+            if (!embeddingIndex.contains(k.type(), k.id())) missingKeys.add(k);
+        }
+        if (missingKeys.isEmpty()) return 0;
+
+        int[] saved = {0};
+        hydrateFlights.runAll(missingKeys, owned -> {
+            var result = metrics.time(RecommMetrics.Stage.HYDRATE, () -> embedAndSave(owned));
+            for (Boolean ok : result.values()) if (ok) saved[0]++;
+            return result;
+        });
+        return saved[0];
+    }
+
+    private Map<ItemKey, Boolean> embedAndSave(List<ItemKey> keys) {
+        Map<ItemType, List<Long>> missing = new EnumMap<>(ItemType.class);
+        for (var k : keys) missing.computeIfAbsent(k.type(), t -> new ArrayList<>()).add(k.id());
+
+        log.debug("[HYD] missing embeddings store/event/popup = {}/{}/{}",
+                missing.getOrDefault(ItemType.STORE, List.of()).size(),
+                missing.getOrDefault(ItemType.EVENT, List.of()).size(),
+                missing.getOrDefault(ItemType.POPUP, List.of()).size());
+
+        // 타입별 텍스트를 모아 한 번의 배치 임베딩으로 처리
+        List<ItemKey> found = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        collectTexts(missing, found, texts);
+
+        Map<ItemKey, Boolean> result = new HashMap<>();
+        int dim = openai.dim();
+        var vecs = safeEmbedBatch(texts, dim);
+        for (int i = 0; i < vecs.size(); i++) {
+            if (vecs.get(i) == null) continue;
+            float[] v = VectorMath.l2normalize(vecs.get(i));
+            ItemKey k = found.get(i);
+            String hash = contentHash(texts.get(i));
+            if (saveEmbedding(k.type(), k.id(), v, hash)) {
+                // 전환 대상 차원 행을 먼저 저장: 차원 전환 reload 중이면 put 한 아이템을 그 행으로 다시 읽는다
+                saveTargetDim(k, v, hash);
+                embeddingIndex.put(k.type(), k.id(), v);
+                result.put(k, true);
+            }
+        }
+        return result;
+    }
+
+    /** 차원 전환용: 주어진 차원으로 API 임베딩 후 저장만 한다 (인덱스 반영은 cut-over 때) */
+    public int embedForDim(Collection<ItemKey> keys, int dim) {
+        if (keys == null || keys.isEmpty()) return 0;
+        Map<ItemType, List<Long>> byType = new EnumMap<>(ItemType.class);
+        for (var k : keys) byType.computeIfAbsent(k.type(), t -> new ArrayList<>()).add(k.id());
+
+        List<ItemKey> found = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        collectTexts(byType, found, texts);
+
+        int saved = 0;
+        var vecs = safeEmbedBatch(texts, dim);
+        for (int i = 0; i < vecs.size(); i++) {
+            float[] v = vecs.get(i) == null ? null : VectorMath.l2normalize(vecs.get(i));
+            if (v != null && v.length == dim
+                    && saveEmbedding(found.get(i).type(), found.get(i).id(), v, contentHash(texts.get(i)))) saved++;
+        }
+        return saved;
+    }
+
+    /**
+     * 수정된 아이템: 현재 텍스트의 해시가 저장된 값과 다를 때만 다시 임베딩해 기존 행을 교체한다.
+     * 텍스트가 그대로면 OpenAI 호출 없이 끝난다. hydrate 와 같은 single-flight 키로 돌아 같은 아이템을 동시에 쓰지 않는다.
+     * 벡터가 바뀐 아이템을 좋아요한 유저의 프로필은 이전 벡터로 만든 것이므로 무효화한다. 다시 임베딩한 개수 반환.
+     */
+    public int refresh(Collection<ItemKey> keys) {
+        if (keys == null || keys.isEmpty()) return 0;
+        Set<ItemKey> owned = new HashSet<>();
+        List<ItemKey> changed = new ArrayList<>();
+        Function<List<ItemKey>, Map<ItemKey, Boolean>> work = mine -> {
+            owned.addAll(mine);
+            var result = refreshOwned(mine);
+            changed.addAll(result.keySet());
+            return result;
+        };
+        hydrateFlights.runAll(keys, work);
+
+        // 이미 진행 중이던 hydrate/refresh 에 합류한 키는 그 작업이 수정 전 텍스트를 읽었을 수 있으므로,
+        // 끝난 뒤 한 번 더 비교한다 (이번에 시작하는 작업은 모두 커밋 이후라 최신 텍스트를 본다)
+        List<ItemKey> joined = new ArrayList<>();
+        for (var k : new LinkedHashSet<>(keys)) if (!owned.contains(k)) joined.add(k);
+        if (!joined.isEmpty()) hydrateFlights.runAll(joined, work);
+
+        if (!changed.isEmpty()) profileService.onItemVectorsChanged(changed);
+        return changed.size();
+    }
+
+    private Map<ItemKey, Boolean> refreshOwned(List<ItemKey> keys) {
+        Map<ItemType, List<Long>> byType = new EnumMap<>(ItemType.class);
+        for (var k : keys) byType.computeIfAbsent(k.type(), t -> new ArrayList<>()).add(k.id());
+
+        List<ItemKey> found = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        collectTexts(byType, found, texts);
+
+        // 아이템별 기존 행 (모든 차원)
+        String model = openai.modelName();
+        int dim = openai.dim();
+        Map<ItemKey, List<ItemEmbedding>> rows = new HashMap<>();
+        for (var e : byType.entrySet()) {
+            for (var row : itemEmbRepo.findByItemTypeAndItemIdInAndModel(e.getKey(), e.getValue(), model)) {
+                rows.computeIfAbsent(new ItemKey(row.getItemType(), row.getItemId()), k -> new ArrayList<>()).add(row);
+            }
+        }
+
+        List<ItemKey> changed = new ArrayList<>();
+        List<String> changedTexts = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < found.size(); i++) {
+            String hash = contentHash(texts.get(i));
+            boolean same = rows.getOrDefault(found.get(i), List.of()).stream()
+                    .anyMatch(r -> r.getDim() == dim && hash.equals(r.getContentHash()));
+            if (same) continue;
+            changed.add(found.get(i));
+            changedTexts.add(texts.get(i));
+            hashes.add(hash);
+        }
+        if (changed.isEmpty()) {
+            log.debug("[HYD] refresh {} items: text unchanged", found.size());
+            return Map.of();
+        }
+
+        Map<ItemKey, Boolean> result = new HashMap<>();
+        var vecs = safeEmbedBatch(changedTexts, dim);
+        for (int i = 0; i < vecs.size(); i++) {
+            if (vecs.get(i) == null) continue;
+            float[] v = VectorMath.l2normalize(vecs.get(i));
+            ItemKey k = changed.get(i);
+            if (replaceEmbedding(k, v, hashes.get(i), rows.getOrDefault(k, List.of()))) {
+                embeddingIndex.put(k.type(), k.id(), v);
+                result.put(k, true);
+            }
+        }
+        log.debug("[HYD] refresh {} items: changed={}, re-embedded={}", found.size(), changed.size(), result.size());
+        return result;
+    }
+
+    /** 삭제된 아이템의 벡터 정리 (DB + 인메모리/ANN 인덱스) */
+    public void remove(ItemKey key) {
+        try {
+            itemEmbRepo.deleteByItem(key.type(), key.id());
+        } catch (Exception e) {
+            log.warn("[HYD] delete embedding failed {}: {}", key, e.toString());
+        }
+        embeddingIndex.remove(key.type(), key.id());
+    }
+
+    private void collectTexts(Map<ItemType, List<Long>> idsByType, List<ItemKey> keys, List<String> texts) {
+        if (idsByType.containsKey(ItemType.STORE)) {
+            for (Store s : storeRepository.findAllById(idsByType.get(ItemType.STORE))) {
+                keys.add(new ItemKey(ItemType.STORE, s.getId())); texts.add(embedText(s));
+            }
+        }
+        if (idsByType.containsKey(ItemType.EVENT)) {
+            for (Event e : eventRepository.findAllById(idsByType.get(ItemType.EVENT))) {
+                keys.add(new ItemKey(ItemType.EVENT, e.getId())); texts.add(embedText(e));
+            }
+        }
+        if (idsByType.containsKey(ItemType.POPUP)) {
+            for (Popup p : popupRepository.findAllById(idsByType.get(ItemType.POPUP))) {
+                keys.add(new ItemKey(ItemType.POPUP, p.getId())); texts.add(embedText(p));
+            }
+        }
+    }
+
+    /**
+     * 차원 전환 중이면 대상 차원 행도 같이 저장 (dual-write).
+     * 대상 차원이 더 작으면 Matryoshka 절단으로 만들고, 더 크면 마이그레이션 잡이 API 로 채운다.
+     */
+    private void saveTargetDim(ItemKey k, float[] vec, String hash) {
+        int target = recommProps.getDims().getTargetDim();
+        if (target <= 0 || target >= vec.length) return;
+        saveEmbedding(k.type(), k.id(), VectorMath.truncate(vec, target), hash);
+    }
+
+    /**
+     * 서빙 차원 행(+ 더 작은 전환 대상 차원 행)을 새 벡터로 교체. 행이 없으면 새로 저장.
+     * 그 밖의 차원 행은 이전 텍스트 기준이므로 지우고, 차원 전환 잡이 다시 만들게 둔다.
+     */
+    private boolean replaceEmbedding(ItemKey k, float[] vec, String hash, List<ItemEmbedding> existing) {
+        int target = recommProps.getDims().getTargetDim();
+        float[] small = (target > 0 && target < vec.length) ? VectorMath.truncate(vec, target) : null;
+        for (var row : existing) {
+            if (row.getDim() == vec.length || (small != null && row.getDim() == small.length)) continue;
+            try { itemEmbRepo.delete(row); }
+            catch (Exception e) { log.warn("[HYD] drop stale dim={} row failed {}: {}", row.getDim(), k, e.toString()); }
+        }
+        boolean ok = upsertEmbedding(k, vec, hash, existing);
+        if (small != null) upsertEmbedding(k, small, hash, existing);
+        return ok;
+    }
+
+    private boolean upsertEmbedding(ItemKey k, float[] vec, String hash, List<ItemEmbedding> existing) {
+        var row = existing.stream().filter(r -> r.getDim() == vec.length).findFirst().orElse(null);
+        if (row == null) return saveEmbedding(k.type(), k.id(), vec, hash);
+        try {
+            row.replaceVector(VectorCodec.encode(vec, openai.modelName()), hash);
+            itemEmbRepo.save(row);
+            return true;
+        } catch (Exception e) {
+            log.warn("[HYD] replace embedding failed {} dim={}: {}", k, vec.length, e.toString());
+            return false;
+        }
+    }
+
+    /** 임베딩 입력 텍스트의 SHA-256 (hex) */
+    static String contentHash(String text) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(d);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String embedText(Store s) {
+        return String.join(" ",
+                "Store", nz(s.getName()), nz(s.getIntro()),
+                "Category", String.valueOf(s.getCategory()),
+                "Address", nz(s.getAddress())
+        );
+    }
+
+    private String embedText(Event e) {
+        var df = DateTimeFormatter.ISO_LOCAL_DATE;
+        return String.join(" ",
+                "Event", nz(e.getName()), nz(e.getDescription()),
+                "Start", e.getStartDate()!=null?e.getStartDate().format(df):"",
+                "End",   e.getEndDate()!=null?e.getEndDate().format(df):""
+        );
+    }
+
+    private String embedText(Popup p) {
+        var df = DateTimeFormatter.ISO_LOCAL_DATE;
+        return String.join(" ",
+                "Popup", nz(p.getName()), nz(p.getDescription()),
+                "Category", String.valueOf(p.getCategory()),
+                "Address", nz(p.getAddress()),
+                "Start", p.getStartDate()!=null?p.getStartDate().format(df):"",
+                "End",   p.getEndDate()!=null?p.getEndDate().format(df):""
+        );
+    }
+
+    private String nz(String s) { return s == null ? "" : s; }
+
+    /** 실패한 청크가 있으면 그 앞까지 받은 벡터만 쓴다 (나머지는 null 로 남아 다음 요청/백필에서 다시 시도) */
+    private List<float[]> safeEmbedBatch(List<String> texts, int dim) {
+        try { return openai.embedBatch(texts, dim); }
+        catch (EmbeddingBatchFailedException ex) {
+            log.warn("[HYD] embed batch partially failed: embedded {}/{} ({})",
+                    ex.getEmbedded(), texts.size(), ex.getCause() == null ? ex.toString() : ex.getCause().toString());
+            return ex.getPartial();
+        }
+        catch (Exception ex) {
+            log.warn("[HYD] embed batch failed: {}", ex.toString());
+            return List.of();
+        }
+    }
+
+    /** vec 는 정규화된 상태로 전달된다 */
+    private boolean saveEmbedding(ItemType type, Long id, float[] vec, String hash) {
+        try {
+            ItemEmbedding row = ItemEmbedding.builder()
+                    .itemType(type)
+                    .itemId(id)
+                    .model(openai.modelName())
+                    .dim(vec.length)
+                    .vecBlob(VectorCodec.encode(vec, openai.modelName()))
+                    .normalized(true)
+                    .contentHash(hash)
+                    .build();
+            itemEmbRepo.save(row);
+            return true;
+        } catch (Exception e) {
+            log.warn("[HYD] saveEmbedding failed type={}, id={}", type, id, e);
+            return false;
+        }
+    }
+}
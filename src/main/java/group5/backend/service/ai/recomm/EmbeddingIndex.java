@@ -0,0 +1,464 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.ItemEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 아이템 임베딩 인메모리 인덱스.
+ * ItemType별로 벡터를 하나의 연속된 float[] (또는 int8 양자화 시 byte[]) 에 행 단위로 적재하고 (id -> 행 offset),
+ * 랭킹/프로필 빌드는 DB 대신 여기서 읽는다.
+ * 변경(적재/갱신/삭제)은 EmbeddingIndexListener 들에게 그대로 전달한다. (ANN 인덱스 동기화)
+ * recomm.snapshot.enabled 면 기동 시 바이너리 스냅샷(EmbeddingSnapshot)으로 먼저 채우고 DB 는 변경분만 읽는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingIndex {
+
+    private static final int LOAD_PAGE = 500;
+    private static final long SNAPSHOT_CLOCK_SKEW_MINUTES = 5;
+
+    private final ItemEmbeddingRepository itemEmbRepo;
+    private final OpenAIEmbeddingClient openai;
+    private final RecommProperties recommProps;
+    private final ObjectProvider<EmbeddingIndexListener> listeners;
+    private final RecommMetrics metrics;
+    private final EmbeddingSnapshot snapshot;
+
+    private volatile Map<ItemType, Slab> slabs = Map.of();
+    private volatile boolean loaded = false;
+
+    // reload 중 put/remove 된 아이템 (null = reload 중 아님). 교체 직전에 새 차원 행을 다시 읽어 반영한다
+    private final Object touchedLock = new Object();
+    private Set<ItemKey> touched;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        ensureLoaded();
+    }
+
+    /** 해당 아이템 벡터 보유 여부 */
+    public boolean contains(ItemType type, Long id) {
+        ensureLoaded();
+        return slab(type).contains(id);
+    }
+
+    /** 벡터 사본 (없으면 null) */
+    public float[] get(ItemType type, Long id) {
+        ensureLoaded();
+        return slab(type).copy(id);
+    }
+
+    /**
+     * 정규화된 질의 벡터와의 내적 (= 코사인, 저장 벡터는 모두 단위 벡터). 벡터 없으면 NaN.
+     * 랭킹처럼 같은 질의로 많이 부를 때 쓰는 빠른 경로.
+     */
+    public double dot(ItemType type, Long id, float[] unitQuery) {
+        ensureLoaded();
+        return slab(type).dot(id, unitQuery);
+    }
+
+    /**
+     * 앞 prefixDim 차원만으로 계산한 코사인 (Matryoshka 절단 후 재정규화와 같은 값). 벡터 없으면 NaN.
+     * 2단계 랭킹의 1차 거르기용. queryPrefixNorm 은 질의 앞 prefixDim 차원의 norm.
+     */
+    public double prefixCosine(ItemType type, Long id, float[] query, float queryPrefixNorm, int prefixDim) {
+        ensureLoaded();
+        return slab(type).prefixCosine(id, query, queryPrefixNorm, prefixDim);
+    }
+
+    /**
+     * 오프라인 배치 점수화용 내적 타일: 아이템 ids[j0, j1) 와 단위 유저 벡터 users 의 [u0, u1) 행.
+     * out[(u - u0) * (j1 - j0) + j] 에 코사인을 쓰고, 인덱스에 없는 아이템 칸은 NaN.
+     * 벡터를 복사하지 않고 slab 을 직접 읽으며, 읽기 잠금은 타일 하나 동안만 잡는다.
+     */
+    public void dotTile(ItemType type, long[] ids, int j0, int j1, float[] users, int u0, int u1, int depthBlock, float[] out) {
+        ensureLoaded();
+        slab(type).dotTile(ids, j0, j1, users, u0, u1, depthBlock, out);
+    }
+
+    /**
+     * 신규/갱신 벡터 반영 (saveEmbedding 직후 호출). 서빙 차원보다 길면 Matryoshka 절단으로 맞추고
+     * (cut-over 직후 이전 차원으로 만든 벡터), 짧으면 무시.
+     */
+    public void put(ItemType type, Long id, float[] vec) {
+        ensureLoaded();
+        // slab 을 읽기 전에 기록해야 교체 직전/직후 어느 쪽이든 빠지지 않는다
+        noteTouched(type, id);
+        Slab s = slab(type);
+        if (vec == null || vec.length < s.dim) return;
+        float[] v = vec.length == s.dim ? vec : VectorMath.truncate(vec, s.dim);
+        s.upsert(id, v);
+        listeners.orderedStream().forEach(l -> l.onUpsert(type, id, v));
+    }
+
+    /** 아이템 삭제 반영 (DB 삭제 후 호출) */
+    public void remove(ItemType type, Long id) {
+        ensureLoaded();
+        noteTouched(type, id);
+        if (slab(type).remove(id)) {
+            listeners.orderedStream().forEach(l -> l.onRemove(type, id));
+        }
+    }
+
+    public int size(ItemType type) {
+        ensureLoaded();
+        return slab(type).rows();
+    }
+
+    public long vectorBytes(ItemType type) {
+        ensureLoaded();
+        return slab(type).vectorBytes();
+    }
+
+    public int dim() {
+        ensureLoaded();
+        return slab(ItemType.STORE).dim;
+    }
+
+    /**
+     * 주어진 차원으로 새로 적재한 뒤 통째로 교체 (차원 전환 cut-over).
+     * 적재하는 동안에는 기존 차원 인덱스로 계속 서빙하고, 그 사이 put/remove 된 아이템은
+     * 교체 직전에 새 차원 행을 DB 에서 다시 읽어 반영한다.
+     */
+    public synchronized void reload(int dim) {
+        synchronized (touchedLock) { touched = new HashSet<>(); }
+        try {
+            metrics.time(RecommMetrics.Stage.VECTOR_LOAD, () -> load(dim));
+        } finally {
+            synchronized (touchedLock) { touched = null; }
+        }
+        loaded = true;
+    }
+
+    public boolean quantized() {
+        return recommProps.getIndex().getQuantization() == RecommProperties.Quantization.INT8;
+    }
+
+    /* ===== 로딩 ===== */
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (loaded) return;
+            metrics.time(RecommMetrics.Stage.VECTOR_LOAD, () -> load(openai.dim()));
+            loaded = true;
+        }
+    }
+
+    // 새 slab 들을 채워 slabs 를 교체한다
+    private void load(int dim) {
+        long t0 = System.nanoTime();
+        String model = openai.modelName();
+        boolean int8 = quantized();
+        Map<ItemType, Slab> next = new EnumMap<>(ItemType.class);
+        for (ItemType t : ItemType.values()) next.put(t, new Slab(dim, int8));
+        listeners.orderedStream().forEach(l -> l.onReset(dim));
+
+        EmbeddingSnapshot.Sink sink = (type, itemId, v) -> {
+            next.get(type).upsert(itemId, v);
+            listeners.orderedStream().forEach(l -> l.onUpsert(type, itemId, v));
+        };
+
+        // 스냅샷이 있으면 파일에서 먼저 채우고 DB 는 그 이후 변경분만
+        var snap = snapshot.isEnabled() ? snapshot.load(model, dim, sink) : null;
+        // 노드 간 시계 차이를 감안해 스냅샷 시각보다 조금 앞부터 (같은 행을 다시 반영해도 결과는 같다)
+        LocalDateTime since = snap == null ? null : snap.createdAt().minusMinutes(SNAPSHOT_CLOCK_SKEW_MINUTES);
+
+        long afterId = 0L;
+        int total = snap == null ? 0 : snap.count();
+        int fromDb = 0;
+        while (true) {
+            var page = snap == null
+                    ? itemEmbRepo.findVectorPage(model, dim, afterId, PageRequest.of(0, LOAD_PAGE))
+                    : itemEmbRepo.findVectorDeltaPage(model, dim, snap.maxRowId(), since, afterId, PageRequest.of(0, LOAD_PAGE));
+            if (page.isEmpty()) break;
+            for (Object[] r : page) {
+                // r = [id, itemType, itemId, dim, vecBlob, vecJson, normalized]
+                afterId = (Long) r[0];
+                float[] v = decode((byte[]) r[4], (String) r[5]);
+                if (v == null || v.length != dim) continue;
+                sink.accept((ItemType) r[1], (Long) r[2], v);
+                fromDb++;
+            }
+            if (page.size() < LOAD_PAGE) break;
+        }
+        total += fromDb;
+
+        // 적재하는 동안 바뀐 아이템 (reload 때만): 대부분은 잠금 없이, 남은 몇 건은 put/remove 를 잠깐 막고 반영한 뒤 교체
+        int replayed = replayTouched(drainTouched(), next, model, dim, sink);
+        synchronized (touchedLock) {
+            replayed += replayTouched(drainTouched(), next, model, dim, sink);
+            slabs = next;
+            touched = null;
+        }
+
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        log.info("[EMB-IDX] loaded {} vectors (snapshot={}, db={}, replayed={}, model={}, dim={}, int8={}, simd={}) store/event/popup = {}/{}/{}, took={}ms",
+                total, snap == null ? 0 : snap.count(), fromDb, replayed, model, dim, int8, SimdDot.vectorApiEnabled(),
+                next.get(ItemType.STORE).rows(), next.get(ItemType.EVENT).rows(), next.get(ItemType.POPUP).rows(), ms);
+        listeners.orderedStream().forEach(EmbeddingIndexListener::onLoaded);
+    }
+
+    private void noteTouched(ItemType type, Long id) {
+        synchronized (touchedLock) {
+            if (touched != null) touched.add(new ItemKey(type, id));
+        }
+    }
+
+    private Set<ItemKey> drainTouched() {
+        synchronized (touchedLock) {
+            if (touched == null || touched.isEmpty()) return Set.of();
+            Set<ItemKey> out = touched;
+            touched = new HashSet<>();
+            return out;
+        }
+    }
+
+    /** keys 의 dim 차원 행을 다시 읽어 next 에 반영 (행이 없으면 next 에서도 뺀다). 반영한 아이템 수 */
+    private int replayTouched(Set<ItemKey> keys, Map<ItemType, Slab> next, String model, int dim, EmbeddingSnapshot.Sink sink) {
+        if (keys.isEmpty()) return 0;
+        Map<ItemType, List<Long>> byType = new EnumMap<>(ItemType.class);
+        for (var k : keys) byType.computeIfAbsent(k.type(), t -> new ArrayList<>()).add(k.id());
+
+        byType.forEach((type, ids) -> {
+            Set<Long> found = new HashSet<>();
+            for (var row : itemEmbRepo.findByItemTypeAndItemIdInAndModel(type, ids, model)) {
+                if (row.getDim() != dim) continue;
+                float[] v = decode(row.getVecBlob(), row.getVecJson());
+                if (v == null || v.length != dim) continue;
+                sink.accept(type, row.getItemId(), v);
+                found.add(row.getItemId());
+            }
+            for (Long id : ids) {
+                if (!found.contains(id) && next.get(type).remove(id)) {
+                    listeners.orderedStream().forEach(l -> l.onRemove(type, id));
+                }
+            }
+        });
+        return keys.size();
+    }
+
+    private Slab slab(ItemType type) { return slabs.get(type); }
+
+    private float[] decode(byte[] blob, String json) {
+        try { return VectorCodec.read(blob, json); }
+        catch (Exception e) {
+            log.warn("[EMB-IDX] skip unreadable vector: {}", e.toString());
+            return null;
+        }
+    }
+
+    /* ===== 타입별 연속 배열 ===== */
+
+    /**
+     * 행 단위 packed 배열: 행 i 는 data[i*dim .. (i+1)*dim).
+     * int8 모드에서는 data 대신 qdata(byte) + 행별 scale 을 쓰고, 두 모드 모두 행별 norm 을 미리 계산해 둔다.
+     * 적재 시 L2 정규화하므로 float 모드의 norm 은 1 (영벡터는 0).
+     */
+    static final class Slab {
+        private final int dim;
+        private final boolean int8;
+        private final Map<Long, Integer> rowOf = new HashMap<>();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private float[] data;
+        private byte[] qdata;
+        private float[] scale;
+        private float[] norm;
+        private long[] ids;
+        private int rows;
+
+        Slab(int dim, boolean int8) {
+            this.dim = dim;
+            this.int8 = int8;
+            if (int8) {
+                this.qdata = new byte[dim * 64];
+                this.scale = new float[64];
+            } else {
+                this.data = new float[dim * 64];
+            }
+            this.norm = new float[64];
+            this.ids = new long[64];
+        }
+
+        boolean contains(Long id) {
+            lock.readLock().lock();
+            try { return rowOf.containsKey(id); }
+            finally { lock.readLock().unlock(); }
+        }
+
+        float[] copy(Long id) {
+            lock.readLock().lock();
+            try {
+                Integer row = rowOf.get(id);
+                if (row == null) return null;
+                int off = row * dim;
+                return int8
+                        ? Int8Quantizer.dequantize(qdata, off, dim, scale[row])
+                        : Arrays.copyOfRange(data, off, off + dim);
+            } finally { lock.readLock().unlock(); }
+        }
+
+        double dot(Long id, float[] q) {
+            lock.readLock().lock();
+            try {
+                Integer row = rowOf.get(id);
+                if (row == null) return Double.NaN;
+                if (q == null || q.length != dim) return 0.0;
+                if (!int8) return SimdDot.dot(q, 0, data, row * dim, dim);
+                float n = norm[row];
+                return n == 0f ? 0.0 : SimdDot.dot(q, qdata, row * dim, dim) * scale[row] / n;
+            } finally { lock.readLock().unlock(); }
+        }
+
+        double prefixCosine(Long id, float[] q, float qNorm, int prefix) {
+            lock.readLock().lock();
+            try {
+                Integer row = rowOf.get(id);
+                if (row == null) return Double.NaN;
+                if (q == null || q.length != dim || qNorm == 0f) return 0.0;
+                int len = Math.min(prefix, dim);
+                int off = row * dim;
+                float dot, n;
+                if (int8) {
+                    dot = SimdDot.dot(q, qdata, off, len) * scale[row];
+                    n = Int8Quantizer.norm(qdata, off, len, scale[row]);
+                } else {
+                    dot = SimdDot.dot(q, 0, data, off, len);
+                    n = (float) Math.sqrt(SimdDot.dot(data, off, data, off, len));
+                }
+                return n == 0f ? 0.0 : dot / ((double) qNorm * n);
+            } finally { lock.readLock().unlock(); }
+        }
+
+        /** 아이템 블록 x 유저 블록을 차원 블록(kb) 단위로 누적 (블록이 캐시에 머무는 동안 모든 유저와 곱한다) */
+        void dotTile(long[] ids, int j0, int j1, float[] users, int u0, int u1, int kb, float[] out) {
+            int w = j1 - j0;
+            int[] rowAt = new int[w];
+            Arrays.fill(out, 0, (u1 - u0) * w, 0f);
+            lock.readLock().lock();
+            try {
+                for (int j = 0; j < w; j++) {
+                    Integer row = rowOf.get(ids[j0 + j]);
+                    rowAt[j] = row == null ? -1 : row;
+                }
+                int step = Math.max(1, kb);
+                for (int k0 = 0; k0 < dim; k0 += step) {
+                    int len = Math.min(step, dim - k0);
+                    for (int u = u0; u < u1; u++) {
+                        int uOff = u * dim + k0;
+                        int at = (u - u0) * w;
+                        for (int j = 0; j < w; j++) {
+                            int r = rowAt[j];
+                            if (r < 0) continue;
+                            out[at + j] += int8
+                                    ? SimdDot.dot(users, uOff, qdata, r * dim + k0, len)
+                                    : SimdDot.dot(users, uOff, data, r * dim + k0, len);
+                        }
+                    }
+                }
+                // int8 은 dot() 과 같게 배율을 적용하고 norm 으로 나눠 단위 벡터 기준으로
+                for (int j = 0; j < w; j++) {
+                    int r = rowAt[j];
+                    float mul = r < 0 ? Float.NaN : !int8 ? 1f : norm[r] == 0f ? 0f : scale[r] / norm[r];
+                    if (mul == 1f) continue;
+                    for (int u = u0; u < u1; u++) out[(u - u0) * w + j] *= mul;
+                }
+            } finally { lock.readLock().unlock(); }
+        }
+
+        void upsert(Long id, float[] vec) {
+            // 이미 정규화된 벡터(신규 저장분)는 그대로, 이전 행은 여기서 정규화
+            float n = VectorMath.norm(vec);
+            float inv = (n == 0f || Math.abs(n - 1f) < 1e-4f) ? 1f : 1f / n;
+            lock.writeLock().lock();
+            try {
+                Integer row = rowOf.get(id);
+                if (row == null) {
+                    if (rows == ids.length) grow();
+                    row = rows++;
+                    rowOf.put(id, row);
+                    ids[row] = id;
+                }
+                int off = row * dim;
+                if (int8) {
+                    // 양자화는 배율과 무관하므로 scale 에만 inv 를 곱한다
+                    scale[row] = Int8Quantizer.quantize(vec, 0, qdata, off, dim) * inv;
+                    norm[row] = Int8Quantizer.norm(qdata, off, dim, scale[row]);
+                } else {
+                    if (inv == 1f) System.arraycopy(vec, 0, data, off, dim);
+                    else for (int i = 0; i < dim; i++) data[off + i] = vec[i] * inv;
+                    norm[row] = n == 0f ? 0f : 1f;
+                }
+            } finally { lock.writeLock().unlock(); }
+        }
+
+        /** 마지막 행을 빈 자리로 옮겨 배열을 촘촘하게 유지 */
+        boolean remove(Long id) {
+            lock.writeLock().lock();
+            try {
+                Integer row = rowOf.remove(id);
+                if (row == null) return false;
+                int last = --rows;
+                if (row != last) {
+                    if (int8) {
+                        System.arraycopy(qdata, last * dim, qdata, row * dim, dim);
+                        scale[row] = scale[last];
+                    } else {
+                        System.arraycopy(data, last * dim, data, row * dim, dim);
+                    }
+                    norm[row] = norm[last];
+                    ids[row] = ids[last];
+                    rowOf.put(ids[row], row);
+                }
+                return true;
+            } finally { lock.writeLock().unlock(); }
+        }
+
+        int rows() {
+            lock.readLock().lock();
+            try { return rows; }
+            finally { lock.readLock().unlock(); }
+        }
+
+        /** 벡터 저장에 쓰는 대략적인 바이트 수 */
+        long vectorBytes() {
+            lock.readLock().lock();
+            try {
+                long perRow = int8 ? dim + 8L : dim * 4L + 4L;
+                return perRow * rows;
+            } finally { lock.readLock().unlock(); }
+        }
+
+        private void grow() {
+            int cap = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, cap);
+            norm = Arrays.copyOf(norm, cap);
+            if (int8) {
+                qdata = Arrays.copyOf(qdata, cap * dim);
+                scale = Arrays.copyOf(scale, cap);
+            } else {
+                data = Arrays.copyOf(data, cap * dim);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.ItemType;
+
+/** EmbeddingIndex 변경 통지 (보조 인덱스 동기화용) */
+public interface EmbeddingIndexListener {
+
+    /** 벡터 적재/갱신. vec 는 호출 후 변경되지 않는다 */
+    void onUpsert(ItemType type, Long id, float[] vec);
+
+    void onRemove(ItemType type, Long id);
+
+    /** 전체 (재)적재 시작. 이후 onUpsert 들은 새 차원(dim) 벡터 */
+    default void onReset(int dim) {}
+
+    /** 전체 (재)적재 완료 */
+    default void onLoaded() {}
+}
@@ -0,0 +1,88 @@
+package group5.backend.service.ai.recomm;
+
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * /embeddings 응답 스트리밍 파서.
+ * encoding_format=base64 응답은 little-endian float32 바이트를 바로 float[] 로 옮기고,
+ * 숫자 배열 응답(float)도 박싱 없이 읽는다. 트리/List&lt;Double&gt; 를 만들지 않는다.
+ */
+public final class EmbeddingResponseParser {
+
+    private static final JsonFactory JSON = new JsonFactory();
+    // 차원을 모를 때 숫자 배열 버퍼의 처음 크기 (모자라면 두 배씩 늘린다)
+    private static final int DEFAULT_CAPACITY = 256;
+
+    public record Item(int index, float[] vector) {}
+
+    private EmbeddingResponseParser() {}
+
+    /** data[].{index, embedding} 만 읽고 나머지 필드(usage 등)는 건너뛴다 */
+    public static List<Item> parse(byte[] body) throws IOException {
+        return parse(body, 0);
+    }
+
+    /** 요청한 차원(dim)을 알면 숫자 배열 응답을 그 크기 버퍼 하나로 읽는다 (0 이하면 모름) */
+    public static List<Item> parse(byte[] body, int dim) throws IOException {
+        List<Item> out = new ArrayList<>();
+        try (JsonParser p = JSON.createParser(body)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("embedding response is not an object");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                if ("data".equals(field) && t == JsonToken.START_ARRAY) {
+                    while (p.nextToken() == JsonToken.START_OBJECT) out.add(readItem(p, dim));
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Item readItem(JsonParser p, int dim) throws IOException {
+        int index = -1;
+        float[] vec = null;
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            JsonToken t = p.nextToken();
+            if ("index".equals(field)) {
+                index = p.getIntValue();
+            } else if ("embedding".equals(field) && t == JsonToken.VALUE_STRING) {
+                vec = decodeBase64(p);
+            } else if ("embedding".equals(field) && t == JsonToken.START_ARRAY) {
+                vec = readFloatArray(p, dim);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return new Item(index, vec);
+    }
+
+    private static float[] decodeBase64(JsonParser p) throws IOException {
+        byte[] raw = p.getBinaryValue(Base64Variants.MIME_NO_LINEFEEDS);
+        float[] v = new float[raw.length / Float.BYTES];
+        ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(v);
+        return v;
+    }
+
+    private static float[] readFloatArray(JsonParser p, int dim) throws IOException {
+        float[] v = new float[dim > 0 ? dim : DEFAULT_CAPACITY];
+        int n = 0;
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            if (n == v.length) v = Arrays.copyOf(v, n * 2);
+            v[n++] = p.getFloatValue();
+        }
+        return n == v.length ? v : Arrays.copyOf(v, n);
+    }
+}
@@ -0,0 +1,323 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.ItemEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.zip.CRC32;
+
+/**
+ * 아이템 임베딩 바이너리 스냅샷 (노드 기동 시 DB 전체 스캔 대신 파일을 mmap 해서 적재).
+ * <pre>
+ * [header 128B] magic "GSNP" | version | dim | count | maxRowId | createdAt(epoch ms) | crc32 | modelLen | model
+ * [records]     count x ( int64 key (상위 8비트 = ItemType, 하위 56비트 = item id) | dim x float32 (L2 정규화) )
+ * </pre>
+ * 모두 little-endian. crc32 는 records 전체 기준.
+ * 레코드를 한 건씩 이어 쓰므로 내보내기는 DB 페이지 하나만큼의 메모리로 끝나고,
+ * 적재는 레코드 경계에 맞춘 1GB 이하 구간을 여러 개 mmap 해서 2GB 를 넘는 파일도 읽는다.
+ * 적재 후에는 maxRowId 보다 큰 행 / createdAt 이후 바뀐 행만 DB 에서 읽는다.
+ * 스냅샷 이후 삭제된 아이템 벡터는 남지만, 후보는 항상 DB 에서 존재 여부를 확인하므로 추천에는 나오지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingSnapshot {
+
+    private static final int MAGIC = 0x504E5347; // "GSNP" (LE)
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 128;
+    private static final int MAX_MODEL_BYTES = HEADER_BYTES - 44;
+    private static final int EXPORT_PAGE = 500;
+    private static final int WRITE_CHUNK = 1 << 20;
+    // 한 번에 mmap 하는 구간 상한 (MappedByteBuffer 는 int 인덱스라 2GB 미만)
+    private static final long MAX_REGION_BYTES = 1L << 30;
+
+    public record Header(
+            int version,
+            String model,
+            int dim,
+            int count,
+            long maxRowId,
+            LocalDateTime createdAt,
+            long fileBytes
+    ) {}
+
+    public record ExportResult(String path, int vectors, long bytes, long tookMillis) {}
+
+    @FunctionalInterface
+    public interface Sink {
+        void accept(ItemType type, Long id, float[] vec);
+    }
+
+    private final ItemEmbeddingRepository itemEmbRepo;
+    private final OpenAIEmbeddingClient openai;
+    private final RecommProperties recommProps;
+
+    public boolean isEnabled() {
+        return recommProps.getSnapshot().isEnabled();
+    }
+
+    public Path path() {
+        return Path.of(recommProps.getSnapshot().getPath());
+    }
+
+    /** 현재 서빙 모델/차원 벡터 전체를 스냅샷 파일로 (임시 파일에 레코드를 이어 쓴 뒤 교체) */
+    public synchronized ExportResult export() throws IOException {
+        long t0 = System.nanoTime();
+        String model = openai.modelName();
+        int dim = openai.dim();
+        // 내보내는 동안 바뀐 행은 다음 적재 때 변경분으로 다시 읽도록 시작 시각을 기록
+        long createdAt = System.currentTimeMillis();
+
+        Path target = path();
+        long afterId = 0L;
+        long bytes;
+        int count;
+        try (Writer w = new Writer(target, model, dim, createdAt)) {
+            while (true) {
+                var page = itemEmbRepo.findVectorPage(model, dim, afterId, PageRequest.of(0, EXPORT_PAGE));
+                if (page.isEmpty()) break;
+                for (Object[] r : page) {
+                    // r = [id, itemType, itemId, dim, vecBlob, vecJson, normalized]
+                    afterId = (Long) r[0];
+                    float[] v = decode((byte[]) r[4], (String) r[5]);
+                    if (v == null || v.length != dim) continue;
+                    w.add((ItemType) r[1], (Long) r[2], VectorMath.l2normalize(v));
+                }
+                if (page.size() < EXPORT_PAGE) break;
+            }
+            count = w.count();
+            bytes = w.commit(afterId);
+        }
+        var result = new ExportResult(target.toAbsolutePath().toString(), count, bytes, (System.nanoTime() - t0) / 1_000_000);
+        log.info("[EMB-SNAP] exported {}", result);
+        return result;
+    }
+
+    @Scheduled(cron = "${recomm.snapshot.export-cron:0 0 4 * * *}", zone = "Asia/Seoul")
+    public void scheduledExport() {
+        if (!recommProps.getSnapshot().isExportEnabled()) return;
+        try {
+            export();
+        } catch (Exception e) {
+            log.error("[EMB-SNAP] scheduled export failed: {}", e.toString(), e);
+        }
+    }
+
+    /** 파일 헤더만 확인 (없거나 읽을 수 없으면 null) */
+    public Header header() {
+        Path p = path();
+        if (!Files.isRegularFile(p)) return null;
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (h.hasRemaining() && ch.read(h) >= 0) { /* 헤더 끝까지 */ }
+            h.flip();
+            return h.remaining() < HEADER_BYTES ? null : readHeader(h, ch.size());
+        } catch (Exception e) {
+            log.warn("[EMB-SNAP] unreadable header {}: {}", p, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * 스냅샷을 mmap 해서 벡터를 sink 로 넘긴다. 모델/차원이 다르거나 파일이 손상됐으면 null (DB 전체 적재로).
+     */
+    public Header load(String model, int dim, Sink sink) {
+        Path p = path();
+        if (!Files.isRegularFile(p)) return null;
+        long t0 = System.nanoTime();
+        try {
+            Header h = read(p, model, dim, sink, MAX_REGION_BYTES);
+            log.info("[EMB-SNAP] loaded {} vectors from {} (created={}, maxRowId={}), took={}ms",
+                    h.count(), p, h.createdAt(), h.maxRowId(), (System.nanoTime() - t0) / 1_000_000);
+            return h;
+        } catch (Exception e) {
+            log.warn("[EMB-SNAP] ignore {}: {}", p, e.toString());
+            return null;
+        }
+    }
+
+    /* ===== 파일 형식 ===== */
+
+    /**
+     * 검증(크기, crc32)을 모두 마친 뒤에만 sink 를 호출한다. 구간은 maxRegionBytes 이하로, 레코드 경계에서 나눈다.
+     * 거부 사유는 IOException 메시지로.
+     */
+    static Header read(Path p, String model, int dim, Sink sink, long maxRegionBytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES) throw new IOException("truncated header");
+            ByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            Header h = readHeader(head, size);
+            if (h == null) throw new IOException("bad magic/version");
+            if (h.dim() != dim || !model.equals(h.model())) {
+                throw new IOException("model/dim mismatch " + h.model() + "/" + h.dim() + " != " + model + "/" + dim);
+            }
+            long record = recordBytes(dim);
+            long expected = HEADER_BYTES + h.count() * record;
+            if (size != expected) throw new IOException("size " + size + " != " + expected);
+
+            long span = Math.max(1, maxRegionBytes / record) * record;
+            int regionCount = (int) ((size - HEADER_BYTES + span - 1) / span);
+            MappedByteBuffer[] regions = new MappedByteBuffer[regionCount];
+            CRC32 crc = new CRC32();
+            for (int r = 0; r < regionCount; r++) {
+                long off = HEADER_BYTES + r * span;
+                regions[r] = ch.map(FileChannel.MapMode.READ_ONLY, off, Math.min(span, size - off));
+                crc.update(regions[r].duplicate());
+            }
+            if (crc.getValue() != head.getLong(32)) throw new IOException("checksum mismatch");
+
+            for (MappedByteBuffer region : regions) {
+                region.order(ByteOrder.LITTLE_ENDIAN);
+                // 레코드 크기가 4의 배수이므로 float 는 구간 시작 기준 4바이트 정렬
+                FloatBuffer floats = region.duplicate().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+                for (int pos = 0; pos < region.limit(); pos += (int) record) {
+                    long k = region.getLong(pos);
+                    float[] v = new float[dim];
+                    floats.get((pos + Long.BYTES) / Float.BYTES, v);
+                    sink.accept(typeOf(k), idOf(k), v);
+                }
+            }
+            return h;
+        }
+    }
+
+    static long recordBytes(int dim) {
+        return Long.BYTES + (long) dim * Float.BYTES;
+    }
+
+    /**
+     * 레코드를 한 건씩 임시 파일에 이어 쓰고 commit 때 헤더를 채워 target 으로 교체한다.
+     * commit 없이 close 되면 임시 파일을 지운다.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path tmp;
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+        private final CRC32 crc = new CRC32();
+        private final byte[] modelBytes;
+        private final int dim;
+        private final long createdAt;
+        private int count;
+        private boolean committed;
+
+        Writer(Path target, String model, int dim, long createdAt) throws IOException {
+            this.modelBytes = model.getBytes(StandardCharsets.UTF_8);
+            if (modelBytes.length > MAX_MODEL_BYTES) throw new IllegalArgumentException("model name too long: " + model);
+            this.target = target;
+            this.dim = dim;
+            this.createdAt = createdAt;
+            Path dir = target.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            this.tmp = Files.createTempFile(dir, target.getFileName().toString(), ".tmp");
+            this.ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.buf = ByteBuffer.allocateDirect((int) Math.max(WRITE_CHUNK, recordBytes(dim))).order(ByteOrder.LITTLE_ENDIAN);
+            ch.position(HEADER_BYTES);
+        }
+
+        void add(ItemType type, Long id, float[] vec) throws IOException {
+            if (vec.length != dim) throw new IllegalArgumentException("dim " + vec.length + " != " + dim);
+            if (count == Integer.MAX_VALUE) throw new IllegalStateException("too many vectors");
+            if (buf.remaining() < recordBytes(dim)) flush(ch, buf, crc);
+            buf.putLong(key(type, id));
+            buf.asFloatBuffer().put(vec);
+            buf.position(buf.position() + dim * Float.BYTES);
+            count++;
+        }
+
+        int count() {
+            return count;
+        }
+
+        /** 헤더를 쓰고 target 으로 교체한 뒤 파일 크기를 반환 */
+        long commit(long maxRowId) throws IOException {
+            flush(ch, buf, crc);
+            ByteBuffer h = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            h.putInt(MAGIC).putInt(VERSION).putInt(dim).putInt(count)
+                    .putLong(maxRowId).putLong(createdAt).putLong(crc.getValue())
+                    .putInt(modelBytes.length).put(modelBytes);
+            h.clear();
+            ch.write(h, 0);
+            ch.force(true);
+            ch.close();
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return Files.size(target);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            ch.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer buf, CRC32 crc) throws IOException {
+        buf.flip();
+        crc.update(buf.duplicate());
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    private static Header readHeader(ByteBuffer h, long fileBytes) {
+        if (h.getInt(0) != MAGIC || h.getInt(4) != VERSION) return null;
+        int modelLen = h.getInt(40);
+        if (modelLen < 0 || modelLen > MAX_MODEL_BYTES) return null;
+        byte[] modelBytes = new byte[modelLen];
+        h.get(44, modelBytes);
+        return new Header(
+                h.getInt(4),
+                new String(modelBytes, StandardCharsets.UTF_8),
+                h.getInt(8),
+                h.getInt(12),
+                h.getLong(16),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(h.getLong(24)), ZoneId.systemDefault()),
+                fileBytes
+        );
+    }
+
+    private float[] decode(byte[] blob, String json) {
+        try { return VectorCodec.read(blob, json); }
+        catch (Exception e) {
+            log.warn("[EMB-SNAP] skip unreadable vector: {}", e.toString());
+            return null;
+        }
+    }
+
+    // 상위 8비트 = 타입, 하위 56비트 = id (AnnCandidateIndex 와 같은 키)
+    private static long key(ItemType type, Long id) {
+        return ((long) type.ordinal() << 56) | id;
+    }
+
+    private static ItemType typeOf(long key) {
+        return ItemType.values()[(int) (key >>> 56)];
+    }
+
+    private static Long idOf(long key) {
+        return key & 0x00FF_FFFF_FFFF_FFFFL;
+    }
+}
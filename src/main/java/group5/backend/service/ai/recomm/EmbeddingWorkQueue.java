@@ -0,0 +1,167 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 임베딩 생성 백그라운드 큐.
+ * 같은 아이템은 대기 중 한 번만 들어가고(중복 제거), 고정 개수 워커가 배치로 꺼내 처리한다.
+ * 요청 스레드는 enqueue 만 하고 OpenAI 응답을 기다리지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingWorkQueue {
+
+    private final EmbeddingHydrationService hydrationService;
+    private final RecommProperties recommProps;
+
+    private final Set<ItemKey> pending = ConcurrentHashMap.newKeySet();
+    // 수정된 아이템: 인덱스에 있어도 텍스트 해시를 비교해 다시 임베딩
+    private final Set<ItemKey> recheck = ConcurrentHashMap.newKeySet();
+    private BlockingQueue<ItemKey> queue;
+    private ExecutorService workers;
+
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        var cfg = recommProps.getHydration();
+        queue = new LinkedBlockingQueue<>(cfg.getQueueCapacity());
+        AtomicInteger seq = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(cfg.getWorkers(), r -> {
+            Thread t = new Thread(r, "emb-hydrate-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < cfg.getWorkers(); i++) workers.submit(this::workLoop);
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    public void enqueue(ItemType type, Long id) {
+        enqueue(new ItemKey(type, id));
+    }
+
+    public void enqueue(ItemKey key) {
+        if (key == null || key.id() == null) return;
+        if (!pending.add(key)) return; // 이미 대기 중
+        if (!queue.offer(key)) {
+            pending.remove(key);
+            dropped.incrementAndGet();
+            log.warn("[HYD-Q] queue full, dropped {}", key);
+        }
+    }
+
+    public void enqueueAll(Collection<ItemKey> keys) {
+        for (var k : keys) enqueue(k);
+    }
+
+    /** 트랜잭션 안이면 커밋 후에 enqueue (워커가 커밋 전 행을 못 보는 문제 방지) */
+    public void enqueueAfterCommit(ItemType type, Long id) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { enqueue(type, id); }
+            });
+        } else {
+            enqueue(type, id);
+        }
+    }
+
+    /** 아이템 수정 커밋 후 텍스트가 바뀌었는지 확인하도록 enqueue */
+    public void refreshAfterCommit(ItemType type, Long id) {
+        ItemKey key = new ItemKey(type, id);
+        Runnable task = () -> {
+            recheck.add(key);
+            enqueue(key);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { task.run(); }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /** 아이템 삭제 커밋 후 대기열에서 빼고 벡터 정리 */
+    public void removeAfterCommit(ItemType type, Long id) {
+        ItemKey key = new ItemKey(type, id);
+        Runnable task = () -> {
+            pending.remove(key);
+            recheck.remove(key);
+            hydrationService.remove(key);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override public void afterCommit() { task.run(); }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    public int pendingCount() { return pending.size(); }
+    public long processedCount() { return processed.get(); }
+    public long droppedCount() { return dropped.get(); }
+
+    /**
+     * 처리가 끝난 뒤에야 대기 표시를 푼다 (처리 중 들어온 같은 아이템 enqueue 는 중복으로 무시).
+     * 처리 중에 수정 알림(recheck)이 새로 붙은 아이템은 이번 처리가 이전 텍스트를 읽었을 수 있으므로 다시 넣는다.
+     */
+    private void release(List<ItemKey> batch) {
+        for (var k : batch) {
+            pending.remove(k);
+            if (recheck.contains(k)) enqueue(k);
+        }
+    }
+
+    private void workLoop() {
+        int batchSize = recommProps.getHydration().getBatchSize();
+        List<ItemKey> batch = new ArrayList<>(batchSize);
+        List<ItemKey> missing = new ArrayList<>(batchSize);
+        List<ItemKey> edited = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.clear();
+                missing.clear();
+                edited.clear();
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                for (var k : batch) {
+                    if (recheck.remove(k)) edited.add(k); else missing.add(k);
+                }
+
+                int saved = hydrationService.hydrate(missing);
+                int refreshed = hydrationService.refresh(edited);
+                processed.addAndGet(batch.size());
+                log.debug("[HYD-Q] batch={}, saved={}, refreshed={}, pending={}", batch.size(), saved, refreshed, pending.size());
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("[HYD-Q] batch failed size={}: {}", batch.size(), e.toString());
+            } finally {
+                release(batch);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package group5.backend.service.ai.recomm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.FavoriteEventRepository;
+import group5.backend.repository.FavoritePopupRepository;
+import group5.backend.repository.FavoriteStoreRepository;
+import group5.backend.repository.PreferenceQueryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * 즐겨찾기/관심 카테고리 기반 PreferencePort.
+ * 좋아요 3종 + 카테고리를 UNION 쿼리 한 번으로 읽고 유저별로 캐시한다.
+ * 변경 시에는 UserProfileService 가 evict 를 호출한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FavoritePreferenceAdapter implements PreferencePort {
+
+    record Preferences(Set<String> categories, List<Long> stores, List<Long> events, List<Long> popups) {}
+
+    private final FavoriteStoreRepository favoriteStoreRepository;
+    private final FavoriteEventRepository favoriteEventRepository;
+    private final FavoritePopupRepository favoritePopupRepository;
+    private final PreferenceQueryRepository preferenceQueries;
+    private final RecommProperties recommProps;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Long, Preferences> cache;
+
+    @PostConstruct
+    void init() {
+        // 프로필 캐시와 같은 크기/TTL (프로필을 다시 빌드할 때만 읽힌다)
+        var cfg = recommProps.getProfileCache();
+        cache = Caffeine.newBuilder()
+                .maximumSize(cfg.getMaxSize())
+                .expireAfterWrite(Duration.ofMinutes(cfg.getTtlMinutes()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "preference");
+    }
+
+    @Override public Set<String> preferredCategories(Long userId) { return load(userId).categories(); }
+    @Override public List<Long> likedStoreIds(Long userId) { return load(userId).stores(); }
+    @Override public List<Long> likedEventIds(Long userId) { return load(userId).events(); }
+    @Override public List<Long> likedPopupIds(Long userId) { return load(userId).popups(); }
+
+    @Override
+    public List<Long> likerIds(ItemType type, Collection<Long> itemIds) {
+        if (itemIds == null || itemIds.isEmpty()) return List.of();
+        return switch (type) {
+            case STORE -> favoriteStoreRepository.findUserIdsByStoreIdIn(itemIds);
+            case EVENT -> favoriteEventRepository.findUserIdsByEventIdIn(itemIds);
+            case POPUP -> favoritePopupRepository.findUserIdsByPopupIdIn(itemIds);
+        };
+    }
+
+    @Override
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    private Preferences load(Long userId) {
+        if (userId == null) return new Preferences(Set.of(), List.of(), List.of(), List.of());
+        return cache.get(userId, this::query);
+    }
+
+    private Preferences query(Long userId) {
+        Set<String> categories = new LinkedHashSet<>();
+        List<Long> stores = new ArrayList<>();
+        List<Long> events = new ArrayList<>();
+        List<Long> popups = new ArrayList<>();
+
+        // r = [kind, itemId, category]
+        for (Object[] r : preferenceQueries.findPreferenceRowsByUserId(userId)) {
+            String kind = String.valueOf(r[0]);
+            switch (kind) {
+                case "S" -> stores.add(((Number) r[1]).longValue());
+                case "E" -> events.add(((Number) r[1]).longValue());
+                case "P" -> popups.add(((Number) r[1]).longValue());
+                case "C" -> { if (r[2] != null) categories.add(r[2].toString()); }
+                default -> log.warn("[PREF] unknown row kind={}", kind);
+            }
+        }
+        log.debug("[PREF] loaded userId={} S/E/P/C = {}/{}/{}/{}",
+                userId, stores.size(), events.size(), popups.size(), categories.size());
+        return new Preferences(
+                Collections.unmodifiableSet(categories),
+                Collections.unmodifiableList(stores),
+                Collections.unmodifiableList(events),
+                Collections.unmodifiableList(popups));
+    }
+}
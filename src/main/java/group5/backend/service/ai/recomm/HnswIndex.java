@@ -0,0 +1,314 @@
+package group5.backend.service.ai.recomm;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * HNSW(Hierarchical Navigable Small World) 근사 최근접 이웃 인덱스.
+ * 벡터는 L2 정규화해서 보관하고 유사도는 내적(=코사인)으로 계산한다.
+ * 삭제는 tombstone 방식: 그래프 탐색에는 계속 쓰이고 결과에서만 빠진다. (비율이 커지면 호출 측에서 재빌드)
+ * 검색은 동시에, 삽입/삭제는 단일 writer 로 가정한다.
+ */
+final class HnswIndex {
+
+    record Hit(long key, float score) {}
+
+    private record Cand(int node, float sim) {}
+
+    private static final int MAX_LEVEL = 16;
+
+    private final int dim;
+    private final int m;
+    private final int mMax0;
+    private final int efConstruction;
+    private final double levelMult;
+    private final SplittableRandom levels; // writer 전용 (쓰기 락 안에서만 사용)
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> nodeOf = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private int entry = -1;
+    private int maxLevel = -1;
+    private int tombstones = 0;
+
+    private static final class Node {
+        final long key;
+        final float[] vec;
+        final int[][] links;
+        final int[] linkCount;
+        boolean deleted;
+
+        Node(long key, float[] vec, int level, int m, int mMax0) {
+            this.key = key;
+            this.vec = vec;
+            this.links = new int[level + 1][];
+            this.linkCount = new int[level + 1];
+            for (int l = 0; l <= level; l++) links[l] = new int[l == 0 ? mMax0 : m];
+        }
+
+        int level() { return links.length - 1; }
+    }
+
+    HnswIndex(int dim, int m, int efConstruction) {
+        this(dim, m, efConstruction, new SplittableRandom());
+    }
+
+    /** 레벨 추첨 시드 고정용 (테스트) */
+    HnswIndex(int dim, int m, int efConstruction, long seed) {
+        this(dim, m, efConstruction, new SplittableRandom(seed));
+    }
+
+    private HnswIndex(int dim, int m, int efConstruction, SplittableRandom levels) {
+        this.dim = dim;
+        this.m = m;
+        this.mMax0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMult = 1.0 / Math.log(m);
+        this.levels = levels;
+    }
+
+    int dim() { return dim; }
+
+    int size() {
+        lock.readLock().lock();
+        try { return nodeOf.size(); }
+        finally { lock.readLock().unlock(); }
+    }
+
+    int tombstones() {
+        lock.readLock().lock();
+        try { return tombstones; }
+        finally { lock.readLock().unlock(); }
+    }
+
+    boolean contains(long key) {
+        lock.readLock().lock();
+        try { return nodeOf.containsKey(key); }
+        finally { lock.readLock().unlock(); }
+    }
+
+    /** 삽입 (같은 key 가 있으면 기존 노드는 tombstone 처리 후 새로 삽입) */
+    void upsert(long key, float[] vec) {
+        if (vec == null || vec.length != dim) return;
+        float[] v = normalized(vec);
+        lock.writeLock().lock();
+        try {
+            Integer old = nodeOf.remove(key);
+            if (old != null) markDeleted(old);
+            insert(key, v);
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    boolean remove(long key) {
+        lock.writeLock().lock();
+        try {
+            Integer n = nodeOf.remove(key);
+            if (n == null) return false;
+            markDeleted(n);
+            return true;
+        } finally { lock.writeLock().unlock(); }
+    }
+
+    /** 살아있는 (key, 벡터) 목록 - 재빌드용 */
+    List<Map.Entry<Long, float[]>> aliveEntries() {
+        lock.readLock().lock();
+        try {
+            List<Map.Entry<Long, float[]>> out = new ArrayList<>(nodeOf.size());
+            for (var e : nodeOf.entrySet()) out.add(Map.entry(e.getKey(), nodes.get(e.getValue()).vec));
+            return out;
+        } finally { lock.readLock().unlock(); }
+    }
+
+    /** 질의와 가장 가까운 k 개 (유사도 내림차순) */
+    List<Hit> search(float[] query, int k, int ef) {
+        if (query == null || query.length != dim || k <= 0) return List.of();
+        float[] q = normalized(query);
+        lock.readLock().lock();
+        try {
+            if (entry < 0) return List.of();
+            int ep = entry;
+            for (int l = maxLevel; l > 0; l--) ep = greedy(q, ep, l);
+            PriorityQueue<Cand> res = searchLayer(q, ep, Math.max(ef, k), 0);
+
+            List<Cand> sorted = new ArrayList<>(res);
+            sorted.sort((a, b) -> Float.compare(b.sim(), a.sim()));
+            List<Hit> out = new ArrayList<>(Math.min(k, sorted.size()));
+            for (Cand c : sorted) {
+                Node n = nodes.get(c.node());
+                if (n.deleted) continue;
+                out.add(new Hit(n.key, c.sim()));
+                if (out.size() == k) break;
+            }
+            return out;
+        } finally { lock.readLock().unlock(); }
+    }
+
+    /* ===== 내부 ===== */
+
+    private void insert(long key, float[] v) {
+        int level = randomLevel();
+        int id = nodes.size();
+        nodes.add(new Node(key, v, level, m, mMax0));
+        nodeOf.put(key, id);
+
+        if (entry < 0) {
+            entry = id;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entry;
+        for (int l = maxLevel; l > level; l--) ep = greedy(v, ep, l);
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            PriorityQueue<Cand> found = searchLayer(v, ep, efConstruction, l);
+            List<Cand> sorted = new ArrayList<>(found);
+            sorted.sort((a, b) -> Float.compare(b.sim(), a.sim()));
+
+            int[] selected = selectNeighbors(v, sorted, l == 0 ? mMax0 : m);
+            for (int nb : selected) {
+                link(id, nb, l);
+                link(nb, id, l);
+            }
+            ep = sorted.get(0).node();
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entry = id;
+        }
+    }
+
+    private void markDeleted(int node) {
+        Node n = nodes.get(node);
+        if (!n.deleted) {
+            n.deleted = true;
+            tombstones++;
+        }
+    }
+
+    /** 상위 레이어 탐색: 더 가까운 이웃이 없을 때까지 이동 */
+    private int greedy(float[] q, int ep, int level) {
+        int cur = ep;
+        float best = dot(q, nodes.get(cur).vec);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            Node n = nodes.get(cur);
+            if (level > n.level()) break;
+            int[] ls = n.links[level];
+            for (int i = 0; i < n.linkCount[level]; i++) {
+                float s = dot(q, nodes.get(ls[i]).vec);
+                if (s > best) {
+                    best = s;
+                    cur = ls[i];
+                    changed = true;
+                }
+            }
+        }
+        return cur;
+    }
+
+    /** 해당 레이어에서 ef 개 후보 탐색. 반환은 최소 힙(가장 먼 것이 top) */
+    private PriorityQueue<Cand> searchLayer(float[] q, int ep, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Cand> candidates = new PriorityQueue<>((a, b) -> Float.compare(b.sim(), a.sim()));
+        PriorityQueue<Cand> results = new PriorityQueue<>((a, b) -> Float.compare(a.sim(), b.sim()));
+
+        Cand start = new Cand(ep, dot(q, nodes.get(ep).vec));
+        visited.set(ep);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Cand c = candidates.poll();
+            if (results.size() >= ef && c.sim() < results.peek().sim()) break;
+
+            Node n = nodes.get(c.node());
+            if (level > n.level()) continue;
+            int[] ls = n.links[level];
+            for (int i = 0; i < n.linkCount[level]; i++) {
+                int nb = ls[i];
+                if (visited.get(nb)) continue;
+                visited.set(nb);
+                float s = dot(q, nodes.get(nb).vec);
+                if (results.size() < ef || s > results.peek().sim()) {
+                    Cand nc = new Cand(nb, s);
+                    candidates.add(nc);
+                    results.add(nc);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+        return results;
+    }
+
+    /** 이웃 선택 휴리스틱: 이미 고른 이웃보다 질의에 더 가까운 후보만 채택, 모자라면 가까운 순으로 보충 */
+    private int[] selectNeighbors(float[] q, List<Cand> sortedDesc, int max) {
+        List<Integer> selected = new ArrayList<>(max);
+        List<Integer> pruned = new ArrayList<>();
+        for (Cand c : sortedDesc) {
+            if (selected.size() >= max) break;
+            Node cn = nodes.get(c.node());
+            if (cn.deleted) continue;
+            boolean good = true;
+            for (int s : selected) {
+                if (dot(cn.vec, nodes.get(s).vec) > c.sim()) { good = false; break; }
+            }
+            if (good) selected.add(c.node()); else pruned.add(c.node());
+        }
+        for (int p : pruned) {
+            if (selected.size() >= max) break;
+            selected.add(p);
+        }
+        int[] out = new int[selected.size()];
+        for (int i = 0; i < out.length; i++) out[i] = selected.get(i);
+        return out;
+    }
+
+    /** a -> b 연결. 가득 차면 a 에 가장 가까운 max 개만 남긴다 */
+    private void link(int a, int b, int level) {
+        Node na = nodes.get(a);
+        if (level > na.level()) return;
+        int[] ls = na.links[level];
+        int cnt = na.linkCount[level];
+        for (int i = 0; i < cnt; i++) if (ls[i] == b) return;
+
+        if (cnt < ls.length) {
+            ls[cnt] = b;
+            na.linkCount[level] = cnt + 1;
+            return;
+        }
+
+        // 가장 먼 이웃보다 b 가 가까우면 교체
+        float sb = dot(na.vec, nodes.get(b).vec);
+        int worst = -1;
+        float worstSim = sb;
+        for (int i = 0; i < cnt; i++) {
+            float s = dot(na.vec, nodes.get(ls[i]).vec);
+            if (s < worstSim) { worstSim = s; worst = i; }
+        }
+        if (worst >= 0) ls[worst] = b;
+    }
+
+    private int randomLevel() {
+        double u = levels.nextDouble();
+        int level = (int) Math.floor(-Math.log(1.0 - u) * levelMult);
+        return Math.min(level, MAX_LEVEL);
+    }
+
+    // 인덱스의 브루트포스 경로와 같은 커널 (Vector API 사용 가능하면 SIMD)
+    private static float dot(float[] a, float[] b) {
+        return SimdDot.dot(a, 0, b, 0, a.length);
+    }
+
+    private static float[] normalized(float[] v) {
+        double n = 0;
+        for (float x : v) n += x * x;
+        float[] out = new float[v.length];
+        if (n == 0) return out;
+        float inv = (float) (1.0 / Math.sqrt(n));
+        for (int i = 0; i < v.length; i++) out[i] = v[i] * inv;
+        return out;
+    }
+}
@@ -0,0 +1,353 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.UserProfileEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * 전체 유저 홈 추천 오프라인 일괄 계산 (유저마다 rankHome 을 돌리는 대신 행렬곱 한 번).
+ * <pre>
+ * 1) 아이템: 타입별 인기 상위 max-items-per-type 중 인덱스에 벡터가 있는 것 (타입별로 모아 둔 id) + 아이템별 prior(최근성, 인기)
+ *    벡터는 따로 복사하지 않고 EmbeddingIndex slab 을 타일 단위로 직접 읽는다
+ * 2) 유저 행렬: 현재 모델/차원 프로필을 user-page 개씩 keyset 으로 읽는다 (m x dim)
+ * 3) 점수 = SIM_WEIGHT * (유저 · 아이템) + prior. 유저 블록마다 스레드 하나가
+ *    [유저 블록 x 아이템 블록] 타일을 차원 블록 단위로 누적하고, 타일이 끝날 때마다 유저별 top-K 최소 힙을 갱신
+ * 4) 페이지 결과를 INSERT ... ON DUPLICATE KEY UPDATE 여러 행 문장으로 user_home_recommendations 에 저장.
+ *    다음 배치까지 쓰이도록 valid_until = 지금 + valid-hours (실시간 결과는 home-feed.max-age-minutes)
+ * </pre>
+ * 실시간 랭킹과 달리 공동 좋아요 가산점(유저별 좋아요 조회 필요)은 넣지 않는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HomeBatchScoringJob {
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    public record Status(
+            State state,
+            LocalDateTime startedAt,
+            LocalDateTime finishedAt,
+            int items,
+            int dim,
+            int topK,
+            long users,
+            long scoreMillis,
+            long writeMillis,
+            double usersPerSec,
+            double scoredUsersPerSec
+    ) {}
+
+    /** 점수화 대상 아이템 (같은 타입끼리 연속, ids[j] = items[j].id()) */
+    record Items(ItemCandidate[] items, long[] ids, float[] prior) {
+        int size() { return items.length; }
+    }
+
+    /** 같은 타입 아이템 [j0, j1) 과 유저 [u0, u1) 의 코사인 타일. out[(u - u0) * (j1 - j0) + j], 벡터 없는 아이템은 NaN */
+    @FunctionalInterface
+    interface TileKernel {
+        void dot(ItemType type, long[] ids, int j0, int j1, float[] users, int u0, int u1, float[] out);
+    }
+
+    private static final String UPSERT_HEAD =
+            "INSERT INTO user_home_recommendations (user_id, items_blob, item_count, requested_size, computed_at, valid_until) VALUES ";
+    private static final String UPSERT_TAIL =
+            " ON DUPLICATE KEY UPDATE items_blob = VALUES(items_blob), item_count = VALUES(item_count),"
+            + " requested_size = VALUES(requested_size), computed_at = VALUES(computed_at), valid_until = VALUES(valid_until)";
+
+    private final UserProfileEmbeddingRepository profileRepo;
+    private final CandidateService candidateService;
+    private final RankingService rankingService;
+    private final EmbeddingIndex embeddingIndex;
+    private final OpenAIEmbeddingClient openai;
+    private final JdbcTemplate jdbcTemplate;
+    private final RecommProperties recommProps;
+
+    private volatile State state = State.IDLE;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile int items;
+    private volatile int dim;
+    private volatile int topK;
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong scoreNanos = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+
+    @Scheduled(cron = "${recomm.batch-scoring.cron:0 0 5 * * *}", zone = "Asia/Seoul")
+    public void scheduledRun() {
+        if (!recommProps.getBatchScoring().isEnabled()) return;
+        if (!start()) log.warn("[HOME-BATCH] previous run still in progress, skipped");
+    }
+
+    /** 백그라운드로 시작. 이미 실행 중이면 false */
+    public synchronized boolean start() {
+        if (state == State.RUNNING) return false;
+        state = State.RUNNING;
+        startedAt = LocalDateTime.now();
+        startedNanos = System.nanoTime();
+        finishedAt = null;
+        items = 0;
+        users.set(0);
+        scoreNanos.set(0);
+        writeNanos.set(0);
+
+        Thread t = new Thread(this::run, "home-batch-score");
+        t.setDaemon(true);
+        t.start();
+        return true;
+    }
+
+    public Status status() {
+        long end = state == State.RUNNING ? System.nanoTime() : finishedNanos;
+        double sec = startedAt == null ? 0 : Math.max(1e-3, (end - startedNanos) / 1e9);
+        double scoreSec = scoreNanos.get() / 1e9;
+        return new Status(
+                state, startedAt, finishedAt,
+                items, dim, topK,
+                users.get(),
+                scoreNanos.get() / 1_000_000,
+                writeNanos.get() / 1_000_000,
+                sec == 0 ? 0 : users.get() / sec,
+                scoreSec == 0 ? 0 : users.get() / scoreSec
+        );
+    }
+
+    private void run() {
+        var cfg = recommProps.getBatchScoring();
+        int p = cfg.getParallelism();
+        ForkJoinPool pool = new ForkJoinPool(p > 0 ? p : Runtime.getRuntime().availableProcessors(), fj -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fj);
+            t.setName("home-batch-score-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+        try {
+            String model = openai.modelName();
+            dim = openai.dim();
+            topK = cfg.getTopK() > 0 ? cfg.getTopK() : recommProps.getHomeFeed().getSize();
+            Items matrix = loadItems(cfg.getMaxItemsPerType());
+            items = matrix.size();
+            int kb = Math.max(1, cfg.getDepthBlock());
+            TileKernel kernel = (type, ids, j0, j1, users, u0, u1, out) ->
+                    embeddingIndex.dotTile(type, ids, j0, j1, users, u0, u1, kb, out);
+            log.info("[HOME-BATCH] start model={}, dim={}, items={}, topK={}, threads={}",
+                    model, dim, items, topK, pool.getParallelism());
+            if (matrix.size() == 0) {
+                finish(State.COMPLETED);
+                return;
+            }
+
+            long afterUserId = 0L;
+            while (true) {
+                var rows = profileRepo.findVectorPage(model, dim, afterUserId, PageRequest.of(0, cfg.getUserPage()));
+                if (rows.isEmpty()) break;
+                afterUserId = (Long) rows.get(rows.size() - 1)[0];
+
+                long[] userIds = new long[rows.size()];
+                float[] userVecs = new float[rows.size() * dim];
+                int m = 0;
+                for (Object[] r : rows) {
+                    // r = [userId, vecBlob]
+                    float[] v = VectorCodec.decode((byte[]) r[1]);
+                    if (v.length != dim) continue;
+                    System.arraycopy(VectorMath.l2normalize(v), 0, userVecs, m * dim, dim);
+                    userIds[m++] = (Long) r[0];
+                }
+
+                long t0 = System.nanoTime();
+                var ranked = score(pool, kernel, userVecs, m, matrix, topK, cfg.getUserBlock(), cfg.getItemBlock());
+                long t1 = System.nanoTime();
+                write(userIds, ranked, m, topK, cfg.getValidHours(), cfg.getWriteBatch());
+                long t2 = System.nanoTime();
+
+                scoreNanos.addAndGet(t1 - t0);
+                writeNanos.addAndGet(t2 - t1);
+                users.addAndGet(m);
+                log.debug("[HOME-BATCH] page users={}, score={}ms, write={}ms, lastUserId={}",
+                        m, (t1 - t0) / 1_000_000, (t2 - t1) / 1_000_000, afterUserId);
+                if (rows.size() < cfg.getUserPage()) break;
+            }
+            finish(State.COMPLETED);
+            var s = status();
+            log.info("[HOME-BATCH] done users={}, items={}, score={}ms, write={}ms, {} users/s (scoring only {} users/s)",
+                    s.users(), s.items(), s.scoreMillis(), s.writeMillis(),
+                    String.format("%.1f", s.usersPerSec()), String.format("%.1f", s.scoredUsersPerSec()));
+        } catch (Exception e) {
+            finish(State.FAILED);
+            log.error("[HOME-BATCH] failed after users={}: {}", users.get(), e.toString(), e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void finish(State s) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        state = s;
+    }
+
+    /** 벡터가 없는 아이템은 실시간 랭킹과 마찬가지로 제외. 타일이 한 타입 slab 만 읽도록 타입별로 모은다 */
+    private Items loadItems(int perType) {
+        LocalDate today = LocalDate.now();
+        List<ItemCandidate> cands = new ArrayList<>(candidateService.findEligible(perType));
+        cands.removeIf(c -> !embeddingIndex.contains(c.type(), c.id()));
+        cands.sort(Comparator.comparing(ItemCandidate::type));
+        int n = cands.size();
+        ItemCandidate[] out = cands.toArray(new ItemCandidate[0]);
+        long[] ids = new long[n];
+        float[] prior = new float[n];
+        for (int j = 0; j < n; j++) {
+            ids[j] = out[j].id();
+            prior[j] = (float) rankingService.prior(out[j], today);
+        }
+        return new Items(out, ids, prior);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<RankingService.Scored>[] score(ForkJoinPool pool, TileKernel kernel, float[] userVecs, int m,
+                                               Items items, int k, int userBlock, int itemBlock) {
+        List<RankingService.Scored>[] out = new List[m];
+        int ub = Math.max(1, userBlock);
+        int ib = Math.max(1, itemBlock);
+        int blocks = (m + ub - 1) / ub;
+        pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(b ->
+                scoreBlock(kernel, userVecs, b * ub, Math.min(m, (b + 1) * ub), items, k, ib, out))).join();
+        return out;
+    }
+
+    /**
+     * 유저 [u0, u1) 한 블록. 아이템 블록(최대 ib 개, 같은 타입) 하나씩 타일을 받아 블록 안 모든 유저의 힙에 넣는다.
+     * 유저별 힙은 [u * k, u * k + k) 칸을 쓰는 점수 최소 힙 (루트 = 현재 k 번째).
+     * 적재 이후 인덱스에서 빠진 아이템(NaN)은 건너뛴다.
+     */
+    static void scoreBlock(TileKernel kernel, float[] userVecs, int u0, int u1, Items matrix, int k, int ib,
+                           List<RankingService.Scored>[] out) {
+        int n = matrix.size();
+        int ub = u1 - u0;
+        int kk = Math.min(k, n);
+        ItemCandidate[] items = matrix.items();
+        long[] ids = matrix.ids();
+        float[] prior = matrix.prior();
+        float sw = (float) RankingService.SIM_WEIGHT;
+
+        float[] tile = new float[ub * ib];
+        float[] heapScore = new float[ub * kk];
+        int[] heapItem = new int[ub * kk];
+        int[] heapSize = new int[ub];
+
+        for (int j0 = 0; j0 < n; ) {
+            ItemType type = items[j0].type();
+            int j1 = j0 + 1;
+            while (j1 < n && j1 - j0 < ib && items[j1].type() == type) j1++;
+            int w = j1 - j0;
+            kernel.dot(type, ids, j0, j1, userVecs, u0, u1, tile);
+            for (int u = 0; u < ub; u++) {
+                int row = u * w;
+                for (int j = 0; j < w; j++) {
+                    float sim = tile[row + j];
+                    if (Float.isNaN(sim)) continue;
+                    offer(heapScore, heapItem, heapSize, u, kk, j0 + j, sw * sim + prior[j0 + j], items);
+                }
+            }
+            j0 = j1;
+        }
+
+        for (int u = 0; u < ub; u++) {
+            int base = u * kk;
+            int[] order = TopK.select(heapSize[u], kk, (a, b) -> {
+                float sa = heapScore[base + a], sb = heapScore[base + b];
+                int ja = heapItem[base + a], jb = heapItem[base + b];
+                return below(sa, ja, sb, jb, items) ? -1 : below(sb, jb, sa, ja, items) ? 1 : 0;
+            });
+            List<RankingService.Scored> ranked = new ArrayList<>(order.length);
+            for (int i : order) ranked.add(new RankingService.Scored(items[heapItem[base + i]], heapScore[base + i]));
+            out[u0 + u] = ranked;
+        }
+    }
+
+    /** 유저 u 의 힙에 (j, s) 제안. 힙 비교도 최종 순서와 같아야 k 번째 경계의 동점이 id 순으로 남는다 */
+    private static void offer(float[] score, int[] item, int[] sizes, int u, int k, int j, float s, ItemCandidate[] items) {
+        int base = u * k;
+        int n = sizes[u];
+        if (n < k) {
+            int pos = n;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (!below(s, j, score[base + parent], item[base + parent], items)) break;
+                score[base + pos] = score[base + parent];
+                item[base + pos] = item[base + parent];
+                pos = parent;
+            }
+            score[base + pos] = s;
+            item[base + pos] = j;
+            sizes[u] = n + 1;
+            return;
+        }
+        if (k == 0 || !below(score[base], item[base], s, j, items)) return;
+        // 루트 교체 후 아래로
+        int pos = 0;
+        int half = k >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < k && below(score[base + child + 1], item[base + child + 1],
+                    score[base + child], item[base + child], items)) child++;
+            if (!below(score[base + child], item[base + child], s, j, items)) break;
+            score[base + pos] = score[base + child];
+            item[base + pos] = item[base + child];
+            pos = child;
+        }
+        score[base + pos] = s;
+        item[base + pos] = j;
+    }
+
+    /** (sa, a) 가 (sb, b) 보다 뒤 순위인지. 순서: 점수 -> 좋아요 수 -> id (실시간 랭킹과 같음) */
+    private static boolean below(float sa, int a, float sb, int b, ItemCandidate[] items) {
+        int c = Float.compare(sa, sb);
+        if (c != 0) return c < 0;
+        c = Integer.compare(items[a].likeCount(), items[b].likeCount());
+        return c != 0 ? c < 0 : items[a].id() < items[b].id();
+    }
+
+    /** 유저 writeBatch 명씩 여러 행 upsert 한 문장으로 (HomeRecommendationStore 와 같은 blob 포맷) */
+    private void write(long[] userIds, List<RankingService.Scored>[] ranked, int m, int k, long validHours, int batch) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime validUntil = now.plusHours(validHours);
+        int step = Math.max(1, batch);
+        for (int from = 0; from < m; from += step) {
+            int to = Math.min(m, from + step);
+            StringBuilder sql = new StringBuilder(UPSERT_HEAD.length() + UPSERT_TAIL.length() + (to - from) * 10);
+            sql.append(UPSERT_HEAD);
+            Object[] args = new Object[(to - from) * 6];
+            int a = 0;
+            for (int i = from; i < to; i++) {
+                if (i > from) sql.append(',');
+                sql.append("(?,?,?,?,?,?)");
+                args[a++] = userIds[i];
+                args[a++] = HomeRecommendationStore.encode(ranked[i]);
+                args[a++] = ranked[i].size();
+                args[a++] = k;
+                args[a++] = now;
+                args[a++] = validUntil;
+            }
+            sql.append(UPSERT_TAIL);
+            jdbcTemplate.update(sql.toString(), args);
+        }
+    }
+}
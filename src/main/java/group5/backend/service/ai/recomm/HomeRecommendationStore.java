@@ -0,0 +1,306 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.domain.recomm.UserHomeRecommendation;
+import group5.backend.dto.category.response.CategoryFeedItemResponse;
+import group5.backend.repository.UserHomeRecommendationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 유저별 홈 추천 사전 계산 저장소.
+ * 랭킹 결과(아이템 키 + 점수)를 user_home_recommendations 에 두고, 요청 시에는 앞에서 size 개를 잘라 조립만 한다.
+ * - 갱신: 최근 홈을 본 유저를 주기적으로 / 즐겨찾기·카테고리 변경 직후 (워커 풀, 유저당 중복 요청은 하나로)
+ * - 오프라인 배치(HomeBatchScoringJob)가 전체 유저를 미리 채워 두면 valid_until 까지 그대로 쓴다
+ * - 미스 / valid_until 초과: 실시간 랭킹 후 저장 (유효 시간 = max-age)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HomeRecommendationStore {
+
+    public record Stats(
+            long hits,
+            long misses,
+            long expired,
+            long invalid,
+            double hitRate,
+            double avgServedAgeSeconds,
+            long maxServedAgeSeconds,
+            long refreshes,
+            long refreshFailures,
+            int activeUsers,
+            int pendingRefreshes,
+            LocalDateTime lastSweepAt,
+            int lastSweepQueued
+    ) {}
+
+    // [type(1) | id(8) | score(4)]
+    private static final int ENTRY_BYTES = 13;
+
+    private final UserHomeRecommendationRepository repo;
+    private final RecommendationService recommendationService;
+    private final CandidateService candidateService;
+    private final CategoryFeedAssembler assembler;
+    private final RecommProperties recommProps;
+    private final PlatformTransactionManager txManager;
+    private final RecommMetrics metrics;
+
+    // 최근 홈 조회 시각 (주기 갱신 대상 선정용)
+    private final Map<Long, Long> lastServed = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastRefreshed = new ConcurrentHashMap<>();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    // 미스 시 실시간 랭킹과 백그라운드 갱신이 겹치면 한 번만 계산 (랭킹 크기가 다르면 결과를 나눠 쓸 수 없으므로 크기도 키에)
+    private final SingleFlight<RankKey, List<RankingService.Scored>> rankFlights = new SingleFlight<>("home-rank");
+
+    private record RankKey(Long userId, int size) {}
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong servedAgeSum = new AtomicLong();
+    private final AtomicLong maxServedAge = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private volatile LocalDateTime lastSweepAt;
+    private volatile int lastSweepQueued;
+
+    private ExecutorService workers;
+    private TransactionTemplate txNew;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger seq = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, recommProps.getHomeFeed().getWorkers()), r -> {
+            Thread t = new Thread(r, "home-refresh-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // 요청 트랜잭션과 분리해 저장 실패가 응답에 영향 주지 않게
+        txNew = new TransactionTemplate(txManager);
+        txNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * 사전 계산 결과로 응답. 저장된 아이템은 지금도 내보낼 수 있는지(삭제/종료) 다시 확인한다.
+     * 없거나 valid_until 을 넘었거나, 요청 size 가 랭킹한 개수보다 크거나, 걸러낸 뒤 size 개가 안 되면 실시간 랭킹 후 저장.
+     */
+    public List<CategoryFeedItemResponse> serve(Long userId, int size) {
+        var cfg = recommProps.getHomeFeed();
+        if (!cfg.isMaterialized()) return recommendationService.recommendHome(userId, size);
+        lastServed.put(userId, System.currentTimeMillis());
+
+        var row = repo.findById(userId).orElse(null);
+        if (row != null) {
+            LocalDateTime now = LocalDateTime.now();
+            long age = Duration.between(row.getComputedAt(), now).toSeconds();
+            if (!now.isAfter(row.getValidUntil())) {
+                var stored = decode(row.getItemsBlob());
+                var servable = size > row.getRequestedSize() ? null
+                        : servableHead(stored, size, candidateService.findServable(keys(stored))::contains);
+                if (servable != null) {
+                    hits.incrementAndGet();
+                    metrics.cache("home_feed", "hit");
+                    servedAgeSum.addAndGet(age);
+                    maxServedAge.accumulateAndGet(age, Math::max);
+                    log.debug("[HOME-MAT] hit userId={}, age={}s", userId, age);
+                    return assembler.toResponses(servable, userId);
+                }
+                invalid.incrementAndGet();
+                metrics.cache("home_feed", "invalid");
+                log.debug("[HOME-MAT] stored result unusable userId={}, size={}, requested={}, stored={}",
+                        userId, size, row.getRequestedSize(), stored.size());
+            } else {
+                expired.incrementAndGet();
+                metrics.cache("home_feed", "expired");
+            }
+        } else {
+            misses.incrementAndGet();
+            metrics.cache("home_feed", "miss");
+        }
+
+        // 실시간: 저장 크기만큼 랭킹해 두고 이번 요청은 앞부분만
+        int n = Math.max(size, cfg.getSize());
+        var ranked = rankFlights.run(new RankKey(userId, n), () -> rankAndSave(userId, n));
+        return assembler.toResponses(head(ranked, size), userId);
+    }
+
+    /** 백그라운드 갱신 요청 (이미 대기 중이면 무시) */
+    public void refreshAsync(Long userId) {
+        if (userId == null || !recommProps.getHomeFeed().isMaterialized()) return;
+        if (!pending.add(userId)) return;
+        try {
+            workers.execute(() -> {
+                try { refresh(userId); }
+                finally { pending.remove(userId); }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(userId);
+        }
+    }
+
+    /** 최근 홈을 본 유저 중 갱신 주기가 지난 유저를 갱신 큐에 넣는다 */
+    @Scheduled(
+            initialDelayString = "${recomm.home-feed.refresh-interval-minutes:10}",
+            fixedDelayString = "${recomm.home-feed.refresh-interval-minutes:10}",
+            timeUnit = TimeUnit.MINUTES
+    )
+    public void sweep() {
+        var cfg = recommProps.getHomeFeed();
+        if (!cfg.isMaterialized()) return;
+        long now = System.currentTimeMillis();
+        long activeCutoff = now - Duration.ofHours(cfg.getActiveHours()).toMillis();
+        // 방금 변경으로 갱신된 유저는 건너뜀
+        long freshCutoff = now - Duration.ofMinutes(cfg.getRefreshIntervalMinutes()).toMillis() / 2;
+
+        int queued = 0;
+        for (var e : lastServed.entrySet()) {
+            Long userId = e.getKey();
+            if (e.getValue() < activeCutoff) {
+                lastServed.remove(userId);
+                lastRefreshed.remove(userId);
+                continue;
+            }
+            if (lastRefreshed.getOrDefault(userId, 0L) > freshCutoff) continue;
+            refreshAsync(userId);
+            queued++;
+        }
+        lastSweepAt = LocalDateTime.now();
+        lastSweepQueued = queued;
+        log.info("[HOME-MAT] sweep active={}, queued={}", lastServed.size(), queued);
+    }
+
+    public Stats stats() {
+        long h = hits.get(), m = misses.get(), x = expired.get(), v = invalid.get();
+        long total = h + m + x + v;
+        return new Stats(
+                h, m, x, v,
+                total == 0 ? 0.0 : (double) h / total,
+                h == 0 ? 0.0 : (double) servedAgeSum.get() / h,
+                maxServedAge.get(),
+                refreshes.get(),
+                refreshFailures.get(),
+                lastServed.size(),
+                pending.size(),
+                lastSweepAt,
+                lastSweepQueued
+        );
+    }
+
+    /* ===== 내부 ===== */
+
+    private void refresh(Long userId) {
+        long t0 = System.nanoTime();
+        try {
+            int n = recommProps.getHomeFeed().getSize();
+            var ranked = rankFlights.run(new RankKey(userId, n), () -> rankAndSave(userId, n));
+            refreshes.incrementAndGet();
+            log.debug("[HOME-MAT] refreshed userId={}, items={}, took={}ms",
+                    userId, ranked.size(), (System.nanoTime() - t0) / 1_000_000);
+        } catch (Exception e) {
+            refreshFailures.incrementAndGet();
+            log.warn("[HOME-MAT] refresh failed userId={}: {}", userId, e.toString());
+        }
+    }
+
+    private List<RankingService.Scored> rankAndSave(Long userId, int size) {
+        var ranked = recommendationService.rankHome(userId, size);
+        save(userId, ranked, size);
+        return ranked;
+    }
+
+    private void save(Long userId, List<RankingService.Scored> ranked, int requestedSize) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            var row = UserHomeRecommendation.builder()
+                    .userId(userId)
+                    .itemsBlob(encode(ranked))
+                    .itemCount(ranked.size())
+                    .requestedSize(requestedSize)
+                    .computedAt(now)
+                    .validUntil(now.plusMinutes(recommProps.getHomeFeed().getMaxAgeMinutes()))
+                    .build();
+            txNew.executeWithoutResult(s -> repo.save(row));
+            lastRefreshed.put(userId, System.currentTimeMillis());
+        } catch (Exception e) {
+            // 동시 갱신과 겹친 경우 등: 다음 갱신 때 다시 저장된다
+            log.warn("[HOME-MAT] save failed userId={}: {}", userId, e.toString());
+        }
+    }
+
+    /**
+     * 저장된 순위에서 servable 을 통과한 것만 앞에서 size 개.
+     * 빠진 아이템 때문에 size 개를 못 채우면 null (실시간 재계산). 처음부터 후보가 모자랐던 결과는 그대로 쓴다.
+     */
+    static List<RankingService.Scored> servableHead(List<RankingService.Scored> stored, int size, Predicate<ItemKey> servable) {
+        List<RankingService.Scored> out = new ArrayList<>(Math.min(size, stored.size()));
+        int dropped = 0;
+        for (var s : stored) {
+            if (out.size() == size) break;
+            if (servable.test(ItemKey.of(s.item()))) out.add(s);
+            else dropped++;
+        }
+        return out.size() < size && dropped > 0 ? null : out;
+    }
+
+    private static List<ItemKey> keys(List<RankingService.Scored> ranked) {
+        List<ItemKey> out = new ArrayList<>(ranked.size());
+        for (var s : ranked) out.add(ItemKey.of(s.item()));
+        return out;
+    }
+
+    private static List<RankingService.Scored> head(List<RankingService.Scored> ranked, int size) {
+        return ranked.size() > size ? ranked.subList(0, size) : ranked;
+    }
+
+    static byte[] encode(List<RankingService.Scored> ranked) {
+        ByteBuffer buf = ByteBuffer.allocate(ranked.size() * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (var s : ranked) {
+            buf.put((byte) s.item().type().ordinal());
+            buf.putLong(s.item().id());
+            buf.putFloat((float) s.score());
+        }
+        return buf.array();
+    }
+
+    /** 조립에는 타입/id 만 쓰이므로 나머지 후보 필드는 비워 둔다 */
+    static List<RankingService.Scored> decode(byte[] blob) {
+        ByteBuffer buf = ByteBuffer.wrap(blob).order(ByteOrder.LITTLE_ENDIAN);
+        ItemType[] types = ItemType.values();
+        List<RankingService.Scored> out = new ArrayList<>(blob.length / ENTRY_BYTES);
+        while (buf.remaining() >= ENTRY_BYTES) {
+            ItemType type = types[buf.get()];
+            long id = buf.getLong();
+            float score = buf.getFloat();
+            out.add(new RankingService.Scored(ItemCandidate.of(type, id, 0, null, null, null, null), score));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,39 @@
+package group5.backend.service.ai.recomm;
+
+/**
+ * 벡터 단위 대칭 int8 양자화: q[i] = round(v[i] / scale), scale = max|v| / 127.
+ * 복원값은 q[i] * scale, 코사인은 scale * (q·x) / (|v̂| |x|).
+ */
+public final class Int8Quantizer {
+    private Int8Quantizer(){}
+
+    /** src[srcOff..+dim] 를 dst[dstOff..] 에 양자화하고 scale 반환 */
+    public static float quantize(float[] src, int srcOff, byte[] dst, int dstOff, int dim) {
+        float maxAbs = 0f;
+        for (int i = 0; i < dim; i++) maxAbs = Math.max(maxAbs, Math.abs(src[srcOff + i]));
+        if (maxAbs == 0f) {
+            for (int i = 0; i < dim; i++) dst[dstOff + i] = 0;
+            return 0f;
+        }
+        float scale = maxAbs / 127f;
+        float inv = 1f / scale;
+        for (int i = 0; i < dim; i++) {
+            int q = Math.round(src[srcOff + i] * inv);
+            dst[dstOff + i] = (byte) Math.max(-127, Math.min(127, q));
+        }
+        return scale;
+    }
+
+    /** 복원 벡터의 L2 norm (= scale * |q|) */
+    public static float norm(byte[] q, int off, int dim, float scale) {
+        long ss = 0;
+        for (int i = 0; i < dim; i++) ss += q[off + i] * q[off + i];
+        return (float) (Math.sqrt((double) ss) * scale);
+    }
+
+    public static float[] dequantize(byte[] q, int off, int dim, float scale) {
+        float[] out = new float[dim];
+        for (int i = 0; i < dim; i++) out[i] = q[off + i] * scale;
+        return out;
+    }
+}
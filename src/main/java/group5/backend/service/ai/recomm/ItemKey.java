@@ -0,0 +1,10 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.ItemType;
+
+/** (타입, id) 아이템 식별자 */
+public record ItemKey(ItemType type, Long id) {
+    public static ItemKey of(ItemCandidate c) {
+        return new ItemKey(c.type(), c.id());
+    }
+}
@@ -0,0 +1,106 @@
+package group5.backend.service.ai.recomm;
+
+/**
+ * long -> int 오픈 어드레싱 해시맵 (선형 탐사, 박싱 없음).
+ * key 0 은 빈 칸 표시로 쓰므로 넣을 수 없다. 쓰기는 단일 스레드 전용, 다 채운 뒤에는 여러 스레드가 읽어도 된다.
+ */
+final class LongIntHashMap {
+
+    interface Entry {
+        void accept(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expected) {
+        // 적재율 0.5 이하 유지
+        int cap = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+        keys = new long[cap];
+        values = new int[cap];
+        mask = cap - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(long key, int missing) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = keys[i];
+            if (k == key) return values[i];
+            if (k == 0) return missing;
+        }
+    }
+
+    void put(long key, int value) {
+        int i = find(key);
+        if (keys[i] == 0) {
+            keys[i] = key;
+            values[i] = value;
+            grown();
+        } else {
+            values[i] = value;
+        }
+    }
+
+    void addTo(long key, int delta) {
+        int i = find(key);
+        if (keys[i] == 0) {
+            keys[i] = key;
+            values[i] = delta;
+            grown();
+        } else {
+            values[i] += delta;
+        }
+    }
+
+    /** other 의 값을 모두 더한다 */
+    void addAll(LongIntHashMap other) {
+        long[] ok = other.keys;
+        int[] ov = other.values;
+        for (int i = 0; i < ok.length; i++) {
+            if (ok[i] != 0) addTo(ok[i], ov[i]);
+        }
+    }
+
+    void forEach(Entry consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    /* ===== 아래는 내부 유틸 ===== */
+
+    private int find(long key) {
+        if (key == 0) throw new IllegalArgumentException("key 0 is reserved");
+        int i = slot(key);
+        while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+        return i;
+    }
+
+    private int slot(long key) {
+        // 연속된 id/인덱스가 한쪽으로 몰리지 않게 섞는다
+        long h = key * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grown() {
+        if (++size * 2 <= keys.length) return;
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k == 0) continue;
+            int j = slot(k);
+            while (keys[j] != 0) j = (j + 1) & mask;
+            keys[j] = k;
+            values[j] = oldValues[i];
+        }
+    }
+}
@@ -1,57 +1,212 @@
 // src/main/java/group5/backend/service/ai/recomm/OpenAIEmbeddingClient.java
 package group5.backend.service.ai.recomm;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.annotation.PostConstruct;
+import group5.backend.exception.openai.EmbeddingBatchFailedException;
+import group5.backend.service.ai.openai.OpenAiRateScheduler;
+import group5.backend.service.ai.openai.OpenAiRateScheduler.Priority;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class OpenAIEmbeddingClient {
 
+    // 배치 한도: API는 요청당 2048개 / 30만 토큰까지 허용, 여유를 두고 자른다
+    private static final int MAX_BATCH_ITEMS = 256;
+    private static final int MAX_BATCH_TOKENS = 200_000;
+    private static final int MAX_INPUT_TOKENS = 8_000;
+    // 벡터를 little-endian float32 base64 로 받아 List<Double> 없이 바로 float[] 로 디코딩
+    private static final String ENCODING_FORMAT = "base64";
+
     private final WebClient openAiWebClient;
     private final group5.backend.config.ai.OpenAiProperties props;
+    private final OpenAiRateScheduler rateScheduler;
+
+    // 현재 서빙 차원. 기동 시 openai.embedding-dim, 차원 전환(cut-over) 시 switchDim 으로 변경
+    private volatile int activeDim;
+
+    @PostConstruct
+    void init() {
+        activeDim = props.getEmbeddingDim();
+    }
 
     public float[] embed(String text) {
         long t0 = System.nanoTime();
         try {
             // base-url: https://api.openai.com/v1  이므로 여기서는 "/embeddings" 만!
-            var resp = openAiWebClient.post()
+            // 프로필 빌드 등 요청 스레드에서 기다리는 호출
+            int dim = activeDim;
+            var request = new EmbeddingRequest(props.getEmbeddingModel(), text, dimensionsParam(dim), ENCODING_FORMAT);
+            var resp = rateScheduler.call(Priority.INTERACTIVE, estimateTokens(text), () -> openAiWebClient.post()
                     .uri("/embeddings")
-                    .bodyValue(new EmbeddingRequest(props.getEmbeddingModel(), text))
+                    .bodyValue(request)
                     .retrieve()
                     .onStatus(HttpStatusCode::isError, r -> r.createException())
-                    .bodyToMono(EmbeddingResponse.class)
-                    .block();
+                    .bodyToMono(byte[].class)
+                    .block());
 
-            float[] vec = (resp == null) ? null : resp.firstVector();
+            var items = (resp == null) ? List.<EmbeddingResponseParser.Item>of() : EmbeddingResponseParser.parse(resp, dim);
+            float[] vec = items.isEmpty() ? null : items.get(0).vector();
             long ms = (System.nanoTime() - t0) / 1_000_000;
             log.debug("[EMB] ok model={}, dim={}, took={}ms",
                     props.getEmbeddingModel(), (vec == null ? 0 : vec.length), ms);
             return vec;
+        } catch (IOException e) {
+            log.error("[EMB] unreadable response model={} {}", props.getEmbeddingModel(), e.toString(), e);
+            throw new UncheckedIOException(e);
         } catch (Exception e) {
             log.error("[EMB] failed model={} {}", props.getEmbeddingModel(), e.toString(), e);
             throw e;
         }
     }
 
-    public String modelName() { return props.getEmbeddingModel(); }
-    public int dim() { return props.getEmbeddingDim(); }
+    /**
+     * 여러 텍스트를 배열 input 으로 묶어 임베딩한다.
+     * 아이템 수/추정 토큰/예상 응답 크기 기준으로 청크를 나누고, 결과는 입력 순서 그대로 반환한다.
+     * 청크 하나라도 실패하면 거기서 멈추고 EmbeddingBatchFailedException 을 던진다 (이미 받은 벡터는 partial 로 전달).
+     */
+    public List<float[]> embedBatch(List<String> texts) {
+        return embedBatch(texts, activeDim);
+    }
 
-    // ---- 요청/응답 DTO ----
-    record EmbeddingRequest(String model, String input) {}
-
-    record EmbeddingResponse(java.util.List<Data> data) {
-        float[] firstVector() {
-            if (data == null || data.isEmpty() || data.get(0).embedding == null) return null;
-            var list = data.get(0).embedding;
-            float[] v = new float[list.size()];
-            for (int i = 0; i < list.size(); i++) v[i] = list.get(i).floatValue();
-            return v;
+    /** 차원을 지정한 배치 임베딩 (차원 전환 중 새 차원 행 생성용) */
+    public List<float[]> embedBatch(List<String> texts, int dim) {
+        if (texts == null || texts.isEmpty()) return List.of();
+        float[][] out = new float[texts.size()][];
+        int embedded = 0;
+        for (Chunk c : plan(texts, maxItemsFor(dim, props.getMaxResponseBytes()))) {
+            try {
+                embedded += requestBatch(texts.subList(c.start(), c.end()), out, c.start(), c.tokens(), dim);
+            } catch (Exception e) {
+                log.error("[EMB] batch failed model={}, dim={}, items={}..{} of {}, embedded so far={} {}",
+                        props.getEmbeddingModel(), dim, c.start(), c.end(), texts.size(), embedded, e.toString());
+                throw new EmbeddingBatchFailedException("embedding batch failed at item " + c.start(),
+                        Arrays.asList(out), embedded, e);
+            }
+        }
+        return Arrays.asList(out);
+    }
+
+    /** 요청 하나에 담을 입력 구간 [start, end) 와 추정 토큰 수 */
+    record Chunk(int start, int end, int tokens) {}
+
+    /** 입력 순서를 지키며 아이템 수(maxItems)와 토큰 한도를 넘지 않게 나눈다 */
+    static List<Chunk> plan(List<String> texts, int maxItems) {
+        List<Chunk> chunks = new ArrayList<>();
+        int n = texts.size(), start = 0;
+        while (start < n) {
+            int end = start, tokens = 0;
+            while (end < n && end - start < maxItems) {
+                int t = Math.min(estimateTokens(texts.get(end)), MAX_INPUT_TOKENS);
+                if (end > start && tokens + t > MAX_BATCH_TOKENS) break;
+                tokens += t;
+                end++;
+            }
+            chunks.add(new Chunk(start, end, tokens));
+            start = end;
         }
-        record Data(java.util.List<Double> embedding) {}
+        return chunks;
+    }
+
+    /** 응답이 버퍼 상한(maxResponseBytes)의 절반을 넘지 않도록 청크당 아이템 수를 정한다 */
+    static int maxItemsFor(int dim, int maxResponseBytes) {
+        long perItem = responseBytesPerItem(dim);
+        long fit = (maxResponseBytes / 2L) / perItem;
+        return (int) Math.max(1, Math.min(MAX_BATCH_ITEMS, fit));
+    }
+
+    /** base64 float32 한 항목의 응답 크기 추정 (인코딩 문자열 + index/object 등 JSON 껍데기) */
+    static long responseBytesPerItem(int dim) {
+        return 4L * ((4L * dim + 2) / 3) + 128;
     }
+
+    /** 받은 벡터 수를 반환. 응답에 빠진 항목이 있으면 실패로 본다 */
+    private int requestBatch(List<String> chunk, float[][] out, int offset, int estTokens, int dim) throws IOException {
+        long t0 = System.nanoTime();
+        List<String> input = new ArrayList<>(chunk.size());
+        for (String t : chunk) input.add(clip(t));
+
+        // 배치는 백필/작업 큐 워커에서만 호출되므로 BACKGROUND
+        var request = new EmbeddingBatchRequest(props.getEmbeddingModel(), input, dimensionsParam(dim), ENCODING_FORMAT);
+        var resp = rateScheduler.call(Priority.BACKGROUND, estTokens, () -> openAiWebClient.post()
+                .uri("/embeddings")
+                .bodyValue(request)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, r -> r.createException())
+                .bodyToMono(byte[].class)
+                .block());
+        if (resp == null) throw new IOException("empty embedding response");
+
+        // 응답 순서는 보장되지 않으므로 index 로 제자리에 넣는다
+        int filled = place(EmbeddingResponseParser.parse(resp, dim), out, offset, chunk.size());
+        if (filled < chunk.size()) {
+            throw new IOException("embedding response has " + filled + " of " + chunk.size() + " items");
+        }
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        log.debug("[EMB] batch ok model={}, dim={}, items={}, estTokens={}, respBytes={}, took={}ms",
+                props.getEmbeddingModel(), dim, chunk.size(), estTokens, resp.length, ms);
+        return filled;
+    }
+
+    /** 응답 항목을 out[offset + index] 에 넣고, 범위 안의 서로 다른 index 로 채운 개수를 반환 */
+    static int place(List<EmbeddingResponseParser.Item> items, float[][] out, int offset, int size) {
+        int filled = 0;
+        for (var d : items) {
+            if (d.index() < 0 || d.index() >= size || d.vector() == null) continue;
+            if (out[offset + d.index()] == null) filled++;
+            out[offset + d.index()] = d.vector();
+        }
+        return filled;
+    }
+
+    static int estimateTokens(String s) {
+        return OpenAiRateScheduler.estimateTokens(s);
+    }
+
+    /** 단일 입력 토큰 한도를 넘지 않도록 자르고, 빈 문자열은 공백으로 대체 */
+    private static String clip(String s) {
+        if (s == null || s.isBlank()) return " ";
+        if (estimateTokens(s) <= MAX_INPUT_TOKENS) return s;
+        return s.substring(0, Math.min(s.length(), MAX_INPUT_TOKENS));
+    }
+
+    /** text-embedding-3 계열만 dimensions(Matryoshka 축소) 파라미터를 지원 */
+    public boolean supportsDimensions() {
+        return props.getEmbeddingModel() != null && props.getEmbeddingModel().startsWith("text-embedding-3");
+    }
+
+    private Integer dimensionsParam(int dim) {
+        return supportsDimensions() ? dim : null;
+    }
+
+    public String modelName() { return props.getEmbeddingModel(); }
+    public int dim() { return activeDim; }
+
+    /** 서빙 차원 전환 (EmbeddingIndex 를 새 차원으로 다시 적재한 직후 호출) */
+    public void switchDim(int dim) {
+        log.info("[EMB] active dim {} -> {}", activeDim, dim);
+        activeDim = dim;
+    }
+
+    // ---- 요청/응답 DTO ----
+    // 응답은 EmbeddingResponseParser 로 직접 읽는다
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record EmbeddingRequest(String model, String input, Integer dimensions,
+                            @JsonProperty("encoding_format") String encodingFormat) {}
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record EmbeddingBatchRequest(String model, List<String> input, Integer dimensions,
+                                 @JsonProperty("encoding_format") String encodingFormat) {}
 }
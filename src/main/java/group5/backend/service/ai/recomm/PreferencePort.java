@@ -1,5 +1,8 @@
 package group5.backend.service.ai.recomm;
 
+import group5.backend.domain.recomm.ItemType;
+
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -12,4 +15,10 @@ public interface PreferencePort {
     List<Long> likedStoreIds(Long userId);
     List<Long> likedEventIds(Long userId);
     List<Long> likedPopupIds(Long userId);
+
+    /** 주어진 아이템 중 하나라도 '좋아요'한 유저 id (아이템 벡터가 바뀐 경우 프로필 무효화용) */
+    List<Long> likerIds(ItemType type, Collection<Long> itemIds);
+
+    /** 즐겨찾기/카테고리 변경 시 캐시된 선호 데이터 무효화 (캐시가 없는 구현은 무시) */
+    default void evict(Long userId) {}
 }
@@ -0,0 +1,132 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.ItemType;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * 좋아요 프로필의 벡터 합과, 그 합에 실제로 더해진 아이템 목록(멤버).
+ * 멤버는 아이템 키와 더할 당시 벡터의 해시를 함께 기억한다. 증분 갱신은 멤버인 아이템만,
+ * 그것도 더했을 때와 같은 벡터일 때만 빼므로 재임베딩/중복 토글/벡터 없던 아이템으로 합이 어긋나지 않는다.
+ * 맞출 수 없는 경우(재임베딩된 멤버 등)는 REBUILD 를 돌려주고 호출 측이 전체 빌드한다.
+ * 멤버 직렬화: [itemKey(8) | vecHash(4)] * n, little-endian, itemKey 오름차순.
+ */
+final class ProfileSum {
+
+    enum Result { UPDATED, UNCHANGED, REBUILD }
+
+    private static final int ENTRY_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final float[] sum;
+    private long[] keys;
+    private int[] hashes;
+    private int size;
+
+    ProfileSum(int dim) {
+        this(new float[dim], new long[8], new int[8], 0);
+    }
+
+    private ProfileSum(float[] sum, long[] keys, int[] hashes, int size) {
+        this.sum = sum;
+        this.keys = keys;
+        this.hashes = hashes;
+        this.size = size;
+    }
+
+    /** 저장된 합/멤버 복원. 멤버 정보가 없으면(이전 포맷) null -> 호출 측이 다시 빌드 */
+    static ProfileSum decode(float[] sum, byte[] members) {
+        if (sum == null || members == null || members.length % ENTRY_BYTES != 0) return null;
+        int n = members.length / ENTRY_BYTES;
+        long[] keys = new long[Math.max(n, 8)];
+        int[] hashes = new int[keys.length];
+        ByteBuffer bb = ByteBuffer.wrap(members).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < n; i++) {
+            keys[i] = bb.getLong();
+            hashes[i] = bb.getInt();
+        }
+        return new ProfileSum(sum, keys, hashes, n);
+    }
+
+    byte[] encodeMembers() {
+        ByteBuffer bb = ByteBuffer.allocate(size * ENTRY_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < size; i++) bb.putLong(keys[i]).putInt(hashes[i]);
+        return bb.array();
+    }
+
+    /** 전체 빌드용: 처음 보는 아이템만 더한다. 더했으면 true */
+    boolean add(ItemType type, Long id, float[] vec) {
+        long key = key(type, id);
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        if (at >= 0 || vec == null || vec.length != sum.length) return false;
+        for (int i = 0; i < sum.length; i++) sum[i] += vec[i];
+        insert(-at - 1, key, vectorHash(vec));
+        return true;
+    }
+
+    /**
+     * 즐겨찾기 토글 한 건 반영. vec 는 아이템의 현재 인덱스 벡터 (없으면 null).
+     * - 좋아요: 이미 같은 벡터로 멤버면 그대로, 다른 벡터로 멤버면 REBUILD, 벡터가 없으면 REBUILD(빌드도 건너뛰므로 합은 그대로지만 이후 임베딩 시점을 알 수 없음)
+     * - 취소: 멤버가 아니면 그대로(더한 적 없음), 더할 때와 같은 벡터면 빼고, 벡터가 바뀌었거나 사라졌으면 REBUILD
+     */
+    Result apply(ItemType type, Long id, float[] vec, boolean liked) {
+        long key = key(type, id);
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        boolean usable = vec != null && vec.length == sum.length;
+        if (liked) {
+            if (!usable) return Result.REBUILD;
+            if (at >= 0) return hashes[at] == vectorHash(vec) ? Result.UNCHANGED : Result.REBUILD;
+            for (int i = 0; i < sum.length; i++) sum[i] += vec[i];
+            insert(-at - 1, key, vectorHash(vec));
+            return Result.UPDATED;
+        }
+        if (at < 0) return Result.UNCHANGED;
+        if (!usable || hashes[at] != vectorHash(vec)) return Result.REBUILD;
+        for (int i = 0; i < sum.length; i++) sum[i] -= vec[i];
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(hashes, at + 1, hashes, at, size - at - 1);
+        size--;
+        return Result.UPDATED;
+    }
+
+    boolean contains(ItemType type, Long id) {
+        return Arrays.binarySearch(keys, 0, size, key(type, id)) >= 0;
+    }
+
+    float[] sum() {
+        return sum;
+    }
+
+    int count() {
+        return size;
+    }
+
+    /** 벡터 내용 지문 (재임베딩/차원 변경 감지용). float 비트 그대로 섞는다 */
+    static int vectorHash(float[] v) {
+        long h = 0x9E37_79B9_7F4A_7C15L ^ v.length;
+        for (float x : v) {
+            h = (h ^ Float.floatToIntBits(x)) * 0xBF58_476D_1CE4_E5B9L;
+            h ^= h >>> 31;
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /* ===== 아래는 내부 유틸 ===== */
+
+    private void insert(int at, long key, int hash) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(hashes, at, hashes, at + 1, size - at);
+        keys[at] = key;
+        hashes[at] = hash;
+        size++;
+    }
+
+    private static long key(ItemType type, Long id) {
+        return ((long) type.ordinal() << 56) | id;
+    }
+}
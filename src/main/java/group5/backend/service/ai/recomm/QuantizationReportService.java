@@ -0,0 +1,174 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.repository.ItemEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * int8 양자화 정확도 리포트.
+ * DB 의 원본(float32) 벡터 표본으로 float 코사인과 int8 코사인을 비교하고,
+ * 오차 분포 / top-K 일치율 / 메모리 / 스코어링 속도를 계산한다. (현재 인덱스 모드와 무관)
+ * 메모리는 표본을 인덱스에 올렸을 때 기준이고, ANN 이 켜져 있으면 HNSW 의 float32 사본(annBytes)까지 더한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuantizationReportService {
+
+    private static final int LOAD_PAGE = 500;
+    // 요청 한 번의 메모리/시간 상한 (오차 배열이 queries x sample 개)
+    public static final int MAX_SAMPLE = 10_000;
+    public static final int MAX_QUERIES = 200;
+    public static final int MAX_K = 100;
+
+    private final ItemEmbeddingRepository itemEmbRepo;
+    private final OpenAIEmbeddingClient openai;
+    private final AnnCandidateIndex annIndex;
+    private final RecommProperties recommProps;
+
+    public record Report(
+            int vectors,
+            int queries,
+            int k,
+            int dim,
+            boolean vectorApi,
+            double meanAbsError,
+            double p99AbsError,
+            double maxAbsError,
+            double recallAtK,
+            long float32Bytes,
+            long int8Bytes,
+            long annBytes,
+            double float32NanosPerVector,
+            double int8NanosPerVector
+    ) {}
+
+    /** 값은 1 이상이어야 하고, 상한(MAX_*)을 넘으면 상한으로 줄인다 */
+    public Report run(int sample, int queries, int k) {
+        if (sample <= 0 || queries <= 0 || k <= 0) {
+            throw new IllegalArgumentException("sample, queries, k must be positive");
+        }
+        sample = Math.min(sample, MAX_SAMPLE);
+        queries = Math.min(queries, MAX_QUERIES);
+        k = Math.min(k, MAX_K);
+        int dim = openai.dim();
+        List<float[]> vecs = loadSample(sample, dim);
+        int n = vecs.size();
+        if (n < 2) return new Report(n, 0, k, dim, SimdDot.vectorApiEnabled(), 0, 0, 0, 0, 0, 0, 0, 0, 0);
+
+        // 연속 배열로 적재 (float 원본 / int8 양자화)
+        float[] data = new float[n * dim];
+        float[] norms = new float[n];
+        byte[] qdata = new byte[n * dim];
+        float[] scales = new float[n];
+        float[] qnorms = new float[n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(vecs.get(i), 0, data, i * dim, dim);
+            norms[i] = VectorMath.norm(vecs.get(i));
+            scales[i] = Int8Quantizer.quantize(data, i * dim, qdata, i * dim, dim);
+            qnorms[i] = Int8Quantizer.norm(qdata, i * dim, dim, scales[i]);
+        }
+
+        int qCount = Math.min(queries, n);
+        int[] qIdx = new Random(42).ints(0, n).distinct().limit(qCount).toArray();
+        double[] exact = new double[n];
+        double[] approx = new double[n];
+        double[] errors = new double[qCount * n];
+        int e = 0;
+        double recallSum = 0;
+        long floatNanos = 0, int8Nanos = 0;
+
+        for (int qi : qIdx) {
+            float[] q = vecs.get(qi);
+            float qn = norms[qi];
+
+            long t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) exact[i] = SimdDot.dot(q, 0, data, i * dim, dim) / ((double) qn * norms[i]);
+            long t1 = System.nanoTime();
+            for (int i = 0; i < n; i++) approx[i] = SimdDot.dot(q, qdata, i * dim, dim) * scales[i] / ((double) qn * qnorms[i]);
+            long t2 = System.nanoTime();
+            floatNanos += t1 - t0;
+            int8Nanos += t2 - t1;
+
+            for (int i = 0; i < n; i++) errors[e++] = Math.abs(exact[i] - approx[i]);
+            recallSum += overlap(topK(exact, k, qi), topK(approx, k, qi));
+        }
+
+        double[] errs = Arrays.copyOf(errors, e);
+        Arrays.sort(errs);
+        double mean = Arrays.stream(errs).average().orElse(0);
+        long scored = (long) qCount * n;
+        long annBytes = annBytes(n, dim);
+
+        var report = new Report(
+                n, qCount, k, dim, SimdDot.vectorApiEnabled(),
+                mean,
+                errs[(int) Math.min(errs.length - 1, Math.floor(errs.length * 0.99))],
+                errs[errs.length - 1],
+                recallSum / qCount,
+                (long) n * (dim * 4L + 4L) + annBytes,
+                (long) n * (dim + 8L) + annBytes,
+                annBytes,
+                (double) floatNanos / scored,
+                (double) int8Nanos / scored
+        );
+        log.info("[QUANT] {}", report);
+        return report;
+    }
+
+    private List<float[]> loadSample(int sample, int dim) {
+        List<float[]> out = new ArrayList<>(sample);
+        long afterId = 0L;
+        while (out.size() < sample) {
+            var page = itemEmbRepo.findVectorPage(openai.modelName(), dim, afterId, PageRequest.of(0, LOAD_PAGE));
+            if (page.isEmpty()) break;
+            for (Object[] r : page) {
+                // r = [id, itemType, itemId, dim, vecBlob, vecJson, normalized]
+                afterId = (Long) r[0];
+                try {
+                    float[] v = VectorCodec.read((byte[]) r[4], (String) r[5]);
+                    if (v != null && v.length == dim) out.add(v);
+                } catch (Exception ignore) {
+                    // 읽을 수 없는 행은 표본에서 제외
+                }
+                if (out.size() >= sample) break;
+            }
+            if (page.size() < LOAD_PAGE) break;
+        }
+        return out;
+    }
+
+    /**
+     * 표본 n 개에 해당하는 HNSW 사본 크기. HNSW 는 양자화와 무관하게 float32 로 보관하고
+     * 재빌드 전까지 tombstone 노드도 들고 있으므로, 서빙 중인 인덱스의 tombstone 비율만큼 더 잡는다.
+     */
+    private long annBytes(int n, int dim) {
+        if (!recommProps.getAnn().isEnabled()) return 0;
+        int alive = annIndex.size();
+        double nodesPerVector = alive == 0 ? 1.0 : (double) (alive + annIndex.tombstones()) / alive;
+        return Math.round(n * (double) dim * Float.BYTES * nodesPerVector);
+    }
+
+    /** 자기 자신(self)을 제외한 상위 k 인덱스 */
+    private static Set<Integer> topK(double[] scores, int k, int self) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Comparator.comparingDouble(i -> scores[i]));
+        for (int i = 0; i < scores.length; i++) {
+            if (i == self) continue;
+            heap.add(i);
+            if (heap.size() > k) heap.poll();
+        }
+        return new HashSet<>(heap);
+    }
+
+    private static double overlap(Set<Integer> truth, Set<Integer> got) {
+        if (truth.isEmpty()) return 1.0;
+        int hit = 0;
+        for (int i : got) if (truth.contains(i)) hit++;
+        return (double) hit / truth.size();
+    }
+}
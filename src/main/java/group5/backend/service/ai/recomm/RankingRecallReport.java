@@ -0,0 +1,104 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.repository.UserProfileEmbeddingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 2단계 랭킹 recall@K 리포트.
+ * 좋아요 기반 프로필이 있는 유저 표본마다 실제 후보를 뽑아, 전체 차원 전수 점수화 top-K 와
+ * 2단계(앞 prefilter-dim 차원 거르기 -> 전체 차원) top-K 의 일치율과 소요 시간을 비교한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RankingRecallReport {
+
+    private final UserProfileEmbeddingRepository profileRepo;
+    private final UserProfileService userProfileService;
+    private final CandidateService candidateService;
+    private final RankingService rankingService;
+    private final RecommProperties recommProps;
+
+    // 요청 한 번의 상한 (유저마다 후보 조회 + 두 번 랭킹)
+    public static final int MAX_USERS = 200;
+    public static final int MAX_POOL = 5_000;
+
+    public record Report(
+            int users,
+            int k,
+            double avgCandidates,
+            int prefilterDim,
+            int prefilterKeep,
+            double recallAtK,
+            double minRecallAtK,
+            double exhaustiveMillis,
+            double twoStageMillis
+    ) {}
+
+    /** 값은 1 이상이어야 하고, users/pool 은 상한(MAX_*)으로, k 는 pool 이하로 줄인다 */
+    public Report run(int users, int k, int pool) {
+        if (users <= 0 || k <= 0 || pool <= 0) {
+            throw new IllegalArgumentException("users, k, pool must be positive");
+        }
+        users = Math.min(users, MAX_USERS);
+        pool = Math.min(pool, MAX_POOL);
+        k = Math.min(k, pool);
+        var cfg = recommProps.getRanking();
+        List<Long> userIds = profileRepo.findLikeBasedUserIds(0L, PageRequest.of(0, users));
+
+        int measured = 0;
+        long candidates = 0;
+        double recallSum = 0, minRecall = 1.0;
+        long exhaustiveNanos = 0, twoStageNanos = 0;
+        for (Long userId : userIds) {
+            float[] userVec = userProfileService.getOrBuild(userId);
+            if (userVec == null) continue;
+            var cands = candidateService.findForUser(userId, userVec, pool);
+
+            long t0 = System.nanoTime();
+            var exact = rankingService.rank(userVec, cands, k, false);
+            long t1 = System.nanoTime();
+            var fast = rankingService.rank(userVec, cands, k, true);
+            long t2 = System.nanoTime();
+
+            double recall = recall(exact, fast);
+            recallSum += recall;
+            minRecall = Math.min(minRecall, recall);
+            exhaustiveNanos += t1 - t0;
+            twoStageNanos += t2 - t1;
+            candidates += cands.size();
+            measured++;
+        }
+
+        var report = measured == 0
+                ? new Report(0, k, 0, cfg.getPrefilterDim(), cfg.getPrefilterKeep(), 0, 0, 0, 0)
+                : new Report(
+                        measured, k,
+                        (double) candidates / measured,
+                        cfg.getPrefilterDim(), cfg.getPrefilterKeep(),
+                        recallSum / measured,
+                        minRecall,
+                        exhaustiveNanos / 1e6 / measured,
+                        twoStageNanos / 1e6 / measured
+                );
+        log.info("[RANK] recall report {}", report);
+        return report;
+    }
+
+    private static double recall(List<RankingService.Scored> truth, List<RankingService.Scored> got) {
+        if (truth.isEmpty()) return 1.0;
+        Set<ItemKey> want = new HashSet<>();
+        for (var s : truth) want.add(ItemKey.of(s.item()));
+        int hit = 0;
+        for (var s : got) if (want.contains(ItemKey.of(s.item()))) hit++;
+        return (double) hit / want.size();
+    }
+}
@@ -1,22 +1,19 @@
 package group5.backend.service.ai.recomm;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import group5.backend.config.ai.OpenAiProperties;
-import group5.backend.domain.event.Event;
-import group5.backend.domain.popup.Popup;
-import group5.backend.domain.store.Store;
-import group5.backend.domain.recomm.ItemEmbedding;
-import group5.backend.domain.recomm.ItemType;
-import group5.backend.repository.*;
+import group5.backend.config.recomm.RecommProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 @Slf4j
 @Service
@@ -25,198 +22,143 @@ public class RankingService {
 
     public record Scored(ItemCandidate item, double score) {}
 
-    private final ItemEmbeddingRepository itemEmbRepo;
-    private final StoreRepository storeRepository;
-    private final EventRepository eventRepository;
-    private final PopupRepository popupRepository;
+    // 최종 점수 = SIM_WEIGHT * 코사인 + prior(최근성, 인기) + 공동 좋아요 가산점
+    static final double SIM_WEIGHT = 0.75;
 
-    private final OpenAIEmbeddingClient openai;
-    private final OpenAiProperties props;
+    private final EmbeddingIndex embeddingIndex;
+    private final EmbeddingWorkQueue embeddingWorkQueue;
+    private final RecommProperties recommProps;
 
-    private final ObjectMapper om = new ObjectMapper();
+    // 큰 후보 집합 점수화 전용 (공용 풀과 분리)
+    private ForkJoinPool scoringPool;
 
-    public List<Scored> rank(float[] userVec, List<ItemCandidate> candidates, int size) {
-        // 0) 없으면 생성 (최소 변경)
-        hydrateMissingEmbeddings(candidates);
-
-        Map<Long, float[]> storeVecs = batchVec(ItemType.STORE, idsOf(candidates, ItemType.STORE));
-        Map<Long, float[]> eventVecs = batchVec(ItemType.EVENT, idsOf(candidates, ItemType.EVENT));
-        Map<Long, float[]> popupVecs = batchVec(ItemType.POPUP, idsOf(candidates, ItemType.POPUP));
-
-        List<Scored> list = new ArrayList<>(candidates.size());
-        for (var c : candidates) {
-            float[] v = switch (c.type()) {
-                case STORE -> storeVecs.get(c.id());
-                case EVENT -> eventVecs.get(c.id());
-                case POPUP -> popupVecs.get(c.id());
-            };
-            if (v == null) continue;
-
-            double sim = cosine(userVec, v);
-            double like = Math.tanh(Math.log(1 + c.likeCount()) / 5.0);
-            double recent = recentness(c);
-
-            double score = 0.75*sim + 0.10*recent + 0.10*like + 0.05*0.0;
-            list.add(new Scored(c, score));
-        }
-
-        list.sort(Comparator.comparingDouble(Scored::score).reversed()
-                .thenComparing(s -> s.item().likeCount(), Comparator.reverseOrder())
-                .thenComparing(s -> s.item().id(), Comparator.reverseOrder()));
-
-        return list.size() > size ? list.subList(0, size) : list;
-    }
-
-    /* ===== 아래는 내부 유틸 ===== */
-
-    private Map<Long, float[]> batchVec(ItemType type, List<Long> ids) {
-        if (ids.isEmpty()) return Map.of();
-        var rows = itemEmbRepo.findByItemTypeAndItemIdInAndModel(type, ids, openai.modelName());
-        Map<Long, float[]> m = new HashMap<>(rows.size());
-        for (var r : rows) m.put(r.getItemId(), fromJson(r.getVecJson()));
-        return m;
+    @PostConstruct
+    void init() {
+        int p = recommProps.getRanking().getParallelism();
+        scoringPool = new ForkJoinPool(p > 0 ? p : Runtime.getRuntime().availableProcessors(), pool -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("rank-scoring-" + t.getPoolIndex());
+            return t;
+        }, null, false);
     }
 
-    private List<Long> idsOf(List<ItemCandidate> cs, ItemType t) {
-        List<Long> ids = new ArrayList<>();
-        for (var c : cs) if (c.type()==t) ids.add(c.id());
-        return ids;
+    @PreDestroy
+    void shutdown() {
+        scoringPool.shutdownNow();
     }
 
-    private double recentness(ItemCandidate c) {
-        if (c.startDate()!=null && c.endDate()!=null) {
-            var today = LocalDate.now();
-            if (today.isAfter(c.endDate())) return 0.0;
-            long daysToEnd = ChronoUnit.DAYS.between(today, c.endDate());
-            return daysToEnd <= 0 ? 1.0 : 1.0 / (1.0 + daysToEnd / 7.0);
-        }
-        return 0.3;
-    }
-
-    private static double cosine(float[] a, float[] b) {
-        if (a==null || b==null || a.length!=b.length) return 0.0;
-        double dot=0, na=0, nb=0;
-        for (int i=0;i<a.length;i++){ dot+=a[i]*b[i]; na+=a[i]*a[i]; nb+=b[i]*b[i]; }
-        if (na==0 || nb==0) return 0.0;
-        return dot / (Math.sqrt(na)*Math.sqrt(nb));
+    /**
+     * 벡터가 있는 후보만 점수화. 없는 후보는 백그라운드 큐로 보내고 이번 요청에서는 건너뛴다.
+     * 점수는 double[] 에 두고 크기 size 의 힙으로 상위만 고른다.
+     * 순서: 점수 내림차순 -> 좋아요 수 내림차순 -> id 내림차순 -> 입력 순서 (기존 안정 정렬과 동일)
+     * 후보가 prefilter-keep 보다 많으면 2단계: 앞 prefilter-dim 차원 코사인으로 keep 개를 먼저 고르고 그것만 전체 차원으로.
+     */
+    public List<Scored> rank(float[] userVec, List<ItemCandidate> candidates, int size) {
+        return rank(userVec, candidates, size, true);
     }
 
-    private float[] fromJson(String s) {
-        try { return om.readValue(s, float[].class); }
-        catch (Exception e) { throw new RuntimeException(e); }
+    /** twoStage=false 면 모든 후보를 전체 차원으로 점수화 (2단계 recall 비교 기준) */
+    public List<Scored> rank(float[] userVec, List<ItemCandidate> candidates, int size, boolean twoStage) {
+        return rank(userVec, candidates, size, twoStage, CoLikeIndex.Affinity.NONE);
     }
 
-    /** 후보 중 임베딩 없는 아이템은 즉시 생성 후 저장 */
-    public void hydrateMissingEmbeddings(List<ItemCandidate> candidates) {
-        if (candidates == null || candidates.isEmpty()) return;
-
-        Map<ItemType, List<Long>> idsByType = new EnumMap<>(ItemType.class);
-        idsByType.put(ItemType.STORE, idsOf(candidates, ItemType.STORE));
-        idsByType.put(ItemType.EVENT, idsOf(candidates, ItemType.EVENT));
-        idsByType.put(ItemType.POPUP, idsOf(candidates, ItemType.POPUP));
-
-        Map<ItemType, List<Long>> missing = new EnumMap<>(ItemType.class);
-        for (var e : idsByType.entrySet()) {
-            var type = e.getKey();
-            var ids  = e.getValue();
-            if (ids.isEmpty()) { missing.put(type, List.of()); continue; }
-
-            var existing = itemEmbRepo.findByItemTypeAndItemIdInAndModel(type, ids, openai.modelName())
-                    .stream().map(ItemEmbedding::getItemId).collect(Collectors.toSet());
-            var miss = ids.stream().filter(id -> !existing.contains(id)).toList();
-            missing.put(type, miss);
+    /** coLike: 유저 좋아요 아이템의 공동 좋아요 이웃 점수 (0~1) 를 가산점으로 */
+    public List<Scored> rank(float[] userVec, List<ItemCandidate> candidates, int size,
+                             boolean twoStage, CoLikeIndex.Affinity coLike) {
+        int n = candidates.size();
+        ItemCandidate[] items = candidates.toArray(new ItemCandidate[0]);
+        double[] scores = new double[n];
+        // 아이템 벡터는 모두 단위 벡터이므로 질의만 한 번 정규화하면 코사인 = 내적
+        float[] q = userVec == null ? null : VectorMath.l2normalize(userVec);
+        LocalDate today = LocalDate.now();
+
+        var cfg = recommProps.getRanking();
+        int prefixDim = cfg.getPrefilterDim();
+        int keep = Math.max(cfg.getPrefilterKeep(), size);
+        if (twoStage && q != null && prefixDim > 0 && prefixDim < q.length && n > keep) {
+            // 1차: 앞 prefixDim 차원 코사인 + 같은 가산점으로 keep 개
+            float qn = (float) Math.sqrt(SimdDot.dot(q, 0, q, 0, prefixDim));
+            double[] approx = new double[n];
+            forEach(n, i -> approx[i] = combine(embeddingIndex.prefixCosine(items[i].type(), items[i].id(), q, qn, prefixDim), items[i], today, coLike));
+            enqueueMissing(items, approx);
+
+            // 2차: 남은 후보만 전체 차원
+            int[] kept = TopK.select(n, keep, i -> !Double.isNaN(approx[i]), order(approx, items));
+            Arrays.fill(scores, Double.NaN);
+            for (int i : kept) scores[i] = score(items[i], q, today, coLike);
+            log.debug("[RANK] two-stage candidates={}, kept={}, prefixDim={}", n, kept.length, prefixDim);
+        } else {
+            forEach(n, i -> scores[i] = score(items[i], q, today, coLike));
+            enqueueMissing(items, scores);
         }
 
-        int totalMissing = missing.values().stream().mapToInt(List::size).sum();
-        if (totalMissing == 0) return;
+        int[] top = TopK.select(n, size, i -> !Double.isNaN(scores[i]), order(scores, items));
 
-        log.debug("[RANK] missing embeddings store/event/popup = {}/{}/{}",
-                missing.get(ItemType.STORE).size(),
-                missing.get(ItemType.EVENT).size(),
-                missing.get(ItemType.POPUP).size());
+        List<Scored> out = new ArrayList<>(top.length);
+        for (int i : top) out.add(new Scored(items[i], scores[i]));
+        return out;
+    }
 
-        final int LIMIT_NEW = 120; // 과금 보호
+    /* ===== 아래는 내부 유틸 ===== */
 
-        // STORE
-        if (!missing.get(ItemType.STORE).isEmpty()) {
-            var pick = missing.get(ItemType.STORE).stream().limit(LIMIT_NEW).toList();
-            for (Store s : storeRepository.findAllById(pick)) {
-                var text = embedText(s);
-                var vec = safeEmbed(text);
-                if (vec != null) saveEmbedding(ItemType.STORE, s.getId(), vec);
-            }
+    /** 후보가 많으면 전용 풀에서 병렬로 */
+    private void forEach(int n, IntConsumer body) {
+        if (n >= recommProps.getRanking().getParallelThreshold()) {
+            scoringPool.submit(() -> IntStream.range(0, n).parallel().forEach(body)).join();
+        } else {
+            for (int i = 0; i < n; i++) body.accept(i);
         }
-        // EVENT
-        if (!missing.get(ItemType.EVENT).isEmpty()) {
-            var pick = missing.get(ItemType.EVENT).stream().limit(LIMIT_NEW).toList();
-            for (Event e : eventRepository.findAllById(pick)) {
-                var text = embedText(e);
-                var vec = safeEmbed(text);
-                if (vec != null) saveEmbedding(ItemType.EVENT, e.getId(), vec);
-            }
+    }
+
+    private void enqueueMissing(ItemCandidate[] items, double[] scores) {
+        List<ItemKey> missing = new ArrayList<>();
+        for (int i = 0; i < items.length; i++) {
+            if (Double.isNaN(scores[i])) missing.add(ItemKey.of(items[i])); // 벡터 없음
         }
-        // POPUP
-        if (!missing.get(ItemType.POPUP).isEmpty()) {
-            var pick = missing.get(ItemType.POPUP).stream().limit(LIMIT_NEW).toList();
-            for (Popup p : popupRepository.findAllById(pick)) {
-                var text = embedText(p);
-                var vec = safeEmbed(text);
-                if (vec != null) saveEmbedding(ItemType.POPUP, p.getId(), vec);
-            }
+        if (!missing.isEmpty()) {
+            log.debug("[RANK] {} candidates without embeddings -> queued", missing.size());
+            embeddingWorkQueue.enqueueAll(missing);
         }
     }
 
-    private String embedText(Store s) {
-        return String.join(" ",
-                "Store", nz(s.getName()), nz(s.getIntro()),
-                "Category", String.valueOf(s.getCategory()),
-                "Address", nz(s.getAddress())
-        );
+    private static IntBinaryOperator order(double[] scores, ItemCandidate[] items) {
+        return (a, b) -> {
+            int c = Double.compare(scores[a], scores[b]);
+            if (c != 0) return c;
+            c = Integer.compare(items[a].likeCount(), items[b].likeCount());
+            if (c != 0) return c;
+            c = Long.compare(items[a].id(), items[b].id());
+            return c != 0 ? c : Integer.compare(b, a);
+        };
     }
 
-    private String embedText(Event e) {
-        var df = DateTimeFormatter.ISO_LOCAL_DATE;
-        return String.join(" ",
-                "Event", nz(e.getName()), nz(e.getDescription()),
-                "Start", e.getStartDate()!=null?e.getStartDate().format(df):"",
-                "End",   e.getEndDate()!=null?e.getEndDate().format(df):""
-        );
+    /** 벡터가 없으면 NaN */
+    private double score(ItemCandidate c, float[] q, LocalDate today, CoLikeIndex.Affinity coLike) {
+        return combine(embeddingIndex.dot(c.type(), c.id(), q), c, today, coLike);
     }
 
-    private String embedText(Popup p) {
-        var df = DateTimeFormatter.ISO_LOCAL_DATE;
-        return String.join(" ",
-                "Popup", nz(p.getName()), nz(p.getDescription()),
-                "Category", String.valueOf(p.getCategory()),
-                "Address", nz(p.getAddress()),
-                "Start", p.getStartDate()!=null?p.getStartDate().format(df):"",
-                "End",   p.getEndDate()!=null?p.getEndDate().format(df):""
-        );
+    private double combine(double sim, ItemCandidate c, LocalDate today, CoLikeIndex.Affinity coLike) {
+        if (Double.isNaN(sim)) return Double.NaN;
+
+        double colike = coLike.score(c.type(), c.id());
+
+        return SIM_WEIGHT*sim + prior(c, today) + 0.05*colike;
     }
 
-    private String nz(String s) { return s == null ? "" : s; }
+    /** 유저와 무관한 가산점 (최근성 + 인기). 오프라인 배치 점수화도 같은 값을 쓴다 */
+    double prior(ItemCandidate c, LocalDate today) {
+        double like = Math.tanh(Math.log(1 + c.likeCount()) / 5.0);
+        double recent = recentness(c, today);
 
-    private float[] safeEmbed(String text) {
-        try { return openai.embed(text); }
-        catch (Exception ex) {
-            log.warn("[RANK] embed failed: {}", ex.toString());
-            return null;
-        }
+        return 0.10*recent + 0.10*like;
     }
 
-    private void saveEmbedding(ItemType type, Long id, float[] vec) {
-        try {
-            String json = om.writeValueAsString(vec);
-            ItemEmbedding row = ItemEmbedding.builder()
-                    .itemType(type)
-                    .itemId(id)
-                    .model(openai.modelName())
-                    .dim(props.getEmbeddingDim())
-                    .vecJson(json)
-                    .build();
-            itemEmbRepo.save(row);
-        } catch (Exception e) {
-            log.warn("[RANK] saveEmbedding failed type={}, id={}", type, id, e);
+    private double recentness(ItemCandidate c, LocalDate today) {
+        if (c.startDate()!=null && c.endDate()!=null) {
+            if (today.isAfter(c.endDate())) return 0.0;
+            long daysToEnd = ChronoUnit.DAYS.between(today, c.endDate());
+            return daysToEnd <= 0 ? 1.0 : 1.0 / (1.0 + daysToEnd / 7.0);
         }
+        return 0.3;
     }
 }
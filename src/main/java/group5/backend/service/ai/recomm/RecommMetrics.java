@@ -0,0 +1,115 @@
+package group5.backend.service.ai.recomm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 추천 파이프라인 단계별 Micrometer 지표 (/actuator/metrics, /actuator/prometheus).
+ * - recomm.stage{stage, outcome}: 단계별 소요 시간 (히스토그램 + p50/p95/p99), 예외로 끝난 호출은 outcome=error
+ * - recomm.cache{cache, result}: 캐시 hit / miss / expired
+ * - recomm.request.openai.calls: 홈 추천 1회 계산 중 요청 스레드에서 나간 OpenAI 호출 수
+ */
+@Component
+@RequiredArgsConstructor
+public class RecommMetrics {
+
+    public enum Stage {
+        PROFILE("profile"),               // 프로필 조회 (캐시 -> DB -> 빌드)
+        PROFILE_BUILD("profile_build"),   // 프로필 새로 빌드 (좋아요 평균 / 카테고리 시드)
+        PROFILE_DB_LOAD("profile_db_load"),
+        CO_LIKE("co_like"),               // 좋아요 아이템 이웃 점수 (후보 + 가산점)
+        CANDIDATES("candidate_fetch"),
+        SCORING("scoring"),
+        FALLBACK_FILL("fallback_fill"),
+        ASSEMBLE("assemble"),             // CategoryFeedAssembler.toResponses
+        HYDRATE("embedding_hydrate"),     // 빠진 임베딩 채우기 (작업 큐 워커)
+        VECTOR_LOAD("vector_load"),       // 인메모리 인덱스 DB 적재
+        RANK_HOME("rank_home");           // 프로필 ~ 보충까지 합계
+
+        private final String tag;
+
+        Stage(String tag) { this.tag = tag; }
+    }
+
+    private static final double[] PERCENTILES = { 0.5, 0.95, 0.99 };
+
+    private final MeterRegistry registry;
+
+    // [0] = success, [1] = error
+    private final Map<Stage, Timer[]> timers = new EnumMap<>(Stage.class);
+    private final Map<String, Counter> cacheCounters = new ConcurrentHashMap<>();
+    private DistributionSummary openAiCallsPerRequest;
+
+    @PostConstruct
+    void init() {
+        for (Stage s : Stage.values()) {
+            timers.put(s, new Timer[] { stageTimer(s, "success"), stageTimer(s, "error") });
+        }
+        openAiCallsPerRequest = DistributionSummary.builder("recomm.request.openai.calls")
+                .description("홈 추천 1회 계산 중 OpenAI 호출 수")
+                .publishPercentiles(PERCENTILES)
+                .register(registry);
+    }
+
+    public <T> T time(Stage stage, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(registry);
+        boolean ok = false;
+        try {
+            T v = work.get();
+            ok = true;
+            return v;
+        } finally {
+            stop(sample, stage, ok);
+        }
+    }
+
+    public void time(Stage stage, Runnable work) {
+        time(stage, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /** 여러 단계에 걸친 구간용: start() 로 시작하고 finally 에서 stop(sample, stage, ok) */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void stop(Timer.Sample sample, Stage stage, boolean ok) {
+        sample.stop(timers.get(stage)[ok ? 0 : 1]);
+    }
+
+    public void cache(String cache, String result) {
+        cacheCounters.computeIfAbsent(cache + ':' + result, k -> Counter.builder("recomm.cache")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(registry)).increment();
+    }
+
+    public void openAiCalls(int calls) {
+        openAiCallsPerRequest.record(calls);
+    }
+
+    private Timer stageTimer(Stage s, String outcome) {
+        return Timer.builder("recomm.stage")
+                .description("추천 파이프라인 단계별 소요 시간")
+                .tag("stage", s.tag)
+                .tag("outcome", outcome)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+}
@@ -1,11 +1,16 @@
 package group5.backend.service.ai.recomm;
 
 import group5.backend.dto.category.response.CategoryFeedItemResponse;
+import group5.backend.service.ai.openai.OpenAiRateScheduler;
+import group5.backend.service.ai.recomm.RecommMetrics.Stage;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -14,38 +19,79 @@ public class RecommendationService {
     private final CandidateService candidateService;
     private final UserProfileService userProfileService;
     private final RankingService rankingService;
+    private final CoLikeIndex coLikeIndex;
     private final CategoryFeedAssembler assembler;
+    private final RecommMetrics metrics;
+
+    private record FlightKey(Long userId, int size) {}
+
+    // 같은 유저/크기의 동시 요청은 한 번만 계산
+    private final SingleFlight<FlightKey, List<CategoryFeedItemResponse>> homeFlights = new SingleFlight<>("recommend-home");
 
     public List<CategoryFeedItemResponse> recommendHome(Long userId, int size) {
+        return homeFlights.run(new FlightKey(userId, size), () -> recommendHomeNow(userId, size));
+    }
+
+    private List<CategoryFeedItemResponse> recommendHomeNow(Long userId, int size) {
         long t0 = System.nanoTime();
+        var out = assembler.toResponses(rankHome(userId, size), userId);
+        long ms = (System.nanoTime() - t0) / 1_000_000;
+        log.debug("[REC] done -> out.size={}, took={}ms", out.size(), ms);
+        return out;
+    }
+
+    /** 후보 -> 프로필 -> 랭킹 -> 인기순 보충까지 (응답 조립 전 단계, 사전 계산 저장에서도 사용) */
+    public List<RankingService.Scored> rankHome(Long userId, int size) {
+        long t0 = System.nanoTime();
+        // 실패/예외로 끝난 계산도 rank_home{outcome=error} 로 남긴다
+        Timer.Sample sample = metrics.start();
+        boolean ok = false;
+        int callsBefore = OpenAiRateScheduler.callsOnCurrentThread();
         log.debug("[REC] start userId={}, size={}", userId, size);
         try {
-            var candidates = candidateService.findForUser(userId, Math.max(size * 50, 300));
-            log.debug("[REC] candidates={}", candidates.size());
-
-            var userVec = userProfileService.getOrBuild(userId);
+            // 후보 검색(ANN)에 프로필 벡터가 필요하므로 먼저 빌드
+            var userVec = metrics.time(Stage.PROFILE, () -> userProfileService.getOrBuild(userId));
             log.debug("[REC] userVec dim={}", (userVec == null ? 0 : userVec.length));
 
-            var ranked = rankingService.rank(userVec, candidates, size);
+            // 공동 좋아요 이웃 점수는 후보 수집과 랭킹 가산점에 같이 쓴다
+            var coLike = metrics.time(Stage.CO_LIKE, () -> coLikeIndex.affinity(userId));
+
+            var candidates = metrics.time(Stage.CANDIDATES,
+                    () -> candidateService.findForUser(userId, userVec, Math.max(size * 50, 300), coLike));
+            log.debug("[REC] candidates={}", candidates.size());
+
+            var ranked = metrics.time(Stage.SCORING, () -> rankingService.rank(userVec, candidates, size, true, coLike));
             log.debug("[REC] ranked size={} (top ids: {})",
                     ranked.size(),
                     ranked.stream().limit(5).map(s -> s.item().id()).toList());
 
             if (ranked.size() < size) {
-                var fill = candidateService.findPopularFallback(size - ranked.size());
-                log.debug("[REC] fallback fill size={}", fill.size());
-                for (var c : fill) ranked.add(new RankingService.Scored(c, -1.0));
+                // 벡터가 아직 없는 아이템 등으로 모자란 자리는 인기순으로 채움 (중복 제외)
+                metrics.time(Stage.FALLBACK_FILL, () -> fill(ranked, size));
             }
 
-            var out = assembler.toResponses(ranked, userId);
-            long ms = (System.nanoTime() - t0) / 1_000_000;
-            log.debug("[REC] done -> out.size={}, took={}ms", out.size(), ms);
-            return out;
+            ok = true;
+            return ranked;
         } catch (Exception e) {
             long ms = (System.nanoTime() - t0) / 1_000_000;
             log.error("[REC] FAIL userId={}, size={}, took={}ms, msg={}",
                     userId, size, ms, e.toString(), e);
             throw e; // Global이 기존 방식대로 응답 처리
+        } finally {
+            metrics.stop(sample, Stage.RANK_HOME, ok);
+            metrics.openAiCalls(OpenAiRateScheduler.callsOnCurrentThread() - callsBefore);
+        }
+    }
+
+    private void fill(List<RankingService.Scored> ranked, int size) {
+        Set<ItemKey> seen = new HashSet<>();
+        for (var s : ranked) seen.add(ItemKey.of(s.item()));
+        var fill = candidateService.findPopularFallback(size);
+        int before = ranked.size();
+        for (var c : fill) {
+            if (ranked.size() >= size) break;
+            if (seen.add(ItemKey.of(c))) ranked.add(new RankingService.Scored(c, -1.0));
         }
+        log.debug("[REC] fallback fill size={}", ranked.size() - before);
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package group5.backend.service.ai.recomm;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 내적 커널. jdk.incubator.vector 모듈이 로드돼 있으면 Vector API(SIMD), 아니면 스칼라 루프.
+ * (모듈은 --add-modules jdk.incubator.vector 로 켠다. build.gradle 의 bootRun/test 는 기본 적용)
+ */
+@Slf4j
+public final class SimdDot {
+    private SimdDot(){}
+
+    private static final boolean VECTOR_API = detect();
+
+    public static boolean vectorApiEnabled() { return VECTOR_API; }
+
+    /** float · float (a[aOff..], b[bOff..] 길이 len) */
+    public static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        if (VECTOR_API) return VectorApiDot.dot(a, aOff, b, bOff, len);
+        return scalarDot(a, aOff, b, bOff, len);
+    }
+
+    /** float · int8 (스케일 미적용 합) */
+    public static float dot(float[] q, byte[] b, int bOff, int len) {
+        return dot(q, 0, b, bOff, len);
+    }
+
+    /** float · int8, q[qOff..] 부터 (스케일 미적용 합) */
+    public static float dot(float[] q, int qOff, byte[] b, int bOff, int len) {
+        if (VECTOR_API) return VectorApiDot.dot(q, qOff, b, bOff, len);
+        return scalarDot(q, qOff, b, bOff, len);
+    }
+
+    static float scalarDot(float[] a, int aOff, float[] b, int bOff, int len) {
+        float s = 0f;
+        for (int i = 0; i < len; i++) s += a[aOff + i] * b[bOff + i];
+        return s;
+    }
+
+    static float scalarDot(float[] q, int qOff, byte[] b, int bOff, int len) {
+        float s = 0f;
+        for (int i = 0; i < len; i++) s += q[qOff + i] * b[bOff + i];
+        return s;
+    }
+
+    private static boolean detect() {
+        boolean present = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        if (!present) {
+            log.info("[SIMD] jdk.incubator.vector not loaded, using scalar dot");
+            return false;
+        }
+        try {
+            VectorApiDot.dot(new float[16], 0, new float[16], 0, 16);
+            log.info("[SIMD] Vector API dot enabled (float lanes={})", VectorApiDot.lanes());
+            return true;
+        } catch (Throwable t) {
+            log.warn("[SIMD] Vector API unavailable, using scalar dot: {}", t.toString());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package group5.backend.service.ai.recomm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 키별 single-flight: 같은 키로 동시에 들어온 호출은 진행 중인 계산 하나의 결과를 함께 받는다.
+ * 계산이 끝나면 키를 비우므로 결과를 캐시하지는 않는다. (캐시는 호출 측 책임)
+ */
+@Slf4j
+final class SingleFlight<K, V> {
+
+    private final String name;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /** key 로 진행 중인 계산이 있으면 그 결과를 기다리고, 없으면 work 를 실행 */
+    V run(K key, Supplier<V> work) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.incrementAndGet();
+            log.debug("[FLIGHT] {} joined in-flight key={}", name, key);
+            return await(existing);
+        }
+        executed.incrementAndGet();
+        try {
+            V v = work.get();
+            mine.complete(v);
+            return v;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * 여러 키를 한 번에 (배치 API 호출용).
+     * 진행 중이 아닌 키만 모아 work 에 넘기고, 다른 호출이 이미 처리 중인 키는 그 결과를 기다린다.
+     * work 결과에 없는 키는 null 로 끝난다. 다른 호출의 실패는 해당 키만 결과에서 빠진다.
+     */
+    Map<K, V> runAll(Collection<K> keys, Function<List<K>, Map<K, V>> work) {
+        Map<K, CompletableFuture<V>> mine = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> others = new LinkedHashMap<>();
+        for (K k : keys) {
+            if (mine.containsKey(k) || others.containsKey(k)) continue;
+            CompletableFuture<V> f = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(k, f);
+            if (existing == null) mine.put(k, f); else others.put(k, existing);
+        }
+
+        Map<K, V> out = new HashMap<>();
+        if (!mine.isEmpty()) {
+            executed.addAndGet(mine.size());
+            try {
+                Map<K, V> r = work.apply(new ArrayList<>(mine.keySet()));
+                for (var e : mine.entrySet()) {
+                    V v = r == null ? null : r.get(e.getKey());
+                    e.getValue().complete(v);
+                    if (v != null) out.put(e.getKey(), v);
+                }
+            } catch (RuntimeException | Error e) {
+                mine.values().forEach(f -> f.completeExceptionally(e));
+                throw e;
+            } finally {
+                mine.forEach(inFlight::remove);
+            }
+        }
+
+        if (!others.isEmpty()) {
+            shared.addAndGet(others.size());
+            log.debug("[FLIGHT] {} joined {} in-flight keys", name, others.size());
+            for (var e : others.entrySet()) {
+                try {
+                    V v = await(e.getValue());
+                    if (v != null) out.put(e.getKey(), v);
+                } catch (RuntimeException ignore) {
+                    // 소유한 호출 쪽에서 이미 로그를 남김
+                }
+            }
+        }
+        return out;
+    }
+
+    /** 실제로 실행된 계산 수 / 진행 중인 계산에 합류한 호출 수 / 현재 진행 중인 키 수 */
+    long executed() { return executed.get(); }
+    long shared() { return shared.get(); }
+    int inFlight() { return inFlight.size(); }
+
+    private static <V> V await(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
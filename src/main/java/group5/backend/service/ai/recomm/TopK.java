@@ -0,0 +1,71 @@
+package group5.backend.service.ai.recomm;
+
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntPredicate;
+
+/**
+ * 인덱스 기반 상위 K 선택 (크기 K 의 최소 힙, 박싱 없음).
+ * order.applyAsInt(a, b) > 0 이면 a 가 b 보다 앞선다. 전체 정렬 O(n log n) 대신 O(n log K).
+ */
+final class TopK {
+
+    private TopK() {}
+
+    /** [0, n) 중 order 기준 상위 k 개 인덱스 (앞선 순) */
+    static int[] select(int n, int k, IntBinaryOperator order) {
+        return select(n, k, i -> true, order);
+    }
+
+    /** accept 를 통과한 인덱스 중 상위 k 개 */
+    static int[] select(int n, int k, IntPredicate accept, IntBinaryOperator order) {
+        if (k <= 0 || n <= 0) return new int[0];
+        int[] heap = new int[Math.min(k, n)];
+        int size = 0;
+        for (int i = 0; i < n; i++) {
+            if (!accept.test(i)) continue;
+            if (size < heap.length) {
+                heap[size] = i;
+                siftUp(heap, size++, order);
+            } else if (order.applyAsInt(i, heap[0]) > 0) {
+                heap[0] = i;
+                siftDown(heap, size, order);
+            }
+        }
+        // 힙을 비우면서 뒤에서부터 채우면 앞선 순
+        int[] out = new int[size];
+        for (int j = size - 1; j >= 0; j--) {
+            out[j] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, order);
+        }
+        return out;
+    }
+
+    // 루트 = 가장 뒤처지는 원소
+    private static void siftUp(int[] h, int pos, IntBinaryOperator order) {
+        int x = h[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (order.applyAsInt(x, h[parent]) >= 0) break;
+            h[pos] = h[parent];
+            pos = parent;
+        }
+        h[pos] = x;
+    }
+
+    private static void siftDown(int[] h, int size, IntBinaryOperator order) {
+        if (size == 0) return;
+        int pos = 0;
+        int x = h[0];
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            int right = child + 1;
+            if (right < size && order.applyAsInt(h[right], h[child]) < 0) child = right;
+            if (order.applyAsInt(x, h[child]) <= 0) break;
+            h[pos] = h[child];
+            pos = child;
+        }
+        h[pos] = x;
+    }
+}
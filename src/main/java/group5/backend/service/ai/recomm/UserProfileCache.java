@@ -0,0 +1,104 @@
+package group5.backend.service.ai.recomm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import group5.backend.config.recomm.RecommProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 디코딩된 유저 프로필 벡터 캐시 (Caffeine, W-TinyLFU 제거 + 쓰기 후 TTL).
+ * 로드(DB 조회/빌드, OpenAI 호출 가능)는 Caffeine compute 밖에서 호출 측이 하고 결과만 넣는다.
+ * 로드 도중 같은 유저에 put/invalidate 가 있었으면 그 로드 결과는 버린다 (세대 번호 비교).
+ */
+@Component
+@RequiredArgsConstructor
+public class UserProfileCache {
+
+    public record Stats(
+            long size,
+            long hits,
+            long misses,
+            double hitRate,
+            long loads,
+            long evictions,
+            double averageLoadMillis
+    ) {}
+
+    private static final int GENERATION_STRIPES = 256;
+
+    private final RecommProperties recommProps;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Long, float[]> cache;
+    // 유저 id 기준 striped 세대 번호: put/invalidate 마다 증가
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadNanos = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        var cfg = recommProps.getProfileCache();
+        cache = Caffeine.newBuilder()
+                .maximumSize(cfg.getMaxSize())
+                .expireAfterWrite(Duration.ofMinutes(cfg.getTtlMinutes()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user_profile");
+    }
+
+    public float[] getIfPresent(Long userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /** 로드 시작 전에 받아 두었다가 putLoaded 에 넘긴다 */
+    public long generation(Long userId) {
+        return generations.get(stripe(userId));
+    }
+
+    /**
+     * 로드 결과 저장. generation 이후 같은 유저에 put/invalidate 가 있었으면 저장하지 않는다
+     * (compute 는 세대 비교와 교체만 하므로 잠금 구간이 짧다).
+     */
+    public void putLoaded(Long userId, float[] vec, long generation, long loadNanos) {
+        loads.incrementAndGet();
+        this.loadNanos.addAndGet(loadNanos);
+        if (vec == null) return;
+        cache.asMap().compute(userId, (k, old) -> generations.get(stripe(k)) == generation ? vec : old);
+    }
+
+    public void put(Long userId, float[] vec) {
+        if (vec == null) return;
+        generations.incrementAndGet(stripe(userId));
+        cache.put(userId, vec);
+    }
+
+    public void invalidate(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+
+    public Stats stats() {
+        var s = cache.stats();
+        return new Stats(
+                cache.estimatedSize(),
+                s.hitCount(),
+                s.missCount(),
+                s.hitRate(),
+                loads.get(),
+                s.evictionCount(),
+                loads.get() == 0 ? 0.0 : loadNanos.get() / (double) loads.get() / 1_000_000.0
+        );
+    }
+
+    private static int stripe(Long userId) {
+        return (int) Math.floorMod(userId, (long) GENERATION_STRIPES);
+    }
+}
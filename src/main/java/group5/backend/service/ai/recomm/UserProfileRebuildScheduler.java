@@ -0,0 +1,30 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 좋아요 기반 유저 프로필 주기적 전체 재계산.
+ * 토글마다 합에 더하고 빼는 과정에서 생기는 float 오차와, 임베딩이 늦게 생긴 아이템 누락을 바로잡는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserProfileRebuildScheduler {
+
+    private final UserProfileService userProfileService;
+    private final RecommProperties recommProps;
+
+    @Scheduled(cron = "${recomm.profile-rebuild.cron:0 30 3 * * *}", zone = "Asia/Seoul")
+    public void rebuild() {
+        if (!recommProps.getProfileRebuild().isEnabled()) return;
+        try {
+            userProfileService.rebuildAll();
+        } catch (Exception e) {
+            log.error("[UPROF] scheduled rebuild failed: {}", e.toString(), e);
+        }
+    }
+}
@@ -1,6 +1,22 @@
 package group5.backend.service.ai.recomm;
 
+import group5.backend.domain.recomm.ItemType;
+
+import java.util.Collection;
+
 public interface UserProfileService {
     float[] getOrBuild(Long userId);
     void invalidate(Long userId);
+
+    /** 즐겨찾기 토글 반영: 합에 더해진 멤버 기준으로 아이템 벡터 하나를 더하거나 빼고 다시 정규화 (맞출 수 없으면 다시 빌드) */
+    void applyFavorite(Long userId, ItemType type, Long itemId, boolean liked);
+
+    /** 관심 카테고리 변경 반영 (카테고리 시드로 만든 프로필만 다시 빌드) */
+    void onCategoriesChanged(Long userId);
+
+    /** 아이템 벡터가 바뀜 (재임베딩): 그 아이템을 좋아요한 유저의 프로필은 이전 벡터로 만든 것이므로 무효화 */
+    void onItemVectorsChanged(Collection<ItemKey> keys);
+
+    /** 좋아요 기반 프로필 전체 재계산 (누적 오차 보정). 재계산한 유저 수 반환 */
+    int rebuildAll();
 }
@@ -1,18 +1,16 @@
 package group5.backend.service.ai.recomm;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import group5.backend.config.ai.OpenAiProperties;
 import group5.backend.domain.recomm.ItemType;
 import group5.backend.domain.recomm.UserProfileEmbedding;
-import group5.backend.repository.ItemEmbeddingRepository;
 import group5.backend.repository.UserProfileEmbeddingRepository;
+import group5.backend.service.ai.recomm.RecommMetrics.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @Slf4j
 @Service
@@ -20,41 +18,177 @@ import java.util.List;
 public class UserProfileServiceImpl implements UserProfileService {
 
     private final UserProfileEmbeddingRepository repo;
-    private final ItemEmbeddingRepository itemEmbRepo;
+    private final EmbeddingIndex embeddingIndex;
     private final PreferencePort pref;
     private final OpenAIEmbeddingClient openai;
-    private final OpenAiProperties props;
-    private final ObjectMapper om = new ObjectMapper();
+    private final UserProfileCache profileCache;
+    private final CategorySeedEmbeddings categorySeeds;
+    private final RecommMetrics metrics;
+
+    private static final int REBUILD_PAGE = 200;
+    private static final int LOCK_STRIPES = 64;
+
+    // 같은 유저의 증분 갱신이 겹치지 않도록 (유저 id 기준 striped lock)
+    private final Object[] userLocks = newLocks(LOCK_STRIPES);
+    // 캐시 미스 시 같은 유저 프로필을 동시에 로드/빌드하지 않도록 (중복 OpenAI 호출 / PK 충돌 방지)
+    private final SingleFlight<Long, float[]> loadFlights = new SingleFlight<>("profile-load");
 
     @Override
     public float[] getOrBuild(Long userId) {
-        // 읽기 전용으로 먼저 확인
-        var existing = findExistingProfile(userId);
-        if (existing != null) {
-            log.debug("[UPROF] hit cache userId={}, dim={}", userId, existing.length);
-            return existing;
+        float[] vec = profileCache.getIfPresent(userId);
+        // 차원 전환 직후에는 이전 차원 벡터가 캐시에 남아 있을 수 있음
+        if (vec != null && vec.length == openai.dim()) {
+            metrics.cache("user_profile", "hit");
+            return vec;
         }
-
-        // 없으면 새 트랜잭션에서 빌드&저장
-        return buildAndSaveInNewTransaction(userId);
+        metrics.cache("user_profile", "miss");
+        // 캐시 compute 밖에서 로드 (DB/OpenAI 호출 동안 캐시 잠금을 잡지 않도록), 같은 유저 동시 로드는 한 번만
+        return loadFlights.run(userId, () -> {
+            long generation = profileCache.generation(userId);
+            long t0 = System.nanoTime();
+            float[] loaded = loadOrBuild(userId);
+            profileCache.putLoaded(userId, loaded, generation, System.nanoTime() - t0);
+            return loaded;
+        });
     }
 
     @Override
     @Transactional
     public void invalidate(Long userId) {
+        pref.evict(userId);
+        profileCache.invalidate(userId);
         repo.deleteById(userId);
     }
 
+    /**
+     * 즐겨찾기 토글 증분 반영: 합에 실제로 더해진 아이템(멤버)만 빼고, 처음 보는 아이템만 더한 뒤 재정규화 (O(dim)).
+     * 멤버 정보가 없는 프로필(카테고리 시드/이전 포맷), 벡터가 바뀐 멤버, 벡터 없는 아이템, 좋아요 0 이 되면
+     * 무효화 후 다음 요청에서 전체 빌드.
+     */
+    @Override
+    public void applyFavorite(Long userId, ItemType type, Long itemId, boolean liked) {
+        pref.evict(userId);
+        synchronized (lockOf(userId)) {
+            var row = repo.findById(userId)
+                    .filter(e -> e.getDim() == openai.dim() && openai.modelName().equals(e.getModel()))
+                    .orElse(null);
+            if (row == null) {
+                // 아직 프로필이 없으면 다음 요청 때 빌드
+                profileCache.invalidate(userId);
+                return;
+            }
+            var acc = row.getSumBlob() == null ? null
+                    : ProfileSum.decode(VectorCodec.decode(row.getSumBlob()), row.getMembersBlob());
+            if (acc == null || acc.sum().length != row.getDim()) {
+                invalidate(userId);
+                return;
+            }
+
+            var result = acc.apply(type, itemId, embeddingIndex.get(type, itemId), liked);
+            if (result == ProfileSum.Result.UNCHANGED) {
+                log.debug("[UPROF] incremental no-op {} {}:{} userId={}", liked ? "+" : "-", type, itemId, userId);
+                return;
+            }
+            if (result == ProfileSum.Result.REBUILD || acc.count() == 0) {
+                invalidate(userId);
+                return;
+            }
+
+            float[] profile = acc.sum().clone();
+            l2norm(profile);
+            save(userId, profile, acc);
+            profileCache.put(userId, profile);
+            log.debug("[UPROF] incremental {} {}:{} userId={}, count={}", liked ? "+" : "-", type, itemId, userId, acc.count());
+        }
+    }
+
+    @Override
+    public void onCategoriesChanged(Long userId) {
+        pref.evict(userId);
+        // 좋아요 합으로 만든 프로필은 카테고리와 무관
+        boolean likeBased = repo.findById(userId).map(e -> e.getLikeCount() > 0).orElse(false);
+        if (!likeBased) invalidate(userId);
+    }
+
+    @Override
+    public void onItemVectorsChanged(Collection<ItemKey> keys) {
+        if (keys == null || keys.isEmpty()) return;
+        Map<ItemType, List<Long>> byType = new EnumMap<>(ItemType.class);
+        for (var k : keys) byType.computeIfAbsent(k.type(), t -> new ArrayList<>()).add(k.id());
+
+        Set<Long> users = new HashSet<>();
+        for (var e : byType.entrySet()) users.addAll(pref.likerIds(e.getKey(), e.getValue()));
+        for (Long userId : users) {
+            // 증분 갱신과 겹치지 않게 같은 유저 락 안에서
+            synchronized (lockOf(userId)) {
+                try { invalidate(userId); }
+                catch (Exception e) { log.warn("[UPROF] invalidate after re-embed failed userId={}: {}", userId, e.toString()); }
+            }
+        }
+        log.debug("[UPROF] re-embedded items={}, invalidated profiles={}", keys.size(), users.size());
+    }
+
+    /** 좋아요 기반 프로필을 처음부터 다시 계산해 증분 갱신으로 쌓인 float 오차를 바로잡는다 */
+    @Override
+    public int rebuildAll() {
+        long t0 = System.nanoTime();
+        long afterUserId = 0L;
+        int rebuilt = 0;
+        double maxDrift = 0;
+        while (true) {
+            var ids = repo.findLikeBasedUserIds(afterUserId, PageRequest.of(0, REBUILD_PAGE));
+            if (ids.isEmpty()) break;
+            for (Long userId : ids) {
+                afterUserId = userId;
+                synchronized (lockOf(userId)) {
+                    try {
+                        float[] before = findExistingProfile(userId);
+                        // 진행 중인 캐시 미스 로드와 겹치지 않게 같은 flight 로
+                        float[] profile = loadFlights.run(userId, () -> buildAndSave(userId));
+                        profileCache.put(userId, profile);
+                        if (before != null && before.length == profile.length) {
+                            maxDrift = Math.max(maxDrift, 1.0 - VectorMath.cosine(before, profile));
+                        }
+                        rebuilt++;
+                    } catch (Exception e) {
+                        log.warn("[UPROF] rebuild failed userId={}: {}", userId, e.toString());
+                    }
+                }
+            }
+            if (ids.size() < REBUILD_PAGE) break;
+        }
+        log.info("[UPROF] full rebuild users={}, maxDrift={}, took={}ms",
+                rebuilt, String.format("%.2e", maxDrift), (System.nanoTime() - t0) / 1_000_000);
+        return rebuilt;
+    }
+
+    /** 캐시 미스: DB 프로필 디코딩, 없으면 빌드&저장 */
+    private float[] loadOrBuild(Long userId) {
+        // 읽기 전용으로 먼저 확인
+        var existing = metrics.time(Stage.PROFILE_DB_LOAD, () -> findExistingProfile(userId));
+        if (existing != null) {
+            log.debug("[UPROF] hit db userId={}, dim={}", userId, existing.length);
+            metrics.cache("user_profile_db", "hit");
+            return existing;
+        }
+        metrics.cache("user_profile_db", "miss");
+
+        // 없으면 새 트랜잭션에서 빌드&저장 (getOrBuild 의 loadFlights 안이라 같은 유저 동시 빌드는 없다)
+        return metrics.time(Stage.PROFILE_BUILD, () -> buildAndSaveInNewTransaction(userId));
+    }
+
     /**
      * 읽기 전용으로 기존 프로필 조회
      */
     @Transactional(readOnly = true)
     private float[] findExistingProfile(Long userId) {
         return repo.findById(userId)
+                // 차원/모델 전환 이전 프로필은 다시 빌드
+                .filter(e -> e.getDim() == openai.dim() && openai.modelName().equals(e.getModel()))
                 .map(e -> {
                     log.debug("[UPROF] found cached profile userId={}, model={}, dim={}",
                             userId, e.getModel(), e.getDim());
-                    return fromJson(e.getVecJson());
+                    return VectorCodec.read(e.getVecBlob(), e.getVecJson());
                 })
                 .orElse(null);
     }
@@ -67,7 +201,7 @@ public class UserProfileServiceImpl implements UserProfileService {
         return buildAndSave(userId);
     }
 
-    /** 좋아요한 아이템 임베딩들의 '단순 평균'으로 프로필 생성 */
+    /** 좋아요한 아이템 임베딩들의 '단순 평균'으로 프로필 생성 (합과 멤버도 함께 저장해 이후 토글은 증분 갱신) */
     protected float[] buildAndSave(Long userId) {
         long t0 = System.nanoTime();
 
@@ -80,30 +214,35 @@ public class UserProfileServiceImpl implements UserProfileService {
                 (likedEventIds == null ? 0 : likedEventIds.size()),
                 (likedPopupIds == null ? 0 : likedPopupIds.size()));
 
-        // 1) 좋아요 임베딩 수집
-        List<float[]> vecs = new ArrayList<>();
-        addTypeVectors(vecs, ItemType.STORE, likedStoreIds);
-        addTypeVectors(vecs, ItemType.EVENT, likedEventIds);
-        addTypeVectors(vecs, ItemType.POPUP, likedPopupIds);
+        // 1) 좋아요 임베딩 합산 (더한 아이템과 그 벡터 해시를 멤버로 함께 기록)
+        var acc = new ProfileSum(openai.dim());
+        addTypeVectors(acc, ItemType.STORE, likedStoreIds);
+        addTypeVectors(acc, ItemType.EVENT, likedEventIds);
+        addTypeVectors(acc, ItemType.POPUP, likedPopupIds);
 
         float[] profile;
-        if (!vecs.isEmpty()) {
-            profile = mean(vecs, openai.dim());
+        boolean likeBased = acc.count() > 0;
+        if (likeBased) {
+            // 평균과 합은 정규화하면 같은 방향
+            profile = acc.sum().clone();
             l2norm(profile);
             log.debug("[UPROF] profile from likes, dim={}", profile.length);
         } else {
-            // 2) 좋아요가 전혀 없으면 관심 카테고리 텍스트 임베딩으로 대체
+            // 2) 좋아요가 전혀 없으면 관심 카테고리 시드 임베딩으로 대체 (미리 계산된 조합, 없을 때만 API)
             var cats = pref.preferredCategories(userId);
-            String seed = (cats == null || cats.isEmpty())
-                    ? "User is interested in local stores, ongoing events, and popups in the neighborhood."
-                    : "User interests: " + String.join(", ", cats) + ". Prefer ongoing events and popups.";
-            profile = openai.embed(seed);
-            log.debug("[UPROF] profile from fallback text, dim={}", profile.length);
+            profile = categorySeeds.find(cats);
+            if (profile == null) {
+                // 시드와 같은 문장(enum 순서)으로 만들어 같은 조합이면 같은 벡터가 나오게
+                profile = openai.embed(CategorySeedEmbeddings.seedText(cats));
+                log.debug("[UPROF] profile from fallback text, dim={}", profile.length);
+            } else {
+                log.debug("[UPROF] profile from category seed, dim={}", profile.length);
+            }
         }
 
         // 3) 저장 - 실패해도 프로필은 반환
         try {
-            save(userId, profile);
+            save(userId, profile, likeBased ? acc : null);
             long ms = (System.nanoTime() - t0) / 1_000_000;
             log.debug("[UPROF] saved userId={}, took={}ms", userId, ms);
         } catch (Exception e) {
@@ -115,24 +254,23 @@ public class UserProfileServiceImpl implements UserProfileService {
         return profile;
     }
 
-    /** 특정 타입 아이디 목록의 임베딩들을 모두 vecs에 추가 */
-    private void addTypeVectors(List<float[]> vecs, ItemType type, List<Long> ids) {
+    /** 특정 타입 아이디 목록의 임베딩들을 모두 합에 더한다 */
+    private void addTypeVectors(ProfileSum acc, ItemType type, List<Long> ids) {
         if (ids == null || ids.isEmpty()) return;
-        var rows = itemEmbRepo.findByItemTypeAndItemIdInAndModel(type, ids, openai.modelName());
-        for (var r : rows) {
-            float[] v = fromJson(r.getVecJson());
-            if (v != null && v.length == openai.dim()) vecs.add(v);
-        }
+        for (Long id : ids) acc.add(type, id, embeddingIndex.get(type, id));
     }
 
-    private void save(Long userId, float[] vec) {
+    /** acc 가 null 이면 합/멤버 없는 프로필 (카테고리 시드/대체 문장) */
+    private void save(Long userId, float[] vec, ProfileSum acc) {
         try {
-            String json = om.writeValueAsString(vec);
             var row = UserProfileEmbedding.builder()
                     .userId(userId)
                     .model(openai.modelName())
-                    .dim(props.getEmbeddingDim())
-                    .vecJson(json)
+                    .dim(vec.length)
+                    .vecBlob(VectorCodec.encode(vec, openai.modelName()))
+                    .sumBlob(acc == null ? null : VectorCodec.encode(acc.sum(), openai.modelName()))
+                    .membersBlob(acc == null ? null : acc.encodeMembers())
+                    .likeCount(acc == null ? 0 : acc.count())
                     .build();
             repo.save(row);
         } catch (Exception e) {
@@ -140,26 +278,7 @@ public class UserProfileServiceImpl implements UserProfileService {
         }
     }
 
-    private float[] fromJson(String s) {
-        try { return om.readValue(s, float[].class); }
-        catch (Exception e) { throw new RuntimeException("Failed to parse vector JSON", e); }
-    }
-
     // ===== 벡터 유틸 =====
-    private static float[] mean(List<float[]> vecs, int dim) {
-        float[] acc = new float[dim];
-        int n = 0;
-        for (float[] v : vecs) {
-            if (v == null || v.length != dim) continue;
-            for (int i = 0; i < dim; i++) acc[i] += v[i];
-            n++;
-        }
-        if (n == 0) return acc;
-        float inv = 1.0f / n;
-        for (int i = 0; i < dim; i++) acc[i] *= inv;
-        return acc;
-    }
-
     private static void l2norm(float[] a) {
         double s = 0;
         for (float x : a) s += x * x;
@@ -167,4 +286,14 @@ public class UserProfileServiceImpl implements UserProfileService {
         float inv = (float) (1.0 / Math.sqrt(s));
         for (int i = 0; i < a.length; i++) a[i] *= inv;
     }
-}
\ No newline at end of file
+
+    private Object lockOf(Long userId) {
+        return userLocks[(int) Math.floorMod(userId, (long) LOCK_STRIPES)];
+    }
+
+    private static Object[] newLocks(int n) {
+        Object[] locks = new Object[n];
+        for (int i = 0; i < n; i++) locks[i] = new Object();
+        return locks;
+    }
+}
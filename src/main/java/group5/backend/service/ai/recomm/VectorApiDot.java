@@ -0,0 +1,47 @@
+package group5.backend.service.ai.recomm;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/** Vector API 구현. SimdDot 에서 모듈이 있을 때만 로드된다 */
+final class VectorApiDot {
+    private VectorApiDot(){}
+
+    private static final VectorSpecies<Float> FS = FloatVector.SPECIES_PREFERRED;
+    // float 레인 수와 같은 개수의 byte 레인 (B2F 변환 시 shape 를 맞추기 위해)
+    private static final VectorSpecies<Byte> BS = VectorSpecies.of(byte.class, VectorShape.forBitSize(FS.length() * 8));
+
+    static int lanes() { return FS.length(); }
+
+    static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        FloatVector acc = FloatVector.zero(FS);
+        int i = 0;
+        int upper = FS.loopBound(len);
+        for (; i < upper; i += FS.length()) {
+            FloatVector va = FloatVector.fromArray(FS, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(FS, b, bOff + i);
+            acc = va.fma(vb, acc);
+        }
+        float s = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) s += a[aOff + i] * b[bOff + i];
+        return s;
+    }
+
+    static float dot(float[] q, int qOff, byte[] b, int bOff, int len) {
+        FloatVector acc = FloatVector.zero(FS);
+        int i = 0;
+        int upper = FS.loopBound(len);
+        for (; i < upper; i += FS.length()) {
+            FloatVector vq = FloatVector.fromArray(FS, q, qOff + i);
+            FloatVector vb = (FloatVector) ByteVector.fromArray(BS, b, bOff + i)
+                    .convertShape(VectorOperators.B2F, FS, 0);
+            acc = vq.fma(vb, acc);
+        }
+        float s = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++) s += q[qOff + i] * b[bOff + i];
+        return s;
+    }
+}
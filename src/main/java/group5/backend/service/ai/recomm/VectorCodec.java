@@ -0,0 +1,72 @@
+package group5.backend.service.ai.recomm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 임베딩 벡터 바이너리 코덱 (little-endian float32).
+ * 레이아웃: magic "GVEC"(4) | version(1) | modelLen(1) | dim(int32) | model(UTF-8) | float32 x dim
+ * 마이그레이션 기간에는 read() 가 BLOB 이 없으면 기존 JSON 텍스트를 읽는다.
+ */
+public final class VectorCodec {
+    private VectorCodec(){}
+
+    private static final int MAGIC = 0x43455647; // "GVEC" (LE)
+    private static final byte VERSION = 1;
+    private static final int FIXED_HEADER = 4 + 1 + 1 + 4;
+
+    private static final ObjectMapper OM = new ObjectMapper();
+
+    public static byte[] encode(float[] vec, String model) {
+        byte[] m = (model == null ? "" : model).getBytes(StandardCharsets.UTF_8);
+        if (m.length > 255) throw new IllegalArgumentException("model name too long: " + model);
+
+        ByteBuffer buf = ByteBuffer.allocate(FIXED_HEADER + m.length + vec.length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).put(VERSION).put((byte) m.length).putInt(vec.length).put(m);
+        buf.asFloatBuffer().put(vec);
+        return buf.array();
+    }
+
+    public static float[] decode(byte[] blob) {
+        ByteBuffer buf = header(blob);
+        int dim = buf.getInt(6);
+        int modelLen = Byte.toUnsignedInt(buf.get(5));
+        buf.position(FIXED_HEADER + modelLen);
+        float[] out = new float[dim];
+        buf.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(out);
+        return out;
+    }
+
+    public static int dim(byte[] blob) {
+        return header(blob).getInt(6);
+    }
+
+    public static String model(byte[] blob) {
+        int modelLen = Byte.toUnsignedInt(header(blob).get(5));
+        return new String(blob, FIXED_HEADER, modelLen, StandardCharsets.UTF_8);
+    }
+
+    /** BLOB 우선, 없으면 JSON (두 포맷 공존 기간용) */
+    public static float[] read(byte[] blob, String json) {
+        if (blob != null && blob.length > 0) return decode(blob);
+        if (json != null && !json.isBlank()) return fromJson(json);
+        return null;
+    }
+
+    public static float[] fromJson(String json) {
+        try { return OM.readValue(json, float[].class); }
+        catch (Exception e) { throw new IllegalArgumentException("Failed to parse vector JSON", e); }
+    }
+
+    private static ByteBuffer header(byte[] blob) {
+        if (blob == null || blob.length < FIXED_HEADER) throw new IllegalArgumentException("vector blob too short");
+        ByteBuffer buf = ByteBuffer.wrap(blob).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.getInt(0) != MAGIC) throw new IllegalArgumentException("not a vector blob");
+        if (buf.get(4) != VERSION) throw new IllegalArgumentException("unsupported vector blob version: " + buf.get(4));
+        return buf;
+    }
+}
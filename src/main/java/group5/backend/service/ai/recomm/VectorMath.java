@@ -11,6 +11,19 @@ public final class VectorMath {
         return dot / (Math.sqrt(na) * Math.sqrt(nb));
     }
 
+    public static float norm(float[] v) {
+        if (v == null) return 0f;
+        return (float) Math.sqrt(SimdDot.dot(v, 0, v, 0, v.length));
+    }
+
+    /**
+     * Matryoshka 절단: 앞 dim 개만 남기고 다시 L2 정규화.
+     * text-embedding-3 계열은 dimensions 파라미터 결과와 같은 벡터가 된다.
+     */
+    public static float[] truncate(float[] v, int dim) {
+        return l2normalize(java.util.Arrays.copyOf(v, dim));
+    }
+
     public static float[] l2normalize(float[] v) {
         double n=0; for (float x: v) n += x*x;
         if (n == 0) return v;
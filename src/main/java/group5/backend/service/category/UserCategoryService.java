@@ -4,6 +4,8 @@ import group5.backend.domain.user.Category;
 import group5.backend.domain.user.User;
 import group5.backend.dto.category.response.CategoryListResponse;
 import group5.backend.repository.UserRepository;
+import group5.backend.service.ai.recomm.HomeRecommendationStore;
+import group5.backend.service.ai.recomm.UserProfileService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -13,10 +15,14 @@ import org.springframework.stereotype.Service;
 public class UserCategoryService {
 
     private final UserRepository userRepository;
+    private final UserProfileService userProfileService;
+    private final HomeRecommendationStore homeRecommendationStore;
 
     public CategoryListResponse toggleCategory(User loginUser, Category category) {
         loginUser.toggleCategory(category);
         userRepository.save(loginUser);
+        userProfileService.onCategoriesChanged(loginUser.getId()); // 좋아요 없는 유저는 카테고리로 프로필을 만들므로
+        homeRecommendationStore.refreshAsync(loginUser.getId());
 
         return CategoryListResponse.from(loginUser.getCategories());
     }
@@ -3,6 +3,7 @@ package group5.backend.service.event;
 import group5.backend.domain.event.Event;
 import group5.backend.domain.store.Store;
 import group5.backend.domain.user.User;
+import group5.backend.domain.recomm.ItemType;
 import group5.backend.dto.common.event.request.EventCreateRequest;
 import group5.backend.dto.common.event.request.EventUpdateRequest;
 import group5.backend.dto.common.event.response.EventCheckResponse;
@@ -10,6 +11,7 @@ import group5.backend.dto.common.event.response.EventCreateResponse;
 import group5.backend.repository.EventRepository;
 import group5.backend.repository.FavoriteEventRepository;
 import group5.backend.repository.StoreRepository;
+import group5.backend.service.ai.recomm.EmbeddingWorkQueue;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -27,6 +29,7 @@ public class EventService {
     private final EventRepository eventRepository;
     private final StoreRepository storeRepository;
     private final FavoriteEventRepository favoriteEventRepository;
+    private final EmbeddingWorkQueue embeddingWorkQueue;
 
     @Transactional
     public List<EventCheckResponse> getMyEvents(User merchant) {
@@ -77,6 +80,7 @@ public class EventService {
                 .build();
 
         Event saved = eventRepository.save(event);
+        embeddingWorkQueue.enqueueAfterCommit(ItemType.EVENT, saved.getId());
         return toResponse(saved);
     }
 
@@ -103,6 +107,7 @@ public class EventService {
         event.setEndTime(request.getEndTime());
 
         Event updated = eventRepository.save(event);
+        embeddingWorkQueue.refreshAfterCommit(ItemType.EVENT, updated.getId());
         return toResponse(updated);
     }
 
@@ -129,6 +134,7 @@ public class EventService {
         if (request.getEndTime() != null) event.setEndTime(request.getEndTime());
 
         Event updated = eventRepository.save(event);
+        embeddingWorkQueue.refreshAfterCommit(ItemType.EVENT, updated.getId());
         return toResponse(updated);
     }
 
@@ -147,6 +153,7 @@ public class EventService {
         // 즐겨찾기 등 FK가 걸려 있으면 선삭제 필요
         favoriteEventRepository.deleteByEvent_Id(eventId);
         eventRepository.delete(event);
+        embeddingWorkQueue.removeAfterCommit(ItemType.EVENT, eventId);
     }
 
     private EventCreateResponse toResponse(Event e) {
@@ -5,12 +5,15 @@ import group5.backend.domain.event.Event;
 import group5.backend.domain.event.FavoriteEvent;
 import group5.backend.domain.popup.FavoritePopup;
 import group5.backend.domain.popup.Popup;
+import group5.backend.domain.recomm.ItemType;
 import group5.backend.domain.store.FavoriteStore;
 import group5.backend.domain.store.Store;
 import group5.backend.domain.user.User;
 import group5.backend.dto.response.FavoriteResponse;
 import group5.backend.exception.favorite.FavoriteNotFoundException;
 import group5.backend.repository.*;
+import group5.backend.service.ai.recomm.HomeRecommendationStore;
+import group5.backend.service.ai.recomm.UserProfileService;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -34,6 +37,8 @@ public class FavoriteService {
     private final StoreRepository storeRepository;
     private final EventRepository eventRepository;
     private final PopupRepository popupRepository;
+    private final UserProfileService userProfileService;
+    private final HomeRecommendationStore homeRecommendationStore;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -66,6 +71,8 @@ public class FavoriteService {
         }
 
         storeRepository.save(store);  // 저장된 변경 사항 반영
+        userProfileService.applyFavorite(loginUser.getId(), ItemType.STORE, storeId, liked);  // 추천 프로필 증분 갱신
+        homeRecommendationStore.refreshAsync(loginUser.getId());  // 홈 추천 다시 계산
 
         return FavoriteResponse.of(store.getId(), "store", liked, store.getLikeCount(),store.getName());
     }
@@ -97,6 +104,8 @@ public class FavoriteService {
         }
 
         eventRepository.save(event);  // 저장된 변경 사항 반영
+        userProfileService.applyFavorite(loginUser.getId(), ItemType.EVENT, eventId, liked);  // 추천 프로필 증분 갱신
+        homeRecommendationStore.refreshAsync(loginUser.getId());  // 홈 추천 다시 계산
 
         return FavoriteResponse.of(event.getId(), "event", liked, event.getLikeCount(),event.getName());
     }
@@ -128,6 +137,8 @@ public class FavoriteService {
         }
 
         popupRepository.save(popup);  // 저장된 변경 사항 반영
+        userProfileService.applyFavorite(loginUser.getId(), ItemType.POPUP, popupId, liked);  // 추천 프로필 증분 갱신
+        homeRecommendationStore.refreshAsync(loginUser.getId());  // 홈 추천 다시 계산
 
         return FavoriteResponse.of(popup.getId(), "popup", liked, popup.getLikeCount(),popup.getName());
     }
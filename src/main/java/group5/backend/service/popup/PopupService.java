@@ -2,6 +2,7 @@ package group5.backend.service.popup;
 
 import group5.backend.domain.popup.Popup;
 import group5.backend.domain.user.User;
+import group5.backend.domain.recomm.ItemType;
 import group5.backend.dto.category.FeedItemType;
 import group5.backend.dto.category.response.CategoryFeedItemResponse;
 import group5.backend.dto.common.popup.request.PopupCreateRequest;
@@ -10,6 +11,7 @@ import group5.backend.dto.common.popup.response.PopupCreateResponse;
 import group5.backend.dto.common.popup.response.PopupSummaryResponse;
 import group5.backend.repository.FavoritePopupRepository;
 import group5.backend.repository.PopupRepository;
+import group5.backend.service.ai.recomm.EmbeddingWorkQueue;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
@@ -28,6 +30,7 @@ public class PopupService {
 
     private final PopupRepository popupRepository;
     private final FavoritePopupRepository favoritePopupRepository;
+    private final EmbeddingWorkQueue embeddingWorkQueue;
 
     private void checkDate(PopupCreateRequest req) {
         if (req.getEndDate().isBefore(req.getStartDate())) {
@@ -55,6 +58,7 @@ public class PopupService {
                 .build();
 
         Popup saved = popupRepository.save(popup);
+        embeddingWorkQueue.enqueueAfterCommit(ItemType.POPUP, saved.getId());
         return toResponse(saved);
     }
 
@@ -93,6 +97,7 @@ public class PopupService {
         }
 
         Popup updated = popupRepository.save(popup);
+        embeddingWorkQueue.refreshAfterCommit(ItemType.POPUP, updated.getId());
 
         return toResponse(updated);
     }
@@ -123,6 +128,7 @@ public class PopupService {
         }
 
         Popup updated = popupRepository.save(popup);
+        embeddingWorkQueue.refreshAfterCommit(ItemType.POPUP, updated.getId());
         return toResponse(updated);
     }
 
@@ -155,6 +161,7 @@ public class PopupService {
 
         favoritePopupRepository.deleteByPopup_Id(popupId);
         popupRepository.delete(popup);
+        embeddingWorkQueue.removeAfterCommit(ItemType.POPUP, popupId);
     }
 
     @Transactional
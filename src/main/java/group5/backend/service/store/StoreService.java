@@ -1,15 +1,19 @@
 package group5.backend.service.store;
 
+import group5.backend.domain.event.Event;
 import group5.backend.domain.store.Store;
 import group5.backend.domain.user.Category;
 import group5.backend.domain.user.User;
+import group5.backend.domain.recomm.ItemType;
 import group5.backend.dto.common.store.request.StoreCreateRequest;
 import group5.backend.dto.common.store.request.StoreUpdateRequest;
 import group5.backend.dto.common.store.response.StoreCreateResponse;
 import group5.backend.dto.common.store.response.StoreDetailResponse;
 import group5.backend.dto.common.store.response.StoreSummaryResponse;
+import group5.backend.repository.EventRepository;
 import group5.backend.repository.StoreRepository;
 import group5.backend.service.category.MerchantCategoryService;
+import group5.backend.service.ai.recomm.EmbeddingWorkQueue;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -22,7 +26,9 @@ import java.util.List;
 public class StoreService {
 
     private final StoreRepository storeRepository;
+    private final EventRepository eventRepository;
     private final MerchantCategoryService merchantCategoryService;
+    private final EmbeddingWorkQueue embeddingWorkQueue;
 
     @Transactional
     public StoreCreateResponse createStore(User merchant, StoreCreateRequest req) {
@@ -47,6 +53,7 @@ public class StoreService {
                 .build();
 
         Store saved = storeRepository.save(entity);
+        embeddingWorkQueue.enqueueAfterCommit(ItemType.STORE, saved.getId());
         return toCreateResponse(saved);
     }
 
@@ -77,6 +84,7 @@ public class StoreService {
         if (req.getStartTime() != null) store.setStartTime(req.getStartTime());
         if (req.getEndTime() != null)   store.setEndTime(req.getEndTime());
 
+        embeddingWorkQueue.refreshAfterCommit(ItemType.STORE, store.getId());
         return toDetailResponse(store, false);
     }
 
@@ -87,7 +95,12 @@ public class StoreService {
         if (!store.getOwner().getId().equals(merchant.getId())) {
             throw new AccessDeniedException("본인의 가게만 삭제할 수 있습니다.");
         }
+        // DB FK 로 함께 지워지는 이벤트 벡터도 정리
+        for (Event e : eventRepository.findByStoreId(storeId)) {
+            embeddingWorkQueue.removeAfterCommit(ItemType.EVENT, e.getId());
+        }
         storeRepository.delete(store); // FK가 DB에서 자동 정리
+        embeddingWorkQueue.removeAfterCommit(ItemType.STORE, storeId);
     }
 
     private StoreCreateResponse toCreateResponse(Store s) {
@@ -1,5 +1,6 @@
 package group5.backend.service.user;
 
+import group5.backend.domain.user.Role;
 import group5.backend.domain.user.User;
 import group5.backend.dto.login.request.LoginRequest;
 import group5.backend.dto.login.response.LoginResponse;
@@ -9,6 +10,7 @@ import group5.backend.repository.UserRepository;
 import group5.backend.dto.signup.request.SignupRequest;
 import group5.backend.dto.signup.response.SignupResponse;
 import group5.backend.exception.signup.DuplicateEmailException;
+import group5.backend.exception.signup.InvalidSignupRoleException;
 import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -29,6 +31,11 @@ public class UserService {
     private final BCryptPasswordEncoder bCryptPasswordEncoder;
 
     public SignupResponse signup(SignupRequest request) {
+        // 관리자 역할은 가입으로 받지 않음
+        if (request.getRole() == Role.ADMIN) {
+            throw new InvalidSignupRoleException(request.getRole());
+        }
+
         // 이메일 중복 체크
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new DuplicateEmailException(request.getEmail());
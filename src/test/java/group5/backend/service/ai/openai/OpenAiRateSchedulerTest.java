@@ -0,0 +1,203 @@
+package group5.backend.service.ai.openai;
+
+import group5.backend.config.ai.OpenAiProperties;
+import group5.backend.exception.openai.OpenAiThrottledException;
+import group5.backend.service.ai.openai.OpenAiRateScheduler.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAiRateSchedulerTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    // 가짜 시계 (음수에서 시작: System.nanoTime 도 음수일 수 있다)
+    private final AtomicLong now = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void budgetRefillsWithTheClockUpToOneMinute() throws Exception {
+        var scheduler = scheduler(60, 30);
+        for (int i = 0; i < 60; i++) scheduler.call(Priority.BACKGROUND, 1, () -> 0);
+        assertTrue(scheduler.stats().availableRequests() < 1);
+
+        advanceSeconds(1);
+        assertEquals(1.0, scheduler.stats().availableRequests(), 1e-9);
+        // 한 건 생겼으니 기다리지 않고 통과
+        assertEquals(7, (int) pool.submit(() -> scheduler.call(Priority.INTERACTIVE, 1, () -> 7)).get(2, TimeUnit.SECONDS));
+
+        advanceSeconds(600);
+        assertEquals(60.0, scheduler.stats().availableRequests(), 1e-9);
+        assertEquals(61, scheduler.stats().calls());
+    }
+
+    @Test
+    void tokenBudgetIsChargedByEstimate() {
+        var props = props(1000, 30);
+        props.setTokensPerMinute(600);
+        var scheduler = scheduler(props);
+
+        scheduler.call(Priority.BACKGROUND, 500, () -> 0);
+        assertEquals(100.0, scheduler.stats().availableTokens(), 1e-9);
+
+        advanceSeconds(10); // 분당 600 -> 10초에 100
+        assertEquals(200.0, scheduler.stats().availableTokens(), 1e-9);
+    }
+
+    @Test
+    void interactiveTimesOutWhenTheBudgetDoesNotComeBackInTime() throws Exception {
+        var scheduler = scheduler(1, 5);
+        scheduler.call(Priority.BACKGROUND, 1, () -> 0);
+
+        Future<Integer> call = pool.submit(() -> scheduler.call(Priority.INTERACTIVE, 1, () -> 1));
+        waitUntil(() -> scheduler.stats().waitingInteractive() == 1);
+        advanceSeconds(6); // 분당 1건이라 6초로는 다음 예산이 안 생긴다
+
+        var e = assertThrows(Exception.class, () -> call.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OpenAiThrottledException.class, e.getCause());
+        assertTrue(((OpenAiThrottledException) e.getCause()).getRetryAfterMillis() > 0);
+        assertEquals(1, scheduler.stats().timeouts());
+        assertEquals(0, scheduler.stats().waitingInteractive());
+    }
+
+    @Test
+    void backgroundYieldsToWaitingInteractive() throws Exception {
+        var scheduler = scheduler(1, 600);
+        scheduler.call(Priority.BACKGROUND, 1, () -> 0);
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        Future<?> background = pool.submit(() -> scheduler.call(Priority.BACKGROUND, 1, () -> order.add("background")));
+        waitUntil(() -> scheduler.stats().waitingBackground() == 1);
+        Future<?> interactive = pool.submit(() -> scheduler.call(Priority.INTERACTIVE, 1, () -> order.add("interactive")));
+        waitUntil(() -> scheduler.stats().waitingInteractive() == 1);
+
+        // 한 건만 생긴다: 먼저 기다린 BACKGROUND 가 아니라 INTERACTIVE 가 가져간다
+        advanceSeconds(60);
+        interactive.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("interactive"), order);
+        assertEquals(1, scheduler.stats().waitingBackground());
+
+        advanceSeconds(60);
+        background.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("interactive", "background"), order);
+    }
+
+    @Test
+    void tooManyRequestsFailsInteractiveFastAndPausesEveryone() throws Exception {
+        var scheduler = scheduler(1000, 30);
+        var sent = new AtomicInteger();
+
+        var first = assertThrows(OpenAiThrottledException.class, () -> scheduler.call(Priority.INTERACTIVE, 1, () -> {
+            sent.incrementAndGet();
+            throw tooManyRequests("2");
+        }));
+        assertEquals(2000, first.getRetryAfterMillis());
+
+        // 멈춤 중 새 INTERACTIVE 는 보내지도 않고 바로 실패
+        advanceSeconds(1);
+        var second = assertThrows(OpenAiThrottledException.class,
+                () -> scheduler.call(Priority.INTERACTIVE, 1, sent::incrementAndGet));
+        assertEquals(1000, second.getRetryAfterMillis());
+        assertEquals(1, sent.get());
+
+        // BACKGROUND 는 멈춤이 끝날 때까지 기다렸다가 보낸다
+        Future<Integer> background = pool.submit(() -> scheduler.call(Priority.BACKGROUND, 1, sent::incrementAndGet));
+        waitUntil(() -> scheduler.stats().waitingBackground() == 1);
+        assertFalse(background.isDone());
+        advanceSeconds(1);
+        assertEquals(2, background.get(5, TimeUnit.SECONDS));
+
+        var stats = scheduler.stats();
+        assertEquals(1, stats.throttled());
+        assertEquals(2, stats.rejectedWhilePaused());
+        assertEquals(0, stats.pausedMillisRemaining());
+    }
+
+    @Test
+    void backgroundRetriesAfterThePauseAndGivesUpAfterMaxRetries() throws Exception {
+        var scheduler = scheduler(1000, 30);
+        var attempts = new AtomicInteger();
+
+        Future<Integer> retried = pool.submit(() -> scheduler.call(Priority.BACKGROUND, 1, () -> {
+            if (attempts.incrementAndGet() == 1) throw tooManyRequests("1");
+            return 42;
+        }));
+        waitUntil(() -> scheduler.stats().pausedMillisRemaining() > 0);
+        advanceSeconds(1);
+        assertEquals(42, retried.get(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+
+        // maxRetries(2) 번 다시 시도한 뒤에는 429 를 그대로 던진다
+        attempts.set(0);
+        Future<Integer> exhausted = pool.submit(() -> scheduler.call(Priority.BACKGROUND, 1, () -> {
+            attempts.incrementAndGet();
+            throw tooManyRequests("1");
+        }));
+        for (int i = 1; i <= 3; i++) {
+            int seen = i;
+            // 429 를 받고 멈춘 뒤에 시계를 넘긴다
+            waitUntil(() -> attempts.get() == seen && scheduler.stats().pausedMillisRemaining() > 0);
+            advanceSeconds(1);
+        }
+        var e = assertThrows(Exception.class, () -> exhausted.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(WebClientResponseException.class, e.getCause());
+        assertEquals(3, attempts.get());
+    }
+
+    /* ===== 아래는 테스트 유틸 ===== */
+
+    private OpenAiRateScheduler scheduler(long rpm, int timeoutSec) {
+        return scheduler(props(rpm, timeoutSec));
+    }
+
+    private OpenAiRateScheduler scheduler(OpenAiProperties props) {
+        var scheduler = new OpenAiRateScheduler(props, new SimpleMeterRegistry(), now::get);
+        scheduler.init();
+        return scheduler;
+    }
+
+    private static OpenAiProperties props(long rpm, int timeoutSec) {
+        var props = new OpenAiProperties();
+        props.setRequestsPerMinute(rpm);
+        props.setTokensPerMinute(1_000_000);
+        props.setTimeoutSec(timeoutSec);
+        props.setMaxRetries(2);
+        props.setInitialBackoffMs(1000);
+        return props;
+    }
+
+    private void advanceSeconds(long seconds) {
+        now.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+
+    private static WebClientResponseException tooManyRequests(String retryAfter) {
+        var headers = new HttpHeaders();
+        headers.add("Retry-After", retryAfter);
+        return WebClientResponseException.create(429, "Too Many Requests", headers, new byte[0], null);
+    }
+
+    private static void waitUntil(BooleanSupplier cond) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cond.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met in time");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.config.recomm.RecommProperties;
+import group5.backend.domain.recomm.ItemType;
+import group5.backend.repository.PreferenceQueryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoLikeIndexTest {
+
+    // A=가게1, B=가게2, C=이벤트3, D=팝업4
+    private static final ItemKey A = new ItemKey(ItemType.STORE, 1L);
+    private static final ItemKey B = new ItemKey(ItemType.STORE, 2L);
+    private static final ItemKey C = new ItemKey(ItemType.EVENT, 3L);
+    private static final ItemKey D = new ItemKey(ItemType.POPUP, 4L);
+
+    private final Map<Long, List<ItemKey>> favorites = new HashMap<>();
+    private final RecommProperties props = new RecommProperties();
+    private CoLikeIndex index;
+
+    @AfterEach
+    void tearDown() {
+        if (index != null) index.shutdown();
+    }
+
+    @Test
+    void neighboursAreWeightedByCoLikesAndScaledToOne() {
+        likes(1L, A, B);
+        likes(2L, A, B);
+        likes(3L, A, C);
+        likes(4L, A, C);
+        likes(5L, A, C);
+        likes(6L, B, C); // B-C 공동 좋아요 1명 -> min-co-likes(2) 미만
+        likes(100L, A);
+        build();
+
+        var affinity = index.affinity(100L);
+
+        // w(A,C) = 3/sqrt(5*4) 가 가장 크므로 1, w(A,B) = 2/sqrt(5*3) 는 그 비율
+        assertEquals(1.0, affinity.score(ItemType.EVENT, 3L), 1e-6);
+        assertEquals((2 / Math.sqrt(15)) / (3 / Math.sqrt(20)), affinity.score(ItemType.STORE, 2L), 1e-6);
+        assertEquals(List.of(C, B), affinity.top(10));
+        assertEquals(0.0, affinity.score(ItemType.POPUP, 4L));
+    }
+
+    @Test
+    void itemsTheUserAlreadyLikedAreNeverScored() {
+        likes(1L, A, B);
+        likes(2L, A, B);
+        likes(3L, A, C);
+        likes(4L, A, C);
+        likes(5L, B, D);
+        likes(6L, B, D);
+        likes(100L, A, B);
+        build();
+
+        var affinity = index.affinity(100L);
+
+        // A 와 B 는 서로의 이웃이지만 둘 다 이미 좋아요한 아이템
+        assertEquals(0.0, affinity.score(ItemType.STORE, 1L));
+        assertEquals(0.0, affinity.score(ItemType.STORE, 2L));
+        assertEquals(Set.of(C, D), Set.copyOf(affinity.top(10)));
+        assertEquals(1.0, affinity.score(ItemType.EVENT, 3L), 1e-6);
+        assertEquals(1.0, affinity.score(ItemType.POPUP, 4L), 1e-6);
+    }
+
+    @Test
+    void userWhoseLikesHaveNoOtherNeighboursGetsNothing() {
+        likes(1L, A, B);
+        likes(2L, A, B);
+        likes(100L, A, B);
+        build();
+
+        assertTrue(index.affinity(100L).isEmpty());
+        assertTrue(index.affinity(200L).isEmpty()); // 좋아요 없음
+    }
+
+    @Test
+    void heavyUsersAreLeftOutOfPairCounting() {
+        likes(1L, A, B, C, D);
+        likes(2L, A, B, C, D);
+        likes(3L, A, C);
+        likes(4L, A, C);
+        likes(100L, A);
+        props.getCoLike().setMaxUserLikes(3);
+        build();
+
+        var affinity = index.affinity(100L);
+
+        assertEquals(List.of(C), affinity.top(10));
+        assertEquals(4, index.stats().users());
+        assertEquals(2, index.stats().edges()); // A->C, C->A
+    }
+
+    /* ===== 아래는 테스트 유틸 ===== */
+
+    private void likes(Long userId, ItemKey... items) {
+        favorites.put(userId, List.of(items));
+    }
+
+    private void build() {
+        var cfg = props.getCoLike();
+        cfg.setParallelism(2);
+        cfg.setLoadUserRange(2); // 구간을 여러 번 나눠 읽도록
+
+        // 인덱스는 100번 이상 유저(조회 대상)의 즐겨찾기를 읽지 않는다 -> 그래프에 영향 없음
+        var queries = new PreferenceQueryRepository(null) {
+            @Override
+            public List<Object[]> findFavoriteRowsByUserRange(long fromUser, long toUser) {
+                List<Object[]> rows = new ArrayList<>();
+                favorites.forEach((user, items) -> {
+                    if (user <= fromUser || user > toUser || user >= 100) return;
+                    for (ItemKey k : items) rows.add(new Object[]{user, kind(k.type()), k.id()});
+                });
+                return rows;
+            }
+
+            @Override
+            public Long findMaxFavoriteUserId() {
+                return favorites.keySet().stream().filter(u -> u < 100).max(Long::compare).orElse(null);
+            }
+        };
+
+        index = new CoLikeIndex(queries, new Likes(), props);
+        index.init();
+        index.rebuild();
+    }
+
+    private static String kind(ItemType type) {
+        return switch (type) {
+            case STORE -> "S";
+            case EVENT -> "E";
+            case POPUP -> "P";
+        };
+    }
+
+    private class Likes implements PreferencePort {
+        @Override public Set<String> preferredCategories(Long userId) { return Set.of(); }
+        @Override public List<Long> likedStoreIds(Long userId) { return ids(userId, ItemType.STORE); }
+        @Override public List<Long> likedEventIds(Long userId) { return ids(userId, ItemType.EVENT); }
+        @Override public List<Long> likedPopupIds(Long userId) { return ids(userId, ItemType.POPUP); }
+        @Override public List<Long> likerIds(ItemType type, Collection<Long> itemIds) { return List.of(); }
+
+        private List<Long> ids(Long userId, ItemType type) {
+            return favorites.getOrDefault(userId, List.of()).stream()
+                    .filter(k -> k.type() == type).map(ItemKey::id).toList();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingIndexTest {
+
+    private static final int DIM = 70;
+
+    @Test
+    void floatTileMatchesRowDot() {
+        assertTileMatchesDot(false, 1e-5);
+    }
+
+    @Test
+    void int8TileMatchesRowDot() {
+        assertTileMatchesDot(true, 1e-4);
+    }
+
+    @Test
+    void tileIsIndependentOfDepthBlock() {
+        Random rnd = new Random(3);
+        var slab = slab(rnd, true, 20);
+        long[] ids = ids(20);
+        float[] users = vectors(rnd, 5);
+        float[] whole = new float[5 * 20];
+        float[] blocked = new float[5 * 20];
+
+        slab.dotTile(ids, 0, 20, users, 0, 5, DIM, whole);
+        slab.dotTile(ids, 0, 20, users, 0, 5, 16, blocked);
+
+        for (int i = 0; i < whole.length; i++) assertEquals(whole[i], blocked[i], 1e-5);
+    }
+
+    @Test
+    void missingRowsAreNaNAndRemovalKeepsOtherRows() {
+        Random rnd = new Random(9);
+        var slab = slab(rnd, false, 6);
+        float[] users = vectors(rnd, 2);
+        float[] before = new float[2];
+        slab.dotTile(new long[]{6}, 0, 1, users, 0, 2, 32, before);
+
+        // 중간 행을 지우면 마지막 행(6)이 그 자리로 옮겨진다
+        assertTrue(slab.remove(2L));
+        float[] out = new float[2 * 3];
+        slab.dotTile(new long[]{1, 2, 6}, 0, 3, users, 0, 2, 32, out);
+
+        for (int u = 0; u < 2; u++) {
+            assertTrue(Float.isNaN(out[u * 3 + 1]));
+            assertEquals(before[u], out[u * 3 + 2], 1e-6);
+            assertEquals(slab.dot(1L, row(users, u)), out[u * 3], 1e-5);
+        }
+    }
+
+    @Test
+    void tileRespectsItemAndUserWindow() {
+        Random rnd = new Random(4);
+        var slab = slab(rnd, false, 12);
+        long[] ids = ids(12);
+        float[] users = vectors(rnd, 6);
+        float[] out = new float[2 * 5];
+
+        // 아이템 [4, 9), 유저 [3, 5) 만 계산
+        slab.dotTile(ids, 4, 9, users, 3, 5, 8, out);
+
+        for (int u = 0; u < 2; u++) {
+            for (int j = 0; j < 5; j++) {
+                assertEquals(slab.dot(ids[4 + j], row(users, 3 + u)), out[u * 5 + j], 1e-5);
+            }
+        }
+    }
+
+    private static void assertTileMatchesDot(boolean int8, double eps) {
+        Random rnd = new Random(int8 ? 2 : 1);
+        var slab = slab(rnd, int8, 33);
+        long[] ids = ids(33);
+        float[] users = vectors(rnd, 7);
+        float[] out = new float[7 * 33];
+
+        slab.dotTile(ids, 0, 33, users, 0, 7, 24, out);
+
+        for (int u = 0; u < 7; u++) {
+            for (int j = 0; j < 33; j++) {
+                assertEquals(slab.dot(ids[j], row(users, u)), out[u * 33 + j], eps, "u=" + u + " j=" + j);
+            }
+        }
+    }
+
+    /** id 1..n, 일부는 정규화 안 된 벡터 (upsert 에서 정규화되는 경로) */
+    private static EmbeddingIndex.Slab slab(Random rnd, boolean int8, int n) {
+        var slab = new EmbeddingIndex.Slab(DIM, int8);
+        float[] vecs = vectors(rnd, n);
+        for (int i = 0; i < n; i++) {
+            float[] v = row(vecs, i);
+            if (i % 3 == 0) for (int d = 0; d < DIM; d++) v[d] *= 2.5f;
+            slab.upsert((long) i + 1, v);
+        }
+        return slab;
+    }
+
+    private static long[] ids(int n) {
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) ids[i] = i + 1;
+        return ids;
+    }
+
+    private static float[] vectors(Random rnd, int n) {
+        float[] out = new float[n * DIM];
+        for (int i = 0; i < n; i++) {
+            double s = 0;
+            for (int d = 0; d < DIM; d++) { out[i * DIM + d] = (float) rnd.nextGaussian(); s += out[i * DIM + d] * out[i * DIM + d]; }
+            for (int d = 0; d < DIM; d++) out[i * DIM + d] /= (float) Math.sqrt(s);
+        }
+        return out;
+    }
+
+    private static float[] row(float[] m, int i) {
+        float[] v = new float[DIM];
+        System.arraycopy(m, i * DIM, v, 0, DIM);
+        return v;
+    }
+}
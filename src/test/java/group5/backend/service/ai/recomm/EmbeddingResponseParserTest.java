@@ -0,0 +1,98 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingResponseParserTest {
+
+    // 같은 벡터 3개를 encoding_format=float / base64 로 받은 /embeddings 응답 (dim 256, index 순서 1, 0, 2)
+    private static final String FLOAT_FIXTURE = "/openai/embeddings-float.json";
+    private static final String BASE64_FIXTURE = "/openai/embeddings-base64.json";
+
+    @Test
+    void base64AndFloatResponsesDecodeToSameVectors() throws IOException {
+        var floats = EmbeddingResponseParser.parse(fixture(FLOAT_FIXTURE));
+        var base64 = EmbeddingResponseParser.parse(fixture(BASE64_FIXTURE));
+
+        assertEquals(3, floats.size());
+        assertEquals(3, base64.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(floats.get(i).index(), base64.get(i).index());
+            assertArrayEquals(floats.get(i).vector(), base64.get(i).vector());
+        }
+    }
+
+    @Test
+    void keepsResponseOrderAndIndex() throws IOException {
+        var items = EmbeddingResponseParser.parse(fixture(BASE64_FIXTURE));
+
+        assertEquals(List.of(1, 0, 2), items.stream().map(EmbeddingResponseParser.Item::index).toList());
+        for (var it : items) assertEquals(256, it.vector().length);
+    }
+
+    @Test
+    void decodesKnownComponents() throws IOException {
+        for (String f : List.of(FLOAT_FIXTURE, BASE64_FIXTURE)) {
+            var items = EmbeddingResponseParser.parse(fixture(f));
+            float[] first = items.get(1).vector();   // index 0
+            float[] third = items.get(2).vector();   // index 2
+
+            assertEquals(0.0369622931f, first[0], f);
+            assertEquals(0.0442049503f, first[255], f);
+            assertEquals(-0.0444326438f, third[17], f);
+        }
+    }
+
+    @Test
+    void skipsUnknownFieldsAndNestedObjects() throws IOException {
+        String body = "{\"object\":\"list\",\"meta\":{\"a\":[1,2,{\"b\":3}]},"
+                + "\"data\":[{\"object\":\"embedding\",\"extra\":{\"x\":[0.5]},\"index\":0,\"embedding\":[0.25,-1.5]}],"
+                + "\"usage\":{\"prompt_tokens\":2,\"total_tokens\":2}}";
+
+        var items = EmbeddingResponseParser.parse(body.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(1, items.size());
+        assertEquals(0, items.get(0).index());
+        assertArrayEquals(new float[]{0.25f, -1.5f}, items.get(0).vector());
+    }
+
+    @Test
+    void floatArrayLongerThanInitialBufferIsKept() throws IOException {
+        StringBuilder sb = new StringBuilder("{\"data\":[{\"index\":0,\"embedding\":[");
+        for (int i = 0; i < 3072; i++) sb.append(i == 0 ? "" : ",").append(i);
+        sb.append("]}]}");
+
+        float[] v = EmbeddingResponseParser.parse(sb.toString().getBytes(StandardCharsets.UTF_8)).get(0).vector();
+
+        assertEquals(3072, v.length);
+        assertEquals(3071f, v[3071]);
+    }
+
+    @Test
+    void floatArrayIsSizedFromRequestedDim() throws IOException {
+        byte[] body = "{\"data\":[{\"index\":0,\"embedding\":[1,2,3]}]}".getBytes(StandardCharsets.UTF_8);
+
+        // 요청 차원과 같으면 그대로, 다르면 실제 길이로 (짧든 길든)
+        assertArrayEquals(new float[]{1f, 2f, 3f}, EmbeddingResponseParser.parse(body, 3).get(0).vector());
+        assertArrayEquals(new float[]{1f, 2f, 3f}, EmbeddingResponseParser.parse(body, 8).get(0).vector());
+        assertArrayEquals(new float[]{1f, 2f, 3f}, EmbeddingResponseParser.parse(body, 2).get(0).vector());
+    }
+
+    @Test
+    void rejectsNonObjectBody() {
+        assertThrows(IOException.class, () -> EmbeddingResponseParser.parse("[]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static byte[] fixture(String path) throws IOException {
+        try (InputStream in = EmbeddingResponseParserTest.class.getResourceAsStream(path)) {
+            assertNotNull(in, path);
+            return in.readAllBytes();
+        }
+    }
+}
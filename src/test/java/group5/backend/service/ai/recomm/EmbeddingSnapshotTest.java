@@ -0,0 +1,137 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.ItemType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingSnapshotTest {
+
+    private static final String MODEL = "text-embedding-3-small";
+    private static final int DIM = 24;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripAcrossManyMappedRegions() throws IOException {
+        Path file = dir.resolve("items.snap");
+        var written = write(file, 1_000, 42L);
+
+        List<Object[]> read = new ArrayList<>();
+        // 구간 하나에 레코드 7개 -> 143 개 구간으로 나눠 읽는다
+        long region = 7 * EmbeddingSnapshot.recordBytes(DIM) + 5;
+        var h = EmbeddingSnapshot.read(file, MODEL, DIM, (t, id, v) -> read.add(new Object[]{t, id, v}), region);
+
+        assertEquals(1_000, h.count());
+        assertEquals(MODEL, h.model());
+        assertEquals(DIM, h.dim());
+        assertEquals(4_242L, h.maxRowId());
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(written.get(i)[0], read.get(i)[0]);
+            assertEquals(written.get(i)[1], read.get(i)[1]);
+            assertArrayEquals((float[]) written.get(i)[2], (float[]) read.get(i)[2]);
+        }
+    }
+
+    @Test
+    void singleRegionMatchesMultiRegion() throws IOException {
+        Path file = dir.resolve("items.snap");
+        write(file, 300, 7L);
+
+        List<Long> a = new ArrayList<>(), b = new ArrayList<>();
+        EmbeddingSnapshot.read(file, MODEL, DIM, (t, id, v) -> a.add(id), 1L << 30);
+        EmbeddingSnapshot.read(file, MODEL, DIM, (t, id, v) -> b.add(id), 1);
+
+        assertEquals(a, b);
+    }
+
+    @Test
+    void emptySnapshotIsValid() throws IOException {
+        Path file = dir.resolve("empty.snap");
+        write(file, 0, 1L);
+
+        int[] seen = {0};
+        var h = EmbeddingSnapshot.read(file, MODEL, DIM, (t, id, v) -> seen[0]++, 1L << 30);
+
+        assertEquals(0, h.count());
+        assertEquals(0, seen[0]);
+    }
+
+    @Test
+    void rejectsOtherModelOrDimension() throws IOException {
+        Path file = dir.resolve("items.snap");
+        write(file, 10, 1L);
+
+        assertThrows(IOException.class, () -> EmbeddingSnapshot.read(file, MODEL, DIM * 2, (t, id, v) -> fail("sink"), 1L << 30));
+        assertThrows(IOException.class, () -> EmbeddingSnapshot.read(file, "other", DIM, (t, id, v) -> fail("sink"), 1L << 30));
+    }
+
+    @Test
+    void rejectsCorruptedBodyBeforeCallingSink() throws IOException {
+        Path file = dir.resolve("items.snap");
+        write(file, 50, 3L);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[]{0x7f}), Files.size(file) - 3);
+        }
+
+        var e = assertThrows(IOException.class,
+                () -> EmbeddingSnapshot.read(file, MODEL, DIM, (t, id, v) -> fail("sink called before checksum"), 64));
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path file = dir.resolve("items.snap");
+        write(file, 20, 3L);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(Files.size(file) - 4);
+        }
+
+        assertThrows(IOException.class, () -> EmbeddingSnapshot.read(file, MODEL, DIM, (t, id, v) -> fail("sink"), 1L << 30));
+    }
+
+    @Test
+    void uncommittedWriterLeavesNoFiles() throws IOException {
+        Path file = dir.resolve("items.snap");
+        try (var w = new EmbeddingSnapshot.Writer(file, MODEL, DIM, 0L)) {
+            w.add(ItemType.STORE, 1L, new float[DIM]);
+        }
+
+        assertFalse(Files.exists(file));
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /** [type, id, vec] 목록을 쓰고 그대로 돌려준다 */
+    private static List<Object[]> write(Path file, int n, long seed) throws IOException {
+        Random rnd = new Random(seed);
+        ItemType[] types = ItemType.values();
+        List<Object[]> out = new ArrayList<>(n);
+        try (var w = new EmbeddingSnapshot.Writer(file, MODEL, DIM, 1_700_000_000_000L)) {
+            for (int i = 0; i < n; i++) {
+                float[] v = new float[DIM];
+                for (int d = 0; d < DIM; d++) v[d] = (float) rnd.nextGaussian();
+                ItemType type = types[i % types.length];
+                Long id = (1L << 40) + i;
+                w.add(type, id, v);
+                out.add(new Object[]{type, id, v});
+            }
+            w.commit(4_242L);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,149 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static final int DIM = 32;
+
+    @Test
+    void recallAgainstBruteForceOnSeededRandomSet() {
+        Random r = new Random(42);
+        int n = 3000, queries = 100, k = 10;
+        float[][] data = new float[n][];
+        var index = new HnswIndex(DIM, 16, 100, 7L);
+        for (int i = 0; i < n; i++) {
+            data[i] = gaussian(r);
+            index.upsert(i + 1, data[i]);
+        }
+
+        float[][] qs = new float[queries][];
+        for (int q = 0; q < queries; q++) qs[q] = gaussian(r);
+
+        double narrow = recall(index, data, qs, k, k);
+        double wide = recall(index, data, qs, k, 100);
+
+        // 시드 고정 기준 ef=10 은 약 0.78, ef=100 은 1.0. 여유를 두고 검사
+        assertTrue(narrow >= 0.7, "recall@10 ef=10 = " + narrow);
+        assertTrue(wide >= 0.95, "recall@10 ef=100 = " + wide);
+        assertTrue(wide > narrow);
+    }
+
+    @Test
+    void upsertReplacesTheVectorOfAnExistingKey() {
+        Random r = new Random(1);
+        var index = new HnswIndex(DIM, 8, 50, 3L);
+        for (int i = 1; i <= 200; i++) index.upsert(i, gaussian(r));
+
+        float[] moved = gaussian(r);
+        index.upsert(17L, moved);
+
+        assertEquals(200, index.size());
+        assertEquals(1, index.tombstones());
+        List<HnswIndex.Hit> hits = index.search(moved, 3, 50);
+        assertEquals(17L, hits.get(0).key());
+        assertEquals(1f, hits.get(0).score(), 1e-5f);
+        // 예전 노드는 tombstone 이라 같은 key 가 두 번 나오지 않는다
+        assertEquals(1, hits.stream().filter(h -> h.key() == 17L).count());
+    }
+
+    @Test
+    void removedKeysNeverComeBack() {
+        Random r = new Random(2);
+        var index = new HnswIndex(DIM, 8, 50, 5L);
+        float[][] data = new float[300][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = gaussian(r);
+            index.upsert(i + 1, data[i]);
+        }
+
+        Set<Long> removed = new HashSet<>();
+        for (long key = 1; key <= 300; key += 3) {
+            assertTrue(index.remove(key));
+            removed.add(key);
+        }
+        assertFalse(index.remove(1L));
+
+        assertEquals(200, index.size());
+        assertEquals(100, index.tombstones());
+        assertFalse(index.contains(1L));
+        for (int i = 0; i < data.length; i += 7) {
+            for (var h : index.search(data[i], 20, 80)) {
+                assertFalse(removed.contains(h.key()), "removed key " + h.key());
+            }
+        }
+        Set<Long> alive = index.aliveEntries().stream().map(Map.Entry::getKey).collect(Collectors.toSet());
+        assertEquals(200, alive.size());
+        assertTrue(alive.stream().noneMatch(removed::contains));
+    }
+
+    @Test
+    void invalidInputIsIgnored() {
+        var index = new HnswIndex(DIM, 8, 50, 9L);
+
+        assertTrue(index.search(new float[DIM], 5, 50).isEmpty()); // 빈 인덱스
+
+        index.upsert(1L, new float[DIM - 1]);
+        index.upsert(2L, null);
+        assertEquals(0, index.size());
+
+        index.upsert(3L, gaussian(new Random(3)));
+        assertTrue(index.search(new float[DIM - 1], 5, 50).isEmpty());
+        assertTrue(index.search(new float[DIM], 0, 50).isEmpty());
+        assertEquals(3L, index.search(new float[DIM], 5, 50).get(0).key());
+    }
+
+    /* ===== 아래는 테스트 유틸 ===== */
+
+    private static float[] gaussian(Random r) {
+        float[] v = new float[DIM];
+        for (int i = 0; i < DIM; i++) v[i] = (float) r.nextGaussian();
+        return v;
+    }
+
+    private static double recall(HnswIndex index, float[][] data, float[][] queries, int k, int ef) {
+        int found = 0;
+        for (float[] query : queries) {
+            Set<Long> exact = bruteForce(data, query, k);
+            List<HnswIndex.Hit> hits = index.search(query, k, ef);
+
+            assertEquals(k, hits.size());
+            for (int i = 1; i < hits.size(); i++) {
+                assertTrue(hits.get(i - 1).score() >= hits.get(i).score(), "score desc");
+            }
+            for (var h : hits) if (exact.contains(h.key())) found++;
+        }
+        return (double) found / (queries.length * k);
+    }
+
+    /** 코사인 상위 k 개의 key (key = 인덱스 + 1) */
+    private static Set<Long> bruteForce(float[][] data, float[] q, int k) {
+        double qn = norm(q);
+        return IntStream.range(0, data.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> -dot(data[i], q) / (norm(data[i]) * qn)))
+                .limit(k)
+                .map(i -> i + 1L)
+                .collect(Collectors.toSet());
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) s += a[i] * b[i];
+        return s;
+    }
+
+    private static double norm(float[] v) {
+        return Math.sqrt(dot(v, v));
+    }
+}
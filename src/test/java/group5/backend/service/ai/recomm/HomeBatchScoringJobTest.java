@@ -0,0 +1,177 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.ItemType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HomeBatchScoringJobTest {
+
+    private static final int DIM = 40;
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void blockedTopKMatchesBruteForce() {
+        Random rnd = new Random(11);
+        var fixture = fixture(rnd, 150, 0);
+        int m = 37;
+        float[] users = unitRows(rnd, m);
+
+        // 유저/아이템 블록 크기가 나누어떨어지지 않게 (타입 경계에서도 블록이 끊긴다)
+        var ranked = HomeBatchScoringJob.score(pool, fixture.kernel(), users, m, fixture.items(), 10, 8, 16);
+
+        for (int u = 0; u < m; u++) {
+            assertEquals(expected(fixture, users, u, 10), ids(ranked[u]), "user " + u);
+        }
+    }
+
+    @Test
+    void itemsRemovedFromIndexAreSkipped() {
+        Random rnd = new Random(5);
+        var fixture = fixture(rnd, 60, 3);
+        int m = 9;
+        float[] users = unitRows(rnd, m);
+
+        var ranked = HomeBatchScoringJob.score(pool, fixture.kernel(), users, m, fixture.items(), 60, 4, 7);
+
+        for (int u = 0; u < m; u++) {
+            assertEquals(57, ranked[u].size());
+            for (var s : ranked[u]) assertFalse(fixture.removed().contains(key(s.item())));
+            assertEquals(expected(fixture, users, u, 60), ids(ranked[u]));
+        }
+    }
+
+    @Test
+    void tiesAreBrokenByLikesThenId() {
+        // 모든 아이템 벡터/최근성이 같으면 좋아요 수 -> id 순
+        ItemCandidate[] items = {
+                ItemCandidate.of(ItemType.STORE, 1L, 5, null, null, null, null),
+                ItemCandidate.of(ItemType.STORE, 2L, 9, null, null, null, null),
+                ItemCandidate.of(ItemType.STORE, 3L, 5, null, null, null, null),
+                ItemCandidate.of(ItemType.EVENT, 4L, 9, null, null, null, null),
+        };
+        var matrix = new HomeBatchScoringJob.Items(items, new long[]{1, 2, 3, 4}, new float[4]);
+        HomeBatchScoringJob.TileKernel same = (type, ids, j0, j1, users, u0, u1, out) -> {
+            for (int i = 0; i < (u1 - u0) * (j1 - j0); i++) out[i] = 0.5f;
+        };
+
+        var ranked = HomeBatchScoringJob.score(pool, same, new float[DIM], 1, matrix, 3, 1, 2);
+
+        assertEquals(List.of(4L, 2L, 3L), ids(ranked[0]));
+    }
+
+    @Test
+    void emptyItemSetGivesEmptyRankings() {
+        var matrix = new HomeBatchScoringJob.Items(new ItemCandidate[0], new long[0], new float[0]);
+        HomeBatchScoringJob.TileKernel none = (type, ids, j0, j1, users, u0, u1, out) -> fail("no tiles expected");
+
+        var ranked = HomeBatchScoringJob.score(pool, none, new float[3 * DIM], 3, matrix, 5, 2, 4);
+
+        for (var r : ranked) assertTrue(r.isEmpty());
+    }
+
+    /* ===== 픽스처 ===== */
+
+    private record Fixture(HomeBatchScoringJob.Items items, float[][] vecs, List<Long> removed,
+                           HomeBatchScoringJob.TileKernel kernel) {}
+
+    /** 타입별로 모인 n 개 아이템. 뒤쪽 removedCount 개는 인덱스에서 빠진 것으로 (NaN) */
+    private static Fixture fixture(Random rnd, int n, int removedCount) {
+        ItemType[] types = ItemType.values();
+        ItemCandidate[] items = new ItemCandidate[n];
+        long[] ids = new long[n];
+        float[] prior = new float[n];
+        float[][] vecs = new float[n][];
+        List<Long> removed = new ArrayList<>();
+        for (int j = 0; j < n; j++) {
+            ItemType type = types[j * types.length / n];
+            items[j] = ItemCandidate.of(type, 1_000L + j, rnd.nextInt(4), null, null, null, null);
+            ids[j] = items[j].id();
+            prior[j] = (float) (rnd.nextDouble() * 0.2);
+            vecs[j] = unit(rnd);
+        }
+        for (int r = 0; r < removedCount; r++) {
+            int j = n - 1 - r * 7;
+            vecs[j] = null;
+            removed.add(key(items[j]));
+        }
+        HomeBatchScoringJob.TileKernel kernel = (type, idArr, j0, j1, users, u0, u1, out) -> {
+            int w = j1 - j0;
+            for (int u = u0; u < u1; u++) {
+                for (int j = j0; j < j1; j++) {
+                    assertEquals(type, items[j].type(), "tile must not mix types");
+                    out[(u - u0) * w + (j - j0)] = vecs[j] == null ? Float.NaN : dot(users, u, vecs[j]);
+                }
+            }
+        };
+        return new Fixture(new HomeBatchScoringJob.Items(items, ids, prior), vecs, removed, kernel);
+    }
+
+    private static List<Long> expected(Fixture f, float[] users, int u, int k) {
+        var items = f.items().items();
+        float sw = (float) RankingService.SIM_WEIGHT;
+        List<Integer> order = new ArrayList<>();
+        float[] score = new float[items.length];
+        for (int j = 0; j < items.length; j++) {
+            if (f.vecs()[j] == null) continue;
+            score[j] = sw * dot(users, u, f.vecs()[j]) + f.items().prior()[j];
+            order.add(j);
+        }
+        order.sort(Comparator.<Integer>comparingDouble(j -> score[j])
+                .thenComparingInt(j -> items[j].likeCount())
+                .thenComparingLong(j -> items[j].id())
+                .reversed());
+        List<Long> out = new ArrayList<>();
+        for (int i = 0; i < Math.min(k, order.size()); i++) out.add(items[order.get(i)].id());
+        return out;
+    }
+
+    private static float dot(float[] users, int u, float[] v) {
+        float s = 0f;
+        for (int d = 0; d < DIM; d++) s += users[u * DIM + d] * v[d];
+        return s;
+    }
+
+    private static float[] unitRows(Random rnd, int m) {
+        float[] out = new float[m * DIM];
+        for (int u = 0; u < m; u++) System.arraycopy(unit(rnd), 0, out, u * DIM, DIM);
+        return out;
+    }
+
+    private static float[] unit(Random rnd) {
+        float[] v = new float[DIM];
+        double s = 0;
+        for (int d = 0; d < DIM; d++) { v[d] = (float) rnd.nextGaussian(); s += v[d] * v[d]; }
+        for (int d = 0; d < DIM; d++) v[d] /= (float) Math.sqrt(s);
+        return v;
+    }
+
+    private static long key(ItemCandidate c) {
+        return ((long) c.type().ordinal() << 56) | c.id();
+    }
+
+    private static List<Long> ids(List<RankingService.Scored> ranked) {
+        List<Long> out = new ArrayList<>();
+        for (var s : ranked) out.add(s.item().id());
+        return out;
+    }
+}
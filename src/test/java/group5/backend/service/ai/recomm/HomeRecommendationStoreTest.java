@@ -0,0 +1,69 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.ItemType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HomeRecommendationStoreTest {
+
+    @Test
+    void blobRoundTripKeepsOrderAndKeys() {
+        var ranked = ranked(ItemType.STORE, 3L, ItemType.EVENT, 10_000_000_000L, ItemType.POPUP, 7L);
+
+        var decoded = HomeRecommendationStore.decode(HomeRecommendationStore.encode(ranked));
+
+        assertEquals(keys(ranked), keys(decoded));
+        assertEquals(ranked.get(1).score(), decoded.get(1).score(), 1e-6);
+    }
+
+    @Test
+    void servableHeadSkipsEndedOrDeletedItemsAndRefillsFromTail() {
+        var stored = ranked(ItemType.STORE, 1L, ItemType.EVENT, 2L, ItemType.POPUP, 3L, ItemType.STORE, 4L);
+        Set<ItemKey> live = Set.of(new ItemKey(ItemType.STORE, 1L), new ItemKey(ItemType.POPUP, 3L), new ItemKey(ItemType.STORE, 4L));
+
+        var head = HomeRecommendationStore.servableHead(stored, 3, live::contains);
+
+        assertEquals(List.of(new ItemKey(ItemType.STORE, 1L), new ItemKey(ItemType.POPUP, 3L), new ItemKey(ItemType.STORE, 4L)),
+                keys(head));
+    }
+
+    @Test
+    void servableHeadMissesWhenDroppedItemsLeaveThePageShort() {
+        var stored = ranked(ItemType.STORE, 1L, ItemType.EVENT, 2L, ItemType.POPUP, 3L);
+        Set<ItemKey> live = Set.of(new ItemKey(ItemType.STORE, 1L), new ItemKey(ItemType.POPUP, 3L));
+
+        assertNull(HomeRecommendationStore.servableHead(stored, 3, live::contains));
+        // 앞부분만 필요하면 그대로 쓴다
+        assertEquals(2, HomeRecommendationStore.servableHead(stored, 2, live::contains).size());
+    }
+
+    @Test
+    void servableHeadKeepsResultThatWasShortFromTheStart() {
+        // 랭킹할 때부터 후보가 모자랐던 결과는 다시 계산해도 같으므로 그대로 쓴다
+        var stored = ranked(ItemType.STORE, 1L, ItemType.STORE, 2L);
+
+        var head = HomeRecommendationStore.servableHead(stored, 6, k -> true);
+
+        assertEquals(2, head.size());
+    }
+
+    private static List<RankingService.Scored> ranked(Object... typeIdPairs) {
+        List<RankingService.Scored> out = new ArrayList<>();
+        for (int i = 0; i < typeIdPairs.length; i += 2) {
+            var c = ItemCandidate.of((ItemType) typeIdPairs[i], (Long) typeIdPairs[i + 1], 0, null, null, null, null);
+            out.add(new RankingService.Scored(c, 1.0 - i * 0.01));
+        }
+        return out;
+    }
+
+    private static List<ItemKey> keys(List<RankingService.Scored> ranked) {
+        List<ItemKey> out = new ArrayList<>();
+        for (var s : ranked) out.add(ItemKey.of(s.item()));
+        return out;
+    }
+}
@@ -0,0 +1,94 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Int8QuantizerTest {
+
+    @Test
+    void largestComponentMapsTo127AndErrorIsAtMostHalfAStep() {
+        float[] v = {0.5f, -1.27f, 0.004f, 0f, 1.0f};
+        byte[] q = new byte[v.length];
+
+        float scale = Int8Quantizer.quantize(v, 0, q, 0, v.length);
+
+        assertEquals(1.27f / 127f, scale, 1e-7f);
+        assertEquals(-127, q[1]);
+        assertEquals(0, q[3]);
+        float[] back = Int8Quantizer.dequantize(q, 0, v.length, scale);
+        for (int i = 0; i < v.length; i++) {
+            assertTrue(Math.abs(back[i] - v[i]) <= scale / 2 + 1e-7f, "component " + i);
+        }
+    }
+
+    @Test
+    void offsetsOnlyTouchTheirOwnRow() {
+        float[] src = {9f, 9f, 1f, -3f, 4f, 9f};
+        byte[] dst = {5, 5, 5, 5, 5, 5};
+
+        float scale = Int8Quantizer.quantize(src, 2, dst, 1, 3);
+
+        assertEquals(4f / 127f, scale, 1e-7f);
+        assertArrayEquals(new byte[]{5, 32, -95, 127, 5, 5}, dst);
+        assertArrayEquals(new float[]{32 * scale, -95 * scale, 127 * scale},
+                Int8Quantizer.dequantize(dst, 1, 3, scale));
+    }
+
+    @Test
+    void zeroVectorHasZeroScaleAndClearsItsRow() {
+        byte[] dst = {7, 7, 7};
+
+        assertEquals(0f, Int8Quantizer.quantize(new float[3], 0, dst, 0, 3));
+        assertArrayEquals(new byte[3], dst);
+        assertEquals(0f, Int8Quantizer.norm(dst, 0, 3, 0f));
+    }
+
+    @Test
+    void normMatchesTheDequantizedVector() {
+        Random r = new Random(8);
+        float[] v = gaussian(r, 256);
+        byte[] q = new byte[256];
+        float scale = Int8Quantizer.quantize(v, 0, q, 0, 256);
+
+        float[] back = Int8Quantizer.dequantize(q, 0, 256, scale);
+        double ss = 0;
+        for (float x : back) ss += x * x;
+
+        assertEquals(Math.sqrt(ss), Int8Quantizer.norm(q, 0, 256, scale), 1e-4);
+    }
+
+    @Test
+    void cosineThroughQuantizedRowsStaysClose() {
+        Random r = new Random(9);
+        int dim = 256;
+        double worst = 0;
+        for (int t = 0; t < 200; t++) {
+            float[] v = gaussian(r, dim);
+            float[] x = gaussian(r, dim);
+            byte[] q = new byte[dim];
+            float scale = Int8Quantizer.quantize(v, 0, q, 0, dim);
+
+            // 인덱스가 쓰는 방식: scale * (q·x) / (|v̂| |x|)
+            double qx = 0, vx = 0, vv = 0, xx = 0;
+            for (int i = 0; i < dim; i++) {
+                qx += q[i] * x[i];
+                vx += v[i] * x[i];
+                vv += v[i] * v[i];
+                xx += x[i] * x[i];
+            }
+            double approx = scale * qx / (Int8Quantizer.norm(q, 0, dim, scale) * Math.sqrt(xx));
+            double exact = vx / Math.sqrt(vv * xx);
+            worst = Math.max(worst, Math.abs(approx - exact));
+        }
+        assertTrue(worst < 0.01, "max |cos error| = " + worst);
+    }
+
+    private static float[] gaussian(Random r, int dim) {
+        float[] v = new float[dim];
+        for (int i = 0; i < dim; i++) v[i] = (float) r.nextGaussian();
+        return v;
+    }
+}
@@ -0,0 +1,69 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void putGetAndOverwrite() {
+        var map = new LongIntHashMap(4);
+
+        assertEquals(-1, map.get(7L, -1));
+        map.put(7L, 1);
+        map.put(7L, 2);
+        map.put(-3L, 5);
+
+        assertEquals(2, map.get(7L, -1));
+        assertEquals(5, map.get(-3L, -1));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void growsAndMatchesHashMapUnderRandomLoad() {
+        var map = new LongIntHashMap(4);
+        Map<Long, Integer> ref = new HashMap<>();
+        Random r = new Random(11);
+
+        // 좁은 key 범위라 같은 key 에 여러 번 더해지고, 여러 번 커진다
+        for (int i = 0; i < 50_000; i++) {
+            long key = 1 + r.nextInt(5_000) + ((long) r.nextInt(3) << 56);
+            int delta = r.nextInt(10) - 3;
+            map.addTo(key, delta);
+            ref.merge(key, delta, Integer::sum);
+        }
+
+        assertEquals(ref.size(), map.size());
+        ref.forEach((k, v) -> assertEquals(v.intValue(), map.get(k, Integer.MIN_VALUE)));
+        assertEquals(Integer.MIN_VALUE, map.get(9_999_999L, Integer.MIN_VALUE));
+    }
+
+    @Test
+    void addAllSumsAndForEachVisitsEveryEntryOnce() {
+        var a = new LongIntHashMap(4);
+        var b = new LongIntHashMap(4);
+        a.addTo(1L, 2);
+        a.addTo(2L, 3);
+        b.addTo(2L, 4);
+        b.addTo(3L, 5);
+
+        a.addAll(b);
+
+        Map<Long, Integer> seen = new HashMap<>();
+        a.forEach((k, v) -> assertNull(seen.put(k, v)));
+        assertEquals(Map.of(1L, 2, 2L, 7, 3L, 5), seen);
+    }
+
+    @Test
+    void zeroKeyIsRejected() {
+        var map = new LongIntHashMap(4);
+
+        assertThrows(IllegalArgumentException.class, () -> map.put(0L, 1));
+        assertThrows(IllegalArgumentException.class, () -> map.addTo(0L, 1));
+    }
+}
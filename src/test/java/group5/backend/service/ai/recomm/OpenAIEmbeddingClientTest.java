@@ -0,0 +1,108 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenAIEmbeddingClientTest {
+
+    @Test
+    void planSplitsByItemCountAndKeepsOrder() {
+        List<String> texts = Collections.nCopies(600, "짧은 문장");
+
+        var chunks = OpenAIEmbeddingClient.plan(texts, 256);
+
+        assertEquals(3, chunks.size());
+        assertEquals(256, chunks.get(0).end() - chunks.get(0).start());
+        assertEquals(256, chunks.get(1).end() - chunks.get(1).start());
+        assertEquals(88, chunks.get(2).end() - chunks.get(2).start());
+        assertContiguous(chunks, texts.size());
+    }
+
+    @Test
+    void planSplitsByTokenBudget() {
+        // 한 항목이 입력 한도(8000 토큰)까지 잘리므로 20만 토큰 예산에 25개씩 들어간다
+        String longText = "가".repeat(20_000);
+        List<String> texts = Collections.nCopies(60, longText);
+
+        var chunks = OpenAIEmbeddingClient.plan(texts, 256);
+
+        assertEquals(List.of(25, 25, 10), sizes(chunks));
+        for (var c : chunks) assertTrue(c.tokens() <= 200_000, "chunk over token budget: " + c);
+        assertContiguous(chunks, texts.size());
+    }
+
+    @Test
+    void planNeverReturnsEmptyChunks() {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) texts.add(i % 3 == 0 ? null : "text " + i);
+
+        var chunks = OpenAIEmbeddingClient.plan(texts, 1);
+
+        assertEquals(10, chunks.size());
+        assertContiguous(chunks, texts.size());
+        assertTrue(OpenAIEmbeddingClient.plan(List.of(), 256).isEmpty());
+    }
+
+    @Test
+    void maxItemsFollowsResponseBuffer() {
+        // 기본 16MB 버퍼면 1536/3072 차원 모두 API 배치 상한(256)까지 보낸다
+        assertEquals(256, OpenAIEmbeddingClient.maxItemsFor(1536, 16 * 1024 * 1024));
+        assertEquals(256, OpenAIEmbeddingClient.maxItemsFor(3072, 16 * 1024 * 1024));
+
+        // WebClient 기본값(256KB)이라면 응답이 절반(128KB)을 넘지 않게 줄인다
+        int items = OpenAIEmbeddingClient.maxItemsFor(1536, 256 * 1024);
+        assertTrue(items * OpenAIEmbeddingClient.responseBytesPerItem(1536) <= 128 * 1024);
+        assertTrue((items + 1) * OpenAIEmbeddingClient.responseBytesPerItem(1536) > 128 * 1024);
+
+        // 버퍼가 아무리 작아도 한 개씩은 보낸다
+        assertEquals(1, OpenAIEmbeddingClient.maxItemsFor(1536, 1024));
+    }
+
+    @Test
+    void responseEstimateCoversBase64Payload() {
+        int dim = 1536;
+        int base64Chars = java.util.Base64.getEncoder().encodeToString(new byte[dim * Float.BYTES]).length();
+        assertTrue(OpenAIEmbeddingClient.responseBytesPerItem(dim) > base64Chars);
+    }
+
+    @Test
+    void placeUsesResponseIndexAndCountsDistinctItems() {
+        float[][] out = new float[6][];
+        var items = List.of(
+                new EmbeddingResponseParser.Item(2, new float[]{2f}),
+                new EmbeddingResponseParser.Item(0, new float[]{0f}),
+                new EmbeddingResponseParser.Item(0, new float[]{0f}),   // 중복
+                new EmbeddingResponseParser.Item(3, new float[]{9f}),   // 청크 범위 밖
+                new EmbeddingResponseParser.Item(-1, new float[]{9f}),
+                new EmbeddingResponseParser.Item(1, null));
+
+        int filled = OpenAIEmbeddingClient.place(items, out, 3, 3);
+
+        assertEquals(2, filled);
+        assertNull(out[0]);
+        assertArrayEquals(new float[]{0f}, out[3]);
+        assertNull(out[4]);
+        assertArrayEquals(new float[]{2f}, out[5]);
+    }
+
+    private static void assertContiguous(List<OpenAIEmbeddingClient.Chunk> chunks, int n) {
+        int next = 0;
+        for (var c : chunks) {
+            assertEquals(next, c.start());
+            assertTrue(c.end() > c.start());
+            next = c.end();
+        }
+        assertEquals(n, next);
+    }
+
+    private static List<Integer> sizes(List<OpenAIEmbeddingClient.Chunk> chunks) {
+        List<Integer> out = new ArrayList<>();
+        for (var c : chunks) out.add(c.end() - c.start());
+        return out;
+    }
+}
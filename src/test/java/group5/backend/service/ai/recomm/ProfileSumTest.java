@@ -0,0 +1,114 @@
+package group5.backend.service.ai.recomm;
+
+import group5.backend.domain.recomm.ItemType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfileSumTest {
+
+    private static final float[] A = {1f, 0f, 0f};
+    private static final float[] B = {0f, 1f, 0f};
+    private static final float[] B2 = {0f, 0.8f, 0.6f}; // B 를 다시 임베딩한 벡터
+
+    @Test
+    void buildSkipsDuplicatesAndMissingVectors() {
+        var acc = new ProfileSum(3);
+
+        assertTrue(acc.add(ItemType.STORE, 1L, A));
+        assertFalse(acc.add(ItemType.STORE, 1L, A));
+        assertFalse(acc.add(ItemType.EVENT, 2L, null));
+        assertFalse(acc.add(ItemType.EVENT, 3L, new float[]{1f, 1f}));
+
+        assertEquals(1, acc.count());
+        assertArrayEquals(A, acc.sum());
+        assertFalse(acc.contains(ItemType.EVENT, 2L));
+    }
+
+    @Test
+    void unlikeOfItemThatNeverContributedLeavesSumAlone() {
+        var acc = new ProfileSum(3);
+        acc.add(ItemType.STORE, 1L, A);
+
+        // 빌드 때 벡터가 없어 더해지지 않은 아이템을 취소해도 합은 그대로
+        assertEquals(ProfileSum.Result.UNCHANGED, acc.apply(ItemType.EVENT, 2L, B, false));
+        assertArrayEquals(A, acc.sum());
+        assertEquals(1, acc.count());
+    }
+
+    @Test
+    void replayedToggleIsIdempotent() {
+        var acc = new ProfileSum(3);
+        acc.add(ItemType.STORE, 1L, A);
+
+        assertEquals(ProfileSum.Result.UPDATED, acc.apply(ItemType.POPUP, 7L, B, true));
+        assertEquals(ProfileSum.Result.UNCHANGED, acc.apply(ItemType.POPUP, 7L, B, true));
+        assertArrayEquals(new float[]{1f, 1f, 0f}, acc.sum());
+
+        assertEquals(ProfileSum.Result.UPDATED, acc.apply(ItemType.POPUP, 7L, B, false));
+        assertEquals(ProfileSum.Result.UNCHANGED, acc.apply(ItemType.POPUP, 7L, B, false));
+        assertArrayEquals(A, acc.sum());
+        assertEquals(1, acc.count());
+    }
+
+    @Test
+    void reembeddedMemberForcesRebuild() {
+        var acc = new ProfileSum(3);
+        acc.add(ItemType.STORE, 1L, A);
+        acc.add(ItemType.EVENT, 2L, B);
+
+        // 더할 때와 다른 벡터를 빼면 합이 어긋나므로 다시 빌드해야 한다
+        assertEquals(ProfileSum.Result.REBUILD, acc.apply(ItemType.EVENT, 2L, B2, false));
+        assertEquals(ProfileSum.Result.REBUILD, acc.apply(ItemType.EVENT, 2L, B2, true));
+        // 인덱스에서 사라진 멤버도 마찬가지
+        assertEquals(ProfileSum.Result.REBUILD, acc.apply(ItemType.EVENT, 2L, null, false));
+        // 벡터 없는 아이템 좋아요는 다음 빌드에 맡긴다
+        assertEquals(ProfileSum.Result.REBUILD, acc.apply(ItemType.POPUP, 9L, null, true));
+    }
+
+    @Test
+    void membersRoundTrip() {
+        var acc = new ProfileSum(3);
+        acc.add(ItemType.POPUP, 5L, B);
+        acc.add(ItemType.STORE, 900L, A);
+        acc.add(ItemType.EVENT, 3L, B2);
+
+        var restored = ProfileSum.decode(acc.sum().clone(), acc.encodeMembers());
+
+        assertNotNull(restored);
+        assertEquals(3, restored.count());
+        assertTrue(restored.contains(ItemType.STORE, 900L));
+        assertTrue(restored.contains(ItemType.EVENT, 3L));
+        assertTrue(restored.contains(ItemType.POPUP, 5L));
+        assertFalse(restored.contains(ItemType.STORE, 5L));
+        assertEquals(ProfileSum.Result.UPDATED, restored.apply(ItemType.EVENT, 3L, B2, false));
+        assertArrayEquals(new float[]{1f, 1f, 0f}, restored.sum(), 1e-6f);
+    }
+
+    @Test
+    void unknownMembershipDecodesToNull() {
+        assertNull(ProfileSum.decode(new float[3], null));
+        assertNull(ProfileSum.decode(null, new byte[0]));
+        assertNull(ProfileSum.decode(new float[3], new byte[5]));
+    }
+
+    @Test
+    void manyMembersStaySorted() {
+        var acc = new ProfileSum(3);
+        for (long id = 100; id > 0; id--) acc.add(ItemType.STORE, id, A);
+        for (long id = 1; id <= 100; id += 2) acc.apply(ItemType.STORE, id, A, false);
+
+        assertEquals(50, acc.count());
+        assertArrayEquals(new float[]{50f, 0f, 0f}, acc.sum());
+        for (long id = 1; id <= 100; id++) assertEquals(id % 2 == 0, acc.contains(ItemType.STORE, id));
+    }
+
+    @Test
+    void vectorHashSeesSmallChanges() {
+        float[] v = {0.1f, 0.2f, 0.3f};
+        float[] w = v.clone();
+        w[2] = Math.nextUp(w[2]);
+        assertEquals(ProfileSum.vectorHash(v), ProfileSum.vectorHash(v.clone()));
+        assertNotEquals(ProfileSum.vectorHash(v), ProfileSum.vectorHash(w));
+    }
+}
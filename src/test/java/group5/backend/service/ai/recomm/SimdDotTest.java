@@ -0,0 +1,81 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimdDotTest {
+
+    // 레인 수의 배수가 아닌 길이 위주 (꼬리 루프 경로) + 실제 임베딩 차원
+    private static final int[] LENGTHS = lengths();
+    private static final int[][] OFFSETS = {{0, 0}, {3, 0}, {0, 5}, {7, 13}};
+
+    @Test
+    void floatDotMatchesScalar() {
+        Random r = new Random(21);
+        for (int len : LENGTHS) {
+            for (int[] off : OFFSETS) {
+                // 구간 밖은 NaN: 커널이 범위를 벗어나 읽으면 결과가 NaN 이 된다
+                float[] a = padded(r, off[0], len, Float.NaN);
+                float[] b = padded(r, off[1], len, Float.NaN);
+
+                float simd = VectorApiDot.dot(a, off[0], b, off[1], len);
+                float scalar = SimdDot.scalarDot(a, off[0], b, off[1], len);
+
+                assertEquals(scalar, simd, tolerance(a, off[0], b, off[1], len),
+                        "len=" + len + " off=" + Arrays.toString(off));
+            }
+        }
+    }
+
+    @Test
+    void int8DotMatchesScalar() {
+        Random r = new Random(22);
+        for (int len : LENGTHS) {
+            for (int[] off : OFFSETS) {
+                float[] q = padded(r, off[0], len, Float.NaN);
+                byte[] b = new byte[off[1] + len + 16];
+                Arrays.fill(b, Byte.MIN_VALUE);
+                for (int i = 0; i < len; i++) b[off[1] + i] = (byte) (r.nextInt(255) - 127);
+
+                float simd = VectorApiDot.dot(q, off[0], b, off[1], len);
+                float scalar = SimdDot.scalarDot(q, off[0], b, off[1], len);
+
+                float[] bf = new float[b.length];
+                for (int i = 0; i < b.length; i++) bf[i] = b[i];
+                assertEquals(scalar, simd, tolerance(q, off[0], bf, off[1], len),
+                        "len=" + len + " off=" + Arrays.toString(off));
+            }
+        }
+    }
+
+    @Test
+    void zeroLengthIsZero() {
+        assertEquals(0f, VectorApiDot.dot(new float[4], 2, new float[4], 1, 0));
+        assertEquals(0f, VectorApiDot.dot(new float[4], 2, new byte[4], 1, 0));
+    }
+
+    /* ===== 아래는 테스트 유틸 ===== */
+
+    private static int[] lengths() {
+        int lanes = VectorApiDot.lanes();
+        return new int[]{1, 3, 7, lanes - 1, lanes + 1, 2 * lanes + 3, 37, 255, 1003, 1536, 1536 + 5};
+    }
+
+    private static float[] padded(Random r, int off, int len, float fill) {
+        float[] v = new float[off + len + 16];
+        Arrays.fill(v, fill);
+        for (int i = 0; i < len; i++) v[off + i] = (float) r.nextGaussian();
+        return v;
+    }
+
+    // 합산 순서만 다르므로 항 크기의 합에 비례하는 반올림 오차까지 허용
+    private static float tolerance(float[] a, int aOff, float[] b, int bOff, int len) {
+        double mag = 0;
+        for (int i = 0; i < len; i++) mag += Math.abs(a[aOff + i] * b[bOff + i]);
+        return (float) (mag * 1e-5 + 1e-6);
+    }
+}
@@ -0,0 +1,149 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneExecution() throws Exception {
+        var flight = new SingleFlight<String, Integer>("test");
+        var release = new CountDownLatch(1);
+        var calls = new AtomicInteger();
+
+        Future<Integer> owner = pool.submit(() -> flight.run("k", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return 42;
+        }));
+        waitUntil(() -> flight.inFlight() == 1);
+
+        List<Future<Integer>> joiners = new ArrayList<>();
+        for (int i = 0; i < 5; i++) joiners.add(pool.submit(() -> flight.run("k", () -> -1)));
+        waitUntil(() -> flight.shared() == 5);
+        release.countDown();
+
+        assertEquals(42, owner.get(5, TimeUnit.SECONDS));
+        for (var f : joiners) assertEquals(42, f.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+        assertEquals(1, flight.executed());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void resultIsNotCachedAfterTheFlightEnds() {
+        var flight = new SingleFlight<String, Integer>("test");
+        var calls = new AtomicInteger();
+
+        assertEquals(1, flight.run("k", calls::incrementAndGet));
+        assertEquals(2, flight.run("k", calls::incrementAndGet));
+        assertEquals(2, flight.executed());
+        assertEquals(0, flight.shared());
+    }
+
+    @Test
+    void failureReachesJoinersAndClearsTheKey() throws Exception {
+        var flight = new SingleFlight<String, Integer>("test");
+        var release = new CountDownLatch(1);
+
+        Future<Integer> owner = pool.submit(() -> flight.run("k", () -> {
+            await(release);
+            throw new IllegalStateException("boom");
+        }));
+        waitUntil(() -> flight.inFlight() == 1);
+        Future<Integer> joiner = pool.submit(() -> flight.run("k", () -> -1));
+        waitUntil(() -> flight.shared() == 1);
+        release.countDown();
+
+        for (var f : List.of(owner, joiner)) {
+            var e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(0, flight.inFlight());
+        assertEquals(7, flight.run("k", () -> 7));
+    }
+
+    @Test
+    void runAllExecutesOnlyKeysNotAlreadyInFlight() throws Exception {
+        var flight = new SingleFlight<String, Integer>("test");
+        var release = new CountDownLatch(1);
+
+        Future<Map<String, Integer>> first = pool.submit(() -> flight.runAll(List.of("a", "b"), keys -> {
+            await(release);
+            return Map.of("a", 1, "b", 2);
+        }));
+        waitUntil(() -> flight.inFlight() == 2);
+
+        List<List<String>> seen = new ArrayList<>();
+        Future<Map<String, Integer>> second = pool.submit(() -> flight.runAll(List.of("b", "c", "c", "d"), keys -> {
+            seen.add(keys);
+            return Map.of("c", 3); // d 는 결과 없음
+        }));
+        waitUntil(() -> flight.shared() == 1);
+        release.countDown();
+
+        assertEquals(Map.of("a", 1, "b", 2), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Map.of("b", 2, "c", 3), second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of("c", "d")), seen);
+        assertEquals(4, flight.executed());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void runAllDropsKeysWhoseOtherFlightFailed() throws Exception {
+        var flight = new SingleFlight<String, Integer>("test");
+        var release = new CountDownLatch(1);
+
+        Future<Integer> owner = pool.submit(() -> flight.run("a", () -> {
+            await(release);
+            throw new IllegalStateException("boom");
+        }));
+        waitUntil(() -> flight.inFlight() == 1);
+        Future<Map<String, Integer>> batch = pool.submit(() -> flight.runAll(List.of("a", "b"), keys -> Map.of("b", 2)));
+        waitUntil(() -> flight.shared() == 1);
+        release.countDown();
+
+        assertEquals(Map.of("b", 2), batch.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> owner.get(5, TimeUnit.SECONDS));
+    }
+
+    /* ===== 아래는 테스트 유틸 ===== */
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("latch timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier cond) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!cond.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not met in time");
+            Thread.sleep(1);
+        }
+    }
+}
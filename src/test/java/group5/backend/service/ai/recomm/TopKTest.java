@@ -0,0 +1,58 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.IntBinaryOperator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void matchesFullSortWithTiesBrokenByIndex() {
+        Random r = new Random(5);
+        for (int round = 0; round < 200; round++) {
+            int n = r.nextInt(300);
+            int k = r.nextInt(40);
+            int[] score = new int[n];
+            for (int i = 0; i < n; i++) score[i] = r.nextInt(20); // 동점이 많도록
+
+            // 점수 높은 순, 같으면 작은 인덱스가 앞선다
+            IntBinaryOperator order = (a, b) -> score[a] != score[b]
+                    ? Integer.compare(score[a], score[b])
+                    : Integer.compare(b, a);
+
+            int[] expected = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.<Integer>comparingInt(i -> -score[i]).thenComparingInt(i -> i))
+                    .limit(k)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+
+            assertArrayEquals(expected, TopK.select(n, k, order), "n=" + n + " k=" + k);
+        }
+    }
+
+    @Test
+    void acceptFilterSkipsIndicesBeforeRanking() {
+        int[] score = {9, 1, 8, 7, 6, 5};
+
+        int[] top = TopK.select(score.length, 2, i -> i % 2 == 1, (a, b) -> Integer.compare(score[a], score[b]));
+
+        assertArrayEquals(new int[]{3, 5}, top);
+    }
+
+    @Test
+    void returnsEverythingWhenFewerThanKPassAndNothingForNonPositiveK() {
+        int[] score = {3, 1, 2};
+        IntBinaryOperator order = (a, b) -> Integer.compare(score[a], score[b]);
+
+        assertArrayEquals(new int[]{0, 2, 1}, TopK.select(3, 10, order));
+        assertArrayEquals(new int[]{0}, TopK.select(3, 10, i -> i == 0, order));
+        assertEquals(0, TopK.select(3, 0, order).length);
+        assertEquals(0, TopK.select(0, 5, order).length);
+        assertEquals(0, TopK.select(3, 5, i -> false, order).length);
+    }
+}
@@ -0,0 +1,83 @@
+package group5.backend.service.ai.recomm;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorCodecTest {
+
+    @Test
+    void roundTripIsBitExact() {
+        Random r = new Random(3);
+        float[] v = new float[1536];
+        for (int i = 0; i < v.length; i++) v[i] = (float) r.nextGaussian();
+        v[0] = -0f;
+        v[1] = Float.MIN_VALUE;
+        v[2] = Float.MAX_VALUE;
+
+        byte[] blob = VectorCodec.encode(v, "text-embedding-3-small");
+
+        assertArrayEquals(v, VectorCodec.decode(blob));
+        assertEquals(1536, VectorCodec.dim(blob));
+        assertEquals("text-embedding-3-small", VectorCodec.model(blob));
+        assertEquals(4 + 1 + 1 + 4 + 22 + 1536 * 4, blob.length);
+    }
+
+    @Test
+    void headerLayoutIsStable() {
+        // 저장된 BLOB 과 호환돼야 하므로 바이트 배치를 고정해 둔다
+        byte[] blob = VectorCodec.encode(new float[]{1f, -2f}, "m");
+        ByteBuffer bb = ByteBuffer.wrap(blob).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals("GVEC", new String(blob, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals(1, blob[4]);
+        assertEquals(1, blob[5]);
+        assertEquals(2, bb.getInt(6));
+        assertEquals('m', blob[10]);
+        assertEquals(1f, bb.getFloat(11));
+        assertEquals(-2f, bb.getFloat(15));
+    }
+
+    @Test
+    void modelNameIsUtf8AndMayBeMissing() {
+        byte[] named = VectorCodec.encode(new float[]{0.5f}, "모델-v2");
+        byte[] unnamed = VectorCodec.encode(new float[]{0.5f}, null);
+
+        assertEquals("모델-v2", VectorCodec.model(named));
+        assertEquals("", VectorCodec.model(unnamed));
+        assertArrayEquals(new float[]{0.5f}, VectorCodec.decode(named));
+        assertArrayEquals(new float[]{0.5f}, VectorCodec.decode(unnamed));
+    }
+
+    @Test
+    void readPrefersBlobThenFallsBackToJson() {
+        byte[] blob = VectorCodec.encode(new float[]{1f, 2f}, "m");
+
+        assertArrayEquals(new float[]{1f, 2f}, VectorCodec.read(blob, "[9.0, 9.0]"));
+        assertArrayEquals(new float[]{0.25f, -1f}, VectorCodec.read(null, "[0.25, -1.0]"));
+        assertArrayEquals(new float[]{0.25f, -1f}, VectorCodec.read(new byte[0], "[0.25, -1.0]"));
+        assertNull(VectorCodec.read(null, "  "));
+        assertNull(VectorCodec.read(null, null));
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        byte[] blob = VectorCodec.encode(new float[]{1f}, "m");
+        byte[] badMagic = blob.clone();
+        badMagic[0] = 'X';
+        byte[] badVersion = blob.clone();
+        badVersion[4] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> VectorCodec.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> VectorCodec.decode(new byte[9]));
+        assertThrows(IllegalArgumentException.class, () -> VectorCodec.decode(badMagic));
+        assertThrows(IllegalArgumentException.class, () -> VectorCodec.dim(badVersion));
+        assertThrows(IllegalArgumentException.class, () -> VectorCodec.encode(new float[1], "m".repeat(256)));
+        assertThrows(IllegalArgumentException.class, () -> VectorCodec.fromJson("{not json"));
+    }
+}